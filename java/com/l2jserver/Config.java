@@ -140,6 +140,9 @@ public final class Config
 	public static boolean ALT_GAME_SHIELD_BLOCKS;
 	public static int ALT_PERFECT_SHLD_BLOCK;
 	public static long EFFECT_TICK_RATIO;
+	public static boolean BUFF_TIMING_WHEEL;
+	public static boolean SHARED_REGENERATION;
+	public static boolean COALESCE_STATUS_UPDATES;
 	public static boolean ALLOW_CLASS_MASTERS;
 	public static ClassMasterSettings CLASS_MASTER_SETTINGS;
 	public static boolean ALLOW_ENTIRE_TREE;
@@ -470,6 +473,11 @@ public final class Config
 	public static int GENERAL_THREAD_CORE_SIZE;
 	public static int AI_MAX_THREAD;
 	public static int EVENT_MAX_THREAD;
+	public static boolean THREAD_POOL_WORK_STEALING;
+	public static int THREAD_POOL_TIMING_WHEEL_TICK;
+	public static int MOVE_THREAD_POOL_SIZE;
+	public static int STARTUP_THREAD_POOL_SIZE;
+	public static boolean AI_TICK_SCHEDULER;
 	public static int CLIENT_PACKET_QUEUE_SIZE;
 	public static int CLIENT_PACKET_QUEUE_MAX_BURST_SIZE;
 	public static int CLIENT_PACKET_QUEUE_MAX_PACKETS_PER_SECOND;
@@ -490,7 +498,10 @@ public final class Config
 	public static long CONNECTION_CLOSE_TIME;
 	public static int CHAR_STORE_INTERVAL;
 	public static boolean LAZY_ITEMS_UPDATE;
+	public static boolean ITEM_WRITE_BEHIND;
+	public static int ITEM_WRITE_BEHIND_INTERVAL;
 	public static boolean UPDATE_ITEMS_ON_CHAR_STORE;
+	public static int SHUTDOWN_SAVE_THREADS;
 	public static boolean DESTROY_DROPPED_PLAYER_ITEM;
 	public static boolean DESTROY_EQUIPABLE_PLAYER_ITEM;
 	public static boolean SAVE_DROPPED_ITEM;
@@ -502,6 +513,7 @@ public final class Config
 	public static boolean MULTIPLE_ITEM_DROP;
 	public static boolean FORCE_INVENTORY_UPDATE;
 	public static boolean LAZY_CACHE;
+	public static boolean HTML_TEMPLATES;
 	public static boolean CACHE_CHAR_NAMES;
 	public static int MIN_NPC_ANIMATION;
 	public static int MAX_NPC_ANIMATION;
@@ -510,6 +522,9 @@ public final class Config
 	public static int COORD_SYNCHRONIZE;
 	public static boolean ENABLE_FALLING_DAMAGE;
 	public static boolean GRIDS_ALWAYS_ON;
+	public static int ZONE_GRID_CELL_SIZE;
+	public static int CHARACTER_GRID_CELL_SIZE;
+	public static int DOOR_GRID_CELL_SIZE;
 	public static int GRID_NEIGHBOR_TURNON_TIME;
 	public static int GRID_NEIGHBOR_TURNOFF_TIME;
 	public static int GEODATA;
@@ -517,6 +532,13 @@ public final class Config
 	public static File PATHNODE_DIR;
 	public static boolean GEODATA_CELLFINDING;
 	public static String PATHFIND_BUFFERS;
+	public static boolean PATHFIND_ASYNC;
+	public static int PATHFIND_THREADS;
+	public static int PATHFIND_QUEUE_SIZE;
+	public static int PATHFIND_CACHE_SIZE;
+	public static int PATHFIND_CACHE_TIME;
+	public static int LOS_CACHE_SIZE;
+	public static boolean LOS_CACHE_CHECK;
 	public static float LOW_WEIGHT;
 	public static float MEDIUM_WEIGHT;
 	public static float HIGH_WEIGHT;
@@ -527,6 +549,8 @@ public final class Config
 	public static boolean FORCE_GEODATA;
 	public static boolean MOVE_BASED_KNOWNLIST;
 	public static long KNOWNLIST_UPDATE_INTERVAL;
+	public static boolean INCREMENTAL_KNOWNLIST;
+	public static int INCREMENTAL_KNOWNLIST_MOVE_DISTANCE;
 	public static int PEACE_ZONE_MODE;
 	public static String DEFAULT_GLOBAL_CHAT;
 	public static String DEFAULT_TRADE_CHAT;
@@ -535,6 +559,7 @@ public final class Config
 	public static int WAREHOUSE_CACHE_TIME;
 	public static boolean ALLOW_REFUND;
 	public static boolean ALLOW_MAIL;
+	public static boolean MAIL_LAZY_CONTENT;
 	public static boolean ALLOW_ATTACHMENTS;
 	public static boolean ALLOW_WEAR;
 	public static int WEAR_DELAY;
@@ -970,6 +995,7 @@ public final class Config
 	public static int MMO_MAX_READ_PER_PASS;
 	public static int MMO_HELPER_BUFFER_COUNT;
 	public static boolean MMO_TCP_NODELAY;
+	public static boolean MMO_PRE_ENCODE_BROADCAST;
 	
 	// --------------------------------------------------
 	// Vitality Settings
@@ -1153,7 +1179,7 @@ public final class Config
 			ACCEPT_ALTERNATE_ID = serverSettings.getBoolean("AcceptAlternateID", true);
 			
 			DATABASE_DRIVER = serverSettings.getString("Driver", "com.mysql.jdbc.Driver");
-			DATABASE_URL = serverSettings.getString("URL", "jdbc:mysql://localhost/l2jgs");
+			DATABASE_URL = serverSettings.getString("URL", "jdbc:mysql://localhost/l2jgs?rewriteBatchedStatements=true");
 			DATABASE_LOGIN = serverSettings.getString("Login", "root");
 			DATABASE_PASSWORD = serverSettings.getString("Password", "");
 			DATABASE_MAX_CONNECTIONS = serverSettings.getInt("MaximumDbConnections", 10);
@@ -1482,6 +1508,9 @@ public final class Config
 			ALT_GAME_SHIELD_BLOCKS = Character.getBoolean("AltShieldBlocks", false);
 			ALT_PERFECT_SHLD_BLOCK = Character.getInt("AltPerfectShieldBlockRate", 10);
 			EFFECT_TICK_RATIO = Character.getLong("EffectTickRatio", 666);
+			BUFF_TIMING_WHEEL = Character.getBoolean("BuffTimingWheel", false);
+			SHARED_REGENERATION = Character.getBoolean("SharedRegeneration", false);
+			COALESCE_STATUS_UPDATES = Character.getBoolean("CoalesceStatusUpdates", false);
 			ALLOW_CLASS_MASTERS = Character.getBoolean("AllowClassMasters", false);
 			ALLOW_ENTIRE_TREE = Character.getBoolean("AllowEntireTree", false);
 			ALTERNATE_CLASS_MASTER = Character.getBoolean("AlternateClassMaster", false);
@@ -1735,6 +1764,7 @@ public final class Config
 			MMO_MAX_READ_PER_PASS = mmoSettings.getInt("MaxReadPerPass", 12);
 			MMO_HELPER_BUFFER_COUNT = mmoSettings.getInt("HelperBufferCount", 20);
 			MMO_TCP_NODELAY = mmoSettings.getBoolean("TcpNoDelay", false);
+			MMO_PRE_ENCODE_BROADCAST = mmoSettings.getBoolean("PreEncodeBroadcastPackets", true);
 			
 			// Load IdFactory L2Properties file (if exists)
 			final PropertiesParser IdFactory = new PropertiesParser(ID_CONFIG_FILE);
@@ -1794,6 +1824,19 @@ public final class Config
 			GENERAL_THREAD_CORE_SIZE = General.getInt("GeneralThreadCoreSize", 4);
 			AI_MAX_THREAD = General.getInt("AiMaxThread", 6);
 			EVENT_MAX_THREAD = General.getInt("EventsMaxThread", 5);
+			THREAD_POOL_WORK_STEALING = General.getBoolean("ThreadPoolWorkStealing", false);
+			THREAD_POOL_TIMING_WHEEL_TICK = General.getInt("ThreadPoolTimingWheelTick", 10);
+			MOVE_THREAD_POOL_SIZE = General.getInt("MoveThreadPoolSize", 0);
+			if (MOVE_THREAD_POOL_SIZE < 0)
+			{
+				MOVE_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+			}
+			STARTUP_THREAD_POOL_SIZE = General.getInt("StartupThreadPoolSize", 0);
+			if (STARTUP_THREAD_POOL_SIZE < 0)
+			{
+				STARTUP_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+			}
+			AI_TICK_SCHEDULER = General.getBoolean("AiTickScheduler", false);
 			CLIENT_PACKET_QUEUE_SIZE = General.getInt("ClientPacketQueueSize", 0);
 			if (CLIENT_PACKET_QUEUE_SIZE == 0)
 			{
@@ -1827,7 +1870,10 @@ public final class Config
 			CONNECTION_CLOSE_TIME = General.getLong("ConnectionCloseTime", 60000);
 			CHAR_STORE_INTERVAL = General.getInt("CharacterDataStoreInterval", 15);
 			LAZY_ITEMS_UPDATE = General.getBoolean("LazyItemsUpdate", false);
+			ITEM_WRITE_BEHIND = General.getBoolean("ItemWriteBehind", false);
+			ITEM_WRITE_BEHIND_INTERVAL = General.getInt("ItemWriteBehindInterval", 1000);
 			UPDATE_ITEMS_ON_CHAR_STORE = General.getBoolean("UpdateItemsOnCharStore", false);
+			SHUTDOWN_SAVE_THREADS = General.getInt("ShutdownSaveThreads", 0);
 			DESTROY_DROPPED_PLAYER_ITEM = General.getBoolean("DestroyPlayerDroppedItem", false);
 			DESTROY_EQUIPABLE_PLAYER_ITEM = General.getBoolean("DestroyEquipableItem", false);
 			SAVE_DROPPED_ITEM = General.getBoolean("SaveDroppedItem", false);
@@ -1838,6 +1884,7 @@ public final class Config
 			MULTIPLE_ITEM_DROP = General.getBoolean("MultipleItemDrop", true);
 			FORCE_INVENTORY_UPDATE = General.getBoolean("ForceInventoryUpdate", false);
 			LAZY_CACHE = General.getBoolean("LazyCache", true);
+			HTML_TEMPLATES = General.getBoolean("HtmlTemplates", false);
 			CACHE_CHAR_NAMES = General.getBoolean("CacheCharNames", true);
 			MIN_NPC_ANIMATION = General.getInt("MinNPCAnimation", 10);
 			MAX_NPC_ANIMATION = General.getInt("MaxNPCAnimation", 20);
@@ -1845,9 +1892,14 @@ public final class Config
 			MAX_MONSTER_ANIMATION = General.getInt("MaxMonsterAnimation", 20);
 			MOVE_BASED_KNOWNLIST = General.getBoolean("MoveBasedKnownlist", false);
 			KNOWNLIST_UPDATE_INTERVAL = General.getLong("KnownListUpdateInterval", 1250);
+			INCREMENTAL_KNOWNLIST = General.getBoolean("IncrementalKnownlist", false);
+			INCREMENTAL_KNOWNLIST_MOVE_DISTANCE = General.getInt("IncrementalKnownlistMoveDistance", 300);
 			GRIDS_ALWAYS_ON = General.getBoolean("GridsAlwaysOn", false);
 			GRID_NEIGHBOR_TURNON_TIME = General.getInt("GridNeighborTurnOnTime", 1);
 			GRID_NEIGHBOR_TURNOFF_TIME = General.getInt("GridNeighborTurnOffTime", 90);
+			ZONE_GRID_CELL_SIZE = General.getInt("ZoneGridCellSize", 256);
+			CHARACTER_GRID_CELL_SIZE = General.getInt("CharacterGridCellSize", 0);
+			DOOR_GRID_CELL_SIZE = General.getInt("DoorGridCellSize", 0);
 			GEODATA = General.getInt("GeoData", 0);
 			GEODATA_DRIVER = General.getString("GeoDataDriver", "com.l2jserver.gameserver.geoengine.NullDriver");
 			try
@@ -1861,6 +1913,22 @@ public final class Config
 			}
 			GEODATA_CELLFINDING = General.getBoolean("CellPathFinding", false);
 			PATHFIND_BUFFERS = General.getString("PathFindBuffers", "100x6;128x6;192x6;256x4;320x4;384x4;500x2");
+			PATHFIND_ASYNC = General.getBoolean("AsyncPathFinding", false);
+			PATHFIND_THREADS = General.getInt("PathFindThreads", 2);
+			if (PATHFIND_THREADS < 1)
+			{
+				PATHFIND_THREADS = 1;
+			}
+			PATHFIND_QUEUE_SIZE = General.getInt("PathFindQueueSize", 1000);
+			PATHFIND_CACHE_SIZE = General.getInt("PathFindCacheSize", 0);
+			if (PATHFIND_ASYNC && (PATHFIND_CACHE_SIZE <= 0))
+			{
+				// Asynchronous results are handed over to the waiting characters through the cache.
+				PATHFIND_CACHE_SIZE = 1024;
+			}
+			PATHFIND_CACHE_TIME = General.getInt("PathFindCacheTime", 1000);
+			LOS_CACHE_SIZE = General.getInt("LineOfSightCacheSize", 0);
+			LOS_CACHE_CHECK = General.getBoolean("LineOfSightCacheCheck", false);
 			LOW_WEIGHT = General.getFloat("LowWeight", 0.5f);
 			MEDIUM_WEIGHT = General.getFloat("MediumWeight", 2);
 			HIGH_WEIGHT = General.getFloat("HighWeight", 3);
@@ -1882,6 +1950,7 @@ public final class Config
 			WAREHOUSE_CACHE_TIME = General.getInt("WarehouseCacheTime", 15);
 			ALLOW_REFUND = General.getBoolean("AllowRefund", true);
 			ALLOW_MAIL = General.getBoolean("AllowMail", true);
+			MAIL_LAZY_CONTENT = General.getBoolean("MailLazyContent", false);
 			ALLOW_ATTACHMENTS = General.getBoolean("AllowAttachments", true);
 			ALLOW_WEAR = General.getBoolean("AllowWear", true);
 			WEAR_DELAY = General.getInt("WearDelay", 5);
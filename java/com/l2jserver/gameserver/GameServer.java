@@ -219,109 +219,115 @@ public class GameServer
 		Announcements.getInstance();
 		GlobalVariablesManager.getInstance();
 		
-		printSection("Data");
-		CategoryData.getInstance();
-		SecondaryAuthData.getInstance();
-		
-		printSection("Skills");
-		EffectHandler.getInstance().executeScript();
-		EnchantSkillGroupsData.getInstance();
-		SkillTreesData.getInstance();
-		SkillData.getInstance();
-		SummonSkillsTable.getInstance();
-		
-		printSection("Items");
-		ItemTable.getInstance();
-		EnchantItemGroupsData.getInstance();
-		EnchantItemData.getInstance();
-		EnchantItemOptionsData.getInstance();
-		OptionsData.getInstance();
-		EnchantItemHPBonusData.getInstance();
-		MerchantPriceConfigTable.getInstance().loadInstances();
-		BuyListData.getInstance();
-		MultisellData.getInstance();
-		RecipeData.getInstance();
-		ArmorSetsData.getInstance();
-		FishData.getInstance();
-		FishingMonstersData.getInstance();
-		FishingRodsData.getInstance();
-		HennaData.getInstance();
-		
-		printSection("Characters");
-		ClassListData.getInstance();
-		InitialEquipmentData.getInstance();
-		InitialShortcutData.getInstance();
-		ExperienceTable.getInstance();
-		KarmaData.getInstance();
-		HitConditionBonus.getInstance();
-		CharTemplateTable.getInstance();
-		CharNameTable.getInstance();
-		AdminTable.getInstance();
-		RaidBossPointsManager.getInstance();
-		PetDataTable.getInstance();
-		CharSummonTable.getInstance().init();
-		
-		printSection("Clans");
-		ClanTable.getInstance();
-		CHSiegeManager.getInstance();
-		ClanHallManager.getInstance();
-		AuctionManager.getInstance();
-		
-		printSection("Geodata");
-		GeoData.getInstance();
-		if (Config.GEODATA == 2)
+		// Independent loaders are run in parallel with StartupThreadPoolSize > 0, each one lists the loaders it needs.
+		// Loaders adding objects to the world (static objects, zones, doors, spawns, sieges) are chained to keep their original order.
+		final StartupGraph startup = new StartupGraph();
+		startup.setSection("Data");
+		startup.add("CategoryData", CategoryData::getInstance);
+		startup.add("SecondaryAuthData", SecondaryAuthData::getInstance);
+		
+		startup.setSection("Skills");
+		startup.add("EffectHandler", () -> EffectHandler.getInstance().executeScript());
+		startup.add("EnchantSkillGroupsData", EnchantSkillGroupsData::getInstance);
+		startup.add("SkillData", SkillData::getInstance, "EffectHandler");
+		startup.add("SkillTreesData", SkillTreesData::getInstance, "SkillData", "EnchantSkillGroupsData");
+		startup.add("SummonSkillsTable", SummonSkillsTable::getInstance, "SkillData");
+		
+		startup.setSection("Items");
+		startup.add("ItemTable", ItemTable::getInstance, "SkillData");
+		startup.add("EnchantItemGroupsData", EnchantItemGroupsData::getInstance);
+		startup.add("EnchantItemData", EnchantItemData::getInstance, "ItemTable");
+		startup.add("EnchantItemOptionsData", EnchantItemOptionsData::getInstance);
+		startup.add("OptionsData", OptionsData::getInstance, "SkillData");
+		startup.add("EnchantItemHPBonusData", EnchantItemHPBonusData::getInstance, "ItemTable");
+		startup.add("MerchantPriceConfigTable", () -> MerchantPriceConfigTable.getInstance().loadInstances());
+		startup.add("BuyListData", BuyListData::getInstance, "ItemTable", "MerchantPriceConfigTable");
+		startup.add("MultisellData", MultisellData::getInstance, "ItemTable");
+		startup.add("RecipeData", RecipeData::getInstance, "ItemTable");
+		startup.add("ArmorSetsData", ArmorSetsData::getInstance, "ItemTable");
+		startup.add("FishData", FishData::getInstance);
+		startup.add("FishingMonstersData", FishingMonstersData::getInstance);
+		startup.add("FishingRodsData", FishingRodsData::getInstance);
+		startup.add("HennaData", HennaData::getInstance);
+		
+		startup.setSection("Characters");
+		startup.add("ClassListData", ClassListData::getInstance);
+		startup.add("InitialEquipmentData", InitialEquipmentData::getInstance, "ItemTable");
+		startup.add("InitialShortcutData", InitialShortcutData::getInstance, "InitialEquipmentData");
+		startup.add("ExperienceTable", ExperienceTable::getInstance);
+		startup.add("KarmaData", KarmaData::getInstance);
+		startup.add("HitConditionBonus", HitConditionBonus::getInstance);
+		startup.add("CharTemplateTable", CharTemplateTable::getInstance);
+		startup.add("CharNameTable", CharNameTable::getInstance);
+		startup.add("AdminTable", AdminTable::getInstance);
+		startup.add("RaidBossPointsManager", RaidBossPointsManager::getInstance);
+		startup.add("PetDataTable", PetDataTable::getInstance, "ItemTable");
+		startup.add("CharSummonTable", () -> CharSummonTable.getInstance().init(), "PetDataTable", "SkillData");
+		
+		startup.setSection("Clans");
+		startup.add("ClanTable", ClanTable::getInstance, "SkillData", "CharNameTable", "ClassListData");
+		startup.add("CHSiegeManager", CHSiegeManager::getInstance, "ClanTable");
+		startup.add("ClanHallManager", ClanHallManager::getInstance, "CHSiegeManager");
+		startup.add("AuctionManager", AuctionManager::getInstance, "ClanHallManager");
+		
+		startup.setSection("Geodata");
+		startup.add("GeoData", GeoData::getInstance);
+		startup.add("PathFinding", () ->
 		{
-			PathFinding.getInstance();
-		}
-		
-		printSection("NPCs");
-		SkillLearnData.getInstance();
-		NpcData.getInstance();
-		WalkingManager.getInstance();
-		StaticObjects.getInstance();
-		ZoneManager.getInstance();
-		DoorTable.getInstance();
-		ItemAuctionManager.getInstance();
-		CastleManager.getInstance().loadInstances();
-		FortManager.getInstance().loadInstances();
-		NpcBufferTable.getInstance();
-		SpawnTable.getInstance();
-		RaidBossSpawnManager.getInstance();
-		DayNightSpawnManager.getInstance().trim().notifyChangeMode();
-		GrandBossManager.getInstance().initZones();
-		FourSepulchersManager.getInstance().init();
-		DimensionalRiftManager.getInstance();
-		EventDroplist.getInstance();
-		
-		printSection("Siege");
-		SiegeScheduleData.getInstance();
-		SiegeManager.getInstance().getSieges();
-		FortSiegeManager.getInstance();
-		TerritoryWarManager.getInstance();
-		CastleManorManager.getInstance();
-		MercTicketManager.getInstance();
-		ManorData.getInstance();
-		
-		printSection("Olympiad");
-		Olympiad.getInstance();
-		Hero.getInstance();
-		
-		printSection("Seven Signs");
-		SevenSigns.getInstance();
-		
-		// Call to load caches
-		printSection("Cache");
-		HtmCache.getInstance();
-		CrestTable.getInstance();
-		TeleportLocationTable.getInstance();
-		UIData.getInstance();
-		PartyMatchWaitingList.getInstance();
-		PartyMatchRoomList.getInstance();
-		PetitionManager.getInstance();
-		AugmentationData.getInstance();
-		CursedWeaponsManager.getInstance();
-		TransformData.getInstance();
-		BotReportTable.getInstance();
+			if (Config.GEODATA == 2)
+			{
+				PathFinding.getInstance();
+			}
+		}, "GeoData");
+		
+		startup.setSection("NPCs");
+		startup.add("SkillLearnData", SkillLearnData::getInstance);
+		startup.add("NpcData", NpcData::getInstance, "SkillData", "SkillLearnData", "ItemTable");
+		startup.add("WalkingManager", WalkingManager::getInstance, "NpcData");
+		startup.add("StaticObjects", StaticObjects::getInstance);
+		startup.add("ZoneManager", ZoneManager::getInstance, "StaticObjects", "NpcData");
+		startup.add("DoorTable", DoorTable::getInstance, "ZoneManager");
+		startup.add("ItemAuctionManager", ItemAuctionManager::getInstance, "NpcData");
+		startup.add("CastleManager", () -> CastleManager.getInstance().loadInstances(), "DoorTable", "AuctionManager", "MerchantPriceConfigTable");
+		startup.add("FortManager", () -> FortManager.getInstance().loadInstances(), "CastleManager");
+		startup.add("NpcBufferTable", NpcBufferTable::getInstance);
+		startup.add("SpawnTable", SpawnTable::getInstance, "WalkingManager", "ItemAuctionManager", "FortManager", "NpcBufferTable", "PathFinding");
+		startup.add("RaidBossSpawnManager", RaidBossSpawnManager::getInstance, "SpawnTable");
+		startup.add("DayNightSpawnManager", () -> DayNightSpawnManager.getInstance().trim().notifyChangeMode(), "RaidBossSpawnManager");
+		startup.add("GrandBossManager", () -> GrandBossManager.getInstance().initZones(), "DayNightSpawnManager");
+		startup.add("FourSepulchersManager", () -> FourSepulchersManager.getInstance().init(), "GrandBossManager");
+		startup.add("DimensionalRiftManager", DimensionalRiftManager::getInstance, "FourSepulchersManager");
+		startup.add("EventDroplist", EventDroplist::getInstance);
+		
+		startup.setSection("Siege");
+		startup.add("SiegeScheduleData", SiegeScheduleData::getInstance);
+		startup.add("SiegeManager", () -> SiegeManager.getInstance().getSieges(), "SiegeScheduleData", "DimensionalRiftManager");
+		startup.add("FortSiegeManager", FortSiegeManager::getInstance, "SiegeManager");
+		startup.add("TerritoryWarManager", TerritoryWarManager::getInstance, "FortSiegeManager", "SkillTreesData");
+		startup.add("ManorData", ManorData::getInstance, "ItemTable");
+		startup.add("CastleManorManager", CastleManorManager::getInstance, "TerritoryWarManager", "ManorData");
+		startup.add("MercTicketManager", MercTicketManager::getInstance, "CastleManorManager");
+		
+		startup.setSection("Olympiad");
+		startup.add("Hero", Hero::getInstance, "CastleManager", "NpcData");
+		startup.add("Olympiad", Olympiad::getInstance, "Hero", "ZoneManager");
+		
+		startup.setSection("Seven Signs");
+		startup.add("SevenSigns", SevenSigns::getInstance, "MercTicketManager");
+		
+		startup.setSection("Cache");
+		startup.add("HtmCache", HtmCache::getInstance);
+		startup.add("CrestTable", CrestTable::getInstance, "ClanTable");
+		startup.add("TeleportLocationTable", TeleportLocationTable::getInstance);
+		startup.add("UIData", UIData::getInstance);
+		startup.add("PartyMatchWaitingList", PartyMatchWaitingList::getInstance);
+		startup.add("PartyMatchRoomList", PartyMatchRoomList::getInstance);
+		startup.add("PetitionManager", PetitionManager::getInstance, "AdminTable");
+		startup.add("AugmentationData", AugmentationData::getInstance, "OptionsData");
+		startup.add("CursedWeaponsManager", CursedWeaponsManager::getInstance, "ItemTable");
+		startup.add("TransformData", TransformData::getInstance, "SkillData");
+		startup.add("BotReportTable", BotReportTable::getInstance, "SkillData");
+		startup.execute(Config.STARTUP_THREAD_POOL_SIZE);
 		
 		printSection("Scripts");
 		QuestManager.getInstance();
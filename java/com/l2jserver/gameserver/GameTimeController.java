@@ -18,7 +18,13 @@
  */
 package com.l2jserver.gameserver;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +34,7 @@ import com.l2jserver.Config;
 import com.l2jserver.gameserver.ai.CtrlEvent;
 import com.l2jserver.gameserver.ai.L2CharacterAI;
 import com.l2jserver.gameserver.instancemanager.DayNightSpawnManager;
+import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.actor.L2Character;
 
 /**
@@ -49,9 +56,31 @@ public final class GameTimeController extends Thread
 	
 	private static GameTimeController _instance;
 	
+	/** Upper bounds (in milliseconds) of the tick duration histogram, the last bucket counts all longer ticks. */
+	private static final int[] TICK_HISTOGRAM_BOUNDS =
+	{
+		5,
+		10,
+		25,
+		50,
+		MILLIS_IN_TICK,
+		200,
+		500
+	};
+	
 	private final FastMap<Integer, L2Character> _movingObjects = new FastMap<Integer, L2Character>().shared();
 	private final long _referenceTime;
 	
+	/** Pool used to update the moving characters of different world regions in parallel, {@code null} if disabled. */
+	private final ForkJoinPool _movePool;
+	private final List<List<L2Character>> _moveStripes;
+	private final List<Callable<Void>> _moveTasks;
+	
+	private final AtomicLongArray _tickHistogram = new AtomicLongArray(TICK_HISTOGRAM_BOUNDS.length + 1);
+	private final AtomicLong _tickCount = new AtomicLong();
+	private final AtomicLong _tickOverruns = new AtomicLong();
+	private final AtomicLong _tickMaxTime = new AtomicLong();
+	
 	private GameTimeController()
 	{
 		super("GameTimeController");
@@ -65,6 +94,28 @@ public final class GameTimeController extends Thread
 		c.set(Calendar.MILLISECOND, 0);
 		_referenceTime = c.getTimeInMillis();
 		
+		if (Config.MOVE_THREAD_POOL_SIZE > 0)
+		{
+			_movePool = new ForkJoinPool(Config.MOVE_THREAD_POOL_SIZE);
+			
+			// Use more stripes than threads so regions with many moving characters do not hold a whole thread.
+			final int stripes = Config.MOVE_THREAD_POOL_SIZE * 4;
+			_moveStripes = new ArrayList<>(stripes);
+			_moveTasks = new ArrayList<>(stripes);
+			for (int i = 0; i < stripes; i++)
+			{
+				final List<L2Character> stripe = new ArrayList<>();
+				_moveStripes.add(stripe);
+				_moveTasks.add(new MoveStripeTask(stripe));
+			}
+		}
+		else
+		{
+			_movePool = null;
+			_moveStripes = null;
+			_moveTasks = null;
+		}
+		
 		super.start();
 	}
 	
@@ -129,6 +180,12 @@ public final class GameTimeController extends Thread
 	 */
 	private final void moveObjects()
 	{
+		if (_movePool != null)
+		{
+			moveObjectsParallel();
+			return;
+		}
+		
 		L2Character character;
 		for (FastMap.Entry<Integer, L2Character> e = _movingObjects.head(), tail = _movingObjects.tail(); (e = e.getNext()) != tail;)
 		{
@@ -143,6 +200,109 @@ public final class GameTimeController extends Thread
 		}
 	}
 	
+	/**
+	 * Splits the moving characters in stripes by world region and updates the stripes in parallel.<br>
+	 * All characters of the same world region are always updated by the same task.
+	 */
+	private final void moveObjectsParallel()
+	{
+		final int stripes = _moveStripes.size();
+		L2Character character;
+		for (FastMap.Entry<Integer, L2Character> e = _movingObjects.head(), tail = _movingObjects.tail(); (e = e.getNext()) != tail;)
+		{
+			character = e.getValue();
+			final int regionX = (character.getX() >> L2World.SHIFT_BY) + L2World.OFFSET_X;
+			final int regionY = (character.getY() >> L2World.SHIFT_BY) + L2World.OFFSET_Y;
+			_moveStripes.get(Math.abs((regionX * 31) + regionY) % stripes).add(character);
+		}
+		
+		try
+		{
+			_movePool.invokeAll(_moveTasks);
+		}
+		finally
+		{
+			for (List<L2Character> stripe : _moveStripes)
+			{
+				stripe.clear();
+			}
+		}
+	}
+	
+	private final class MoveStripeTask implements Callable<Void>
+	{
+		private final List<L2Character> _stripe;
+		
+		protected MoveStripeTask(List<L2Character> stripe)
+		{
+			_stripe = stripe;
+		}
+		
+		@Override
+		public Void call()
+		{
+			final int gameTicks = getGameTicks();
+			for (L2Character character : _stripe)
+			{
+				try
+				{
+					if (character.updatePosition(gameTicks))
+					{
+						// Destination reached. Remove from map and execute arrive event.
+						_movingObjects.remove(character.getObjectId());
+						fireCharacterArrived(character);
+					}
+				}
+				catch (final Throwable e)
+				{
+					_log.log(Level.WARNING, "", e);
+				}
+			}
+			return null;
+		}
+	}
+	
+	private final void updateTickStats(long tickTime)
+	{
+		_tickCount.incrementAndGet();
+		if (tickTime > MILLIS_IN_TICK)
+		{
+			_tickOverruns.incrementAndGet();
+		}
+		if (tickTime > _tickMaxTime.get())
+		{
+			_tickMaxTime.set(tickTime);
+		}
+		
+		int bucket = 0;
+		while ((bucket < TICK_HISTOGRAM_BOUNDS.length) && (tickTime > TICK_HISTOGRAM_BOUNDS[bucket]))
+		{
+			bucket++;
+		}
+		_tickHistogram.incrementAndGet(bucket);
+	}
+	
+	/**
+	 * @return the movement tick duration histogram and the number of ticks that did not fit in the tick budget
+	 */
+	public String[] getStats()
+	{
+		final String[] stats = new String[TICK_HISTOGRAM_BOUNDS.length + 7];
+		int i = 0;
+		stats[i++] = "Movement ticks:";
+		stats[i++] = " |- MovingObjects: " + _movingObjects.size();
+		stats[i++] = " |- Threads:       " + (_movePool != null ? _movePool.getParallelism() : 1);
+		stats[i++] = " |- Ticks:         " + _tickCount.get();
+		stats[i++] = " |- Overruns:      " + _tickOverruns.get() + " (> " + MILLIS_IN_TICK + " ms)";
+		stats[i++] = " |- MaxTime:       " + _tickMaxTime.get() + " ms";
+		for (int bucket = 0; bucket < TICK_HISTOGRAM_BOUNDS.length; bucket++)
+		{
+			stats[i++] = " |- <= " + TICK_HISTOGRAM_BOUNDS[bucket] + " ms: " + _tickHistogram.get(bucket);
+		}
+		stats[i++] = " |- >  " + TICK_HISTOGRAM_BOUNDS[TICK_HISTOGRAM_BOUNDS.length - 1] + " ms: " + _tickHistogram.get(TICK_HISTOGRAM_BOUNDS.length);
+		return stats;
+	}
+	
 	private final void fireCharacterArrived(final L2Character character)
 	{
 		final L2CharacterAI ai = character.getAI();
@@ -203,6 +363,7 @@ public final class GameTimeController extends Thread
 		{
 			nextTickTime = ((System.currentTimeMillis() / MILLIS_IN_TICK) * MILLIS_IN_TICK) + 100;
 			
+			final long tickStart = System.currentTimeMillis();
 			try
 			{
 				moveObjects();
@@ -211,6 +372,7 @@ public final class GameTimeController extends Thread
 			{
 				_log.log(Level.WARNING, "", e);
 			}
+			updateTickStats(System.currentTimeMillis() - tickStart);
 			
 			sleepTime = nextTickTime - System.currentTimeMillis();
 			if (sleepTime > 0)
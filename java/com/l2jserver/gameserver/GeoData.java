@@ -62,6 +62,7 @@ public class GeoData implements IGeoDriver
 	}
 	
 	private final IGeoDriver _driver;
+	private final LineOfSightCache _losCache;
 	
 	protected GeoData()
 	{
@@ -95,6 +96,8 @@ public class GeoData implements IGeoDriver
 		{
 			_driver = new NullDriver(null);
 		}
+		
+		_losCache = (Config.GEODATA > 0) && (Config.LOS_CACHE_SIZE > 0) ? new LineOfSightCache(Config.LOS_CACHE_SIZE) : null;
 	}
 	
 	@Override
@@ -164,6 +167,14 @@ public class GeoData implements IGeoDriver
 		return _driver instanceof NullDriver;
 	}
 	
+	/**
+	 * @return the line of sight cache, {@code null} if it is disabled
+	 */
+	public LineOfSightCache getLineOfSightCache()
+	{
+		return _losCache;
+	}
+	
 	/**
 	 * Gets the height.
 	 * @param x the x coordinate
@@ -319,15 +330,7 @@ public class GeoData implements IGeoDriver
 		
 		if (tz > z)
 		{
-			int tmp = tx;
-			tx = x;
-			x = tmp;
-			
-			tmp = ty;
-			ty = y;
-			y = tmp;
-			
-			tmp = tz;
+			int tmp = tz;
 			tz = z;
 			z = tmp;
 			
@@ -340,6 +343,44 @@ public class GeoData implements IGeoDriver
 			geoY = tmp;
 		}
 		
+		if (_losCache == null)
+		{
+			return checkLineOfSight(geoX, geoY, z, tGeoX, tGeoY, tz);
+		}
+		
+		final Boolean cached = _losCache.get(geoX, geoY, z, tGeoX, tGeoY, tz);
+		if (cached == null)
+		{
+			final boolean canSee = checkLineOfSight(geoX, geoY, z, tGeoX, tGeoY, tz);
+			_losCache.put(geoX, geoY, z, tGeoX, tGeoY, tz, canSee);
+			return canSee;
+		}
+		
+		if (Config.LOS_CACHE_CHECK)
+		{
+			final boolean canSee = checkLineOfSight(geoX, geoY, z, tGeoX, tGeoY, tz);
+			if (canSee != cached)
+			{
+				_losCache.countMismatch();
+				LOGGER.warning(getClass().getSimpleName() + ": Cached line of sight " + cached + " differs from computed " + canSee + " between geo " + geoX + "," + geoY + "," + z + " and " + tGeoX + "," + tGeoY + "," + tz);
+			}
+			return canSee;
+		}
+		return cached;
+	}
+	
+	/**
+	 * Walks the geodata between two geo cells, the start has to be the highest end.
+	 * @param geoX the start geo x
+	 * @param geoY the start geo y
+	 * @param z the start geodata height
+	 * @param tGeoX the end geo x
+	 * @param tGeoY the end geo y
+	 * @param tz the end geodata height
+	 * @return {@code true} if there is line of sight between the two cells, {@code false} otherwise
+	 */
+	private boolean checkLineOfSight(int geoX, int geoY, int z, int tGeoX, int tGeoY, int tz)
+	{
 		LinePointIterator3D pointIter = new LinePointIterator3D(geoX, geoY, z, tGeoX, tGeoY, tz);
 		// first point is guaranteed to be available, skip it, we can always see our own position
 		pointIter.next();
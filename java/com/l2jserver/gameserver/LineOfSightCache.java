@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the geodata line of sight results of {@link GeoData}, see {@link com.l2jserver.Config#LOS_CACHE_SIZE}.<br>
+ * The geodata walk only depends on the geo cells of both ends and on their geodata heights, so results are keyed by these and never get stale.<br>
+ * The cache is a direct mapped table: a result replaces the one stored in its slot, lookups neither lock nor allocate.
+ */
+public final class LineOfSightCache
+{
+	private final AtomicReferenceArray<Entry> _entries;
+	private final int _mask;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _mismatches = new LongAdder();
+	
+	/**
+	 * @param size the number of slots, rounded up to a power of two
+	 */
+	public LineOfSightCache(int size)
+	{
+		final int slots = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+		_entries = new AtomicReferenceArray<>(slots);
+		_mask = slots - 1;
+	}
+	
+	/**
+	 * @param geoX the start geo x
+	 * @param geoY the start geo y
+	 * @param z the start geodata height
+	 * @param tGeoX the end geo x
+	 * @param tGeoY the end geo y
+	 * @param tz the end geodata height
+	 * @return the cached result, {@code null} if there is none
+	 */
+	public Boolean get(int geoX, int geoY, int z, int tGeoX, int tGeoY, int tz)
+	{
+		final int from = getKey(geoX, geoY);
+		final int to = getKey(tGeoX, tGeoY);
+		final int heights = getKey(z, tz);
+		final Entry entry = _entries.get(getSlot(from, to, heights));
+		if ((entry != null) && (entry._from == from) && (entry._to == to) && (entry._heights == heights))
+		{
+			_hits.increment();
+			return entry._canSee;
+		}
+		_misses.increment();
+		return null;
+	}
+	
+	/**
+	 * Stores a computed result.
+	 * @param geoX the start geo x
+	 * @param geoY the start geo y
+	 * @param z the start geodata height
+	 * @param tGeoX the end geo x
+	 * @param tGeoY the end geo y
+	 * @param tz the end geodata height
+	 * @param canSee the computed result
+	 */
+	public void put(int geoX, int geoY, int z, int tGeoX, int tGeoY, int tz, boolean canSee)
+	{
+		final int from = getKey(geoX, geoY);
+		final int to = getKey(tGeoX, tGeoY);
+		final int heights = getKey(z, tz);
+		_entries.lazySet(getSlot(from, to, heights), new Entry(from, to, heights, canSee));
+	}
+	
+	/**
+	 * Counts a cached result which differs from the computed one, with {@link com.l2jserver.Config#LOS_CACHE_CHECK}.
+	 */
+	public void countMismatch()
+	{
+		_mismatches.increment();
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long requests = Math.max(hits + _misses.sum(), 1);
+		return new String[]
+		{
+			"Line Of Sight Cache:",
+			" |- Slots:      " + _entries.length(),
+			" |- Hits:       " + hits + " (" + ((hits * 100) / requests) + "%)",
+			" |- Misses:     " + _misses.sum(),
+			" |- Mismatches: " + _mismatches.sum()
+		};
+	}
+	
+	private static int getKey(int high, int low)
+	{
+		return (high << 16) | (low & 0xFFFF);
+	}
+	
+	private int getSlot(int from, int to, int heights)
+	{
+		int hash = (((from * 31) + to) * 31) + heights;
+		hash ^= (hash >>> 16);
+		hash *= 0x85EBCA6B;
+		hash ^= (hash >>> 13);
+		return hash & _mask;
+	}
+	
+	private static final class Entry
+	{
+		protected final int _from;
+		protected final int _to;
+		protected final int _heights;
+		protected final boolean _canSee;
+		
+		public Entry(int from, int to, int heights, boolean canSee)
+		{
+			_from = from;
+			_to = to;
+			_heights = heights;
+			_canSee = canSee;
+		}
+	}
+}
@@ -18,6 +18,14 @@
  */
 package com.l2jserver.gameserver;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +54,8 @@ import com.l2jserver.gameserver.network.communityserver.CommunityServerThread;
 import com.l2jserver.gameserver.network.gameserverpackets.ServerStatus;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.pathfinding.PathFindingService;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 /**
@@ -223,6 +233,19 @@ public class Shutdown extends Thread
 				// ignore
 			}
 			
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				try
+				{
+					ItemPersistenceTaskManager.getInstance().flush();
+					_log.info("Item Persistence Task Manager: Pending items saved(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
+				}
+				catch (Throwable t)
+				{
+					_log.log(Level.WARNING, "Error saving pending items.", t);
+				}
+			}
+			
 			// ensure all services are stopped
 			try
 			{
@@ -245,6 +268,11 @@ public class Shutdown extends Thread
 				// ignore
 			}
 			
+			if (Config.PATHFIND_ASYNC)
+			{
+				PathFindingService.getInstance().shutdown();
+			}
+			
 			try
 			{
 				CommunityServerThread.getInstance().interrupt();
@@ -591,29 +619,88 @@ public class Shutdown extends Thread
 	}
 	
 	/**
-	 * This disconnects all clients from the server.
+	 * This disconnects all clients from the server.<br>
+	 * The players are saved by up to {@link Config#SHUTDOWN_SAVE_THREADS} threads, the same way concurrent logouts are, and the time of each phase is logged.<br>
+	 * It only returns once all the players are saved, even if the shutdown thread is interrupted meanwhile.
 	 */
 	private void disconnectAllCharacters()
 	{
-		for (L2PcInstance player : L2World.getInstance().getPlayers())
+		final List<L2PcInstance> players = new ArrayList<>(L2World.getInstance().getPlayers());
+		// Half of the database connections are left to the other threads still running.
+		final int maxThreads = Config.DATABASE_MAX_CONNECTIONS / 2;
+		final int threads = Math.max(Math.min((Config.SHUTDOWN_SAVE_THREADS > 0) ? Math.min(Config.SHUTDOWN_SAVE_THREADS, maxThreads) : maxThreads, players.size()), 1);
+		final LongAdder closeTime = new LongAdder();
+		final LongAdder saveTime = new LongAdder();
+		final AtomicLong maxSaveTime = new AtomicLong();
+		final AtomicInteger saved = new AtomicInteger();
+		
+		if (threads == 1)
 		{
-			// Logout Character
-			try
+			for (L2PcInstance player : players)
+			{
+				disconnectCharacter(player, closeTime, saveTime, maxSaveTime, saved);
+			}
+		}
+		else
+		{
+			final AtomicInteger threadNumber = new AtomicInteger(1);
+			final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> new Thread(r, "ShutdownSave-" + threadNumber.getAndIncrement()));
+			for (L2PcInstance player : players)
 			{
-				L2GameClient client = player.getClient();
-				if ((client != null) && !client.isDetached())
+				executor.execute(() -> disconnectCharacter(player, closeTime, saveTime, maxSaveTime, saved));
+			}
+			executor.shutdown();
+			boolean interrupted = false;
+			while (!executor.isTerminated())
+			{
+				try
 				{
-					client.close(ServerClose.STATIC_PACKET);
-					client.setActiveChar(null);
-					player.setClient(null);
+					if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+					{
+						_log.info("Saved " + saved.get() + " of " + players.size() + " players...");
+					}
+				}
+				catch (InterruptedException e)
+				{
+					// The players must be saved before the shutdown goes on.
+					interrupted = true;
 				}
-				player.deleteMe();
 			}
-			catch (Throwable t)
+			if (interrupted)
 			{
-				_log.log(Level.WARNING, "Failed logour char " + player, t);
+				Thread.currentThread().interrupt();
 			}
 		}
+		
+		_log.info("Saved " + saved.get() + " of " + players.size() + " players using " + threads + " threads. Thread time: clients closed in " + TimeUnit.NANOSECONDS.toMillis(closeTime.sum()) + "ms, players stored in " + TimeUnit.NANOSECONDS.toMillis(saveTime.sum()) + "ms. Slowest player " + TimeUnit.NANOSECONDS.toMillis(maxSaveTime.get()) + "ms.");
+	}
+	
+	private static void disconnectCharacter(L2PcInstance player, LongAdder closeTime, LongAdder saveTime, AtomicLong maxSaveTime, AtomicInteger saved)
+	{
+		// Logout Character
+		try
+		{
+			final long start = System.nanoTime();
+			L2GameClient client = player.getClient();
+			if ((client != null) && !client.isDetached())
+			{
+				client.close(ServerClose.STATIC_PACKET);
+				client.setActiveChar(null);
+				player.setClient(null);
+			}
+			final long closed = System.nanoTime();
+			closeTime.add(closed - start);
+			
+			player.deleteMe();
+			final long time = System.nanoTime() - closed;
+			saveTime.add(time);
+			maxSaveTime.accumulateAndGet(time, Math::max);
+			saved.incrementAndGet();
+		}
+		catch (Throwable t)
+		{
+			_log.log(Level.WARNING, "Failed logour char " + player, t);
+		}
 	}
 	
 	/**
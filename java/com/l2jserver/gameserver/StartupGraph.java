@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dependency graph of the data loaders run at server startup.<br>
+ * Each loader declares the loaders it depends on, they must have been added before it so the graph can't contain cycles.<br>
+ * With a single thread the loaders run in the order they were added, otherwise a loader is started as soon as all its dependencies are done.<br>
+ * Once everything is loaded, the time spent in each loader and the critical path of the startup are logged.
+ */
+public final class StartupGraph
+{
+	private static final Logger _log = Logger.getLogger(StartupGraph.class.getName());
+	
+	private final Map<String, Loader> _loaders = new LinkedHashMap<>();
+	private String _section = "";
+	
+	/**
+	 * Sets the section of the loaders added next, used for the startup log and the timing report.
+	 * @param section the section name
+	 */
+	public void setSection(String section)
+	{
+		_section = section;
+	}
+	
+	/**
+	 * Adds a loader to the graph.
+	 * @param name the unique name of the loader
+	 * @param task the loading task
+	 * @param dependencies the names of the loaders which have to be done before this one starts
+	 */
+	public void add(String name, Runnable task, String... dependencies)
+	{
+		if (_loaders.containsKey(name))
+		{
+			throw new IllegalArgumentException("Loader " + name + " is already registered!");
+		}
+		
+		final Loader loader = new Loader(name, _section, task, dependencies.length);
+		for (String dependency : dependencies)
+		{
+			final Loader parent = _loaders.get(dependency);
+			if (parent == null)
+			{
+				throw new IllegalArgumentException("Loader " + name + " depends on " + dependency + " which is not registered before it!");
+			}
+			loader._dependencies.add(parent);
+			parent._dependents.add(loader);
+		}
+		_loaders.put(name, loader);
+	}
+	
+	/**
+	 * Runs all the loaders and logs the timing report.
+	 * @param threads the number of threads to use, 0 or 1 runs the loaders one after another from the calling thread
+	 * @throws Exception if a loader failed, the loaders depending on it are not run
+	 */
+	public void execute(int threads) throws Exception
+	{
+		final long start = System.nanoTime();
+		if (threads <= 1)
+		{
+			executeSequential();
+		}
+		else
+		{
+			executeParallel(threads);
+		}
+		report(System.nanoTime() - start, Math.max(threads, 1));
+	}
+	
+	private void executeSequential()
+	{
+		String section = null;
+		for (Loader loader : _loaders.values())
+		{
+			if (!loader._section.equals(section))
+			{
+				section = loader._section;
+				GameServer.printSection(section);
+			}
+			loader.run();
+		}
+	}
+	
+	private void executeParallel(int threads) throws Exception
+	{
+		_log.info(getClass().getSimpleName() + ": Loading " + _loaders.size() + " loaders using " + threads + " threads.");
+		
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, r ->
+		{
+			final Thread t = new Thread(r, "StartupLoader-" + threadNumber.getAndIncrement());
+			t.setPriority(Thread.MAX_PRIORITY);
+			return t;
+		});
+		final CountDownLatch done = new CountDownLatch(_loaders.size());
+		final AtomicReference<Loader> failed = new AtomicReference<>();
+		
+		try
+		{
+			for (Loader loader : _loaders.values())
+			{
+				if (loader._dependencies.isEmpty())
+				{
+					submit(executor, loader, done, failed);
+				}
+			}
+			done.await();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		
+		final Loader loader = failed.get();
+		if (loader != null)
+		{
+			throw new Exception("Startup loader " + loader._name + " failed!", loader._error);
+		}
+	}
+	
+	private void submit(ExecutorService executor, Loader loader, CountDownLatch done, AtomicReference<Loader> failed)
+	{
+		executor.execute(() ->
+		{
+			if (loader._skipped)
+			{
+				_log.warning(getClass().getSimpleName() + ": Skipped " + loader._name + " because one of its dependencies failed.");
+			}
+			else
+			{
+				try
+				{
+					loader.run();
+				}
+				catch (Throwable t)
+				{
+					_log.log(Level.SEVERE, getClass().getSimpleName() + ": Loader " + loader._name + " failed: " + t.getMessage(), t);
+					loader._error = t;
+					failed.compareAndSet(null, loader);
+				}
+			}
+			
+			for (Loader dependent : loader._dependents)
+			{
+				if ((loader._error != null) || loader._skipped)
+				{
+					dependent._skipped = true;
+				}
+				if (dependent._pending.decrementAndGet() == 0)
+				{
+					submit(executor, dependent, done, failed);
+				}
+			}
+			done.countDown();
+		});
+	}
+	
+	private void report(long totalTime, int threads)
+	{
+		final List<Loader> loaders = new ArrayList<>(_loaders.values());
+		long loadersTime = 0;
+		Loader last = null;
+		for (Loader loader : loaders)
+		{
+			loadersTime += loader.getTime();
+			if ((last == null) || (loader._end > last._end))
+			{
+				last = loader;
+			}
+		}
+		
+		GameServer.printSection("Startup Report");
+		loaders.sort((l1, l2) -> Long.compare(l2.getTime(), l1.getTime()));
+		for (Loader loader : loaders)
+		{
+			_log.info(" |- " + loader._name + " (" + loader._section + "): " + toMillis(loader.getTime()) + " ms");
+		}
+		
+		// Walk back from the loader which finished last through the dependencies which finished last.
+		final StringBuilder path = new StringBuilder();
+		for (Loader loader = last; loader != null; loader = loader.getCriticalDependency())
+		{
+			path.insert(0, (path.length() > 0 ? " -> " : "") + loader._name);
+		}
+		
+		_log.info(getClass().getSimpleName() + ": Loaded " + loaders.size() + " loaders in " + toMillis(totalTime) + " ms using " + threads + " threads, " + toMillis(loadersTime) + " ms of loading time.");
+		_log.info(getClass().getSimpleName() + ": Critical path: " + path);
+	}
+	
+	private static long toMillis(long nanos)
+	{
+		return nanos / 1000000;
+	}
+	
+	private static final class Loader
+	{
+		protected final String _name;
+		protected final String _section;
+		private final Runnable _task;
+		protected final List<Loader> _dependencies = new ArrayList<>();
+		protected final List<Loader> _dependents = new ArrayList<>();
+		protected final AtomicInteger _pending;
+		protected volatile boolean _skipped;
+		protected volatile Throwable _error;
+		protected volatile long _start;
+		protected volatile long _end;
+		
+		public Loader(String name, String section, Runnable task, int dependencies)
+		{
+			_name = name;
+			_section = section;
+			_task = task;
+			_pending = new AtomicInteger(dependencies);
+		}
+		
+		public void run()
+		{
+			_start = System.nanoTime();
+			try
+			{
+				_task.run();
+			}
+			finally
+			{
+				_end = System.nanoTime();
+			}
+		}
+		
+		public long getTime()
+		{
+			return _end - _start;
+		}
+		
+		/**
+		 * @return the dependency which finished last, {@code null} if this loader has no dependencies
+		 */
+		public Loader getCriticalDependency()
+		{
+			Loader critical = null;
+			for (Loader dependency : _dependencies)
+			{
+				if ((critical == null) || (dependency._end > critical._end))
+				{
+					critical = dependency;
+				}
+			}
+			return critical;
+		}
+	}
+}
@@ -19,8 +19,13 @@
 package com.l2jserver.gameserver;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
@@ -35,7 +40,9 @@ import javolution.util.FastMap;
 import javolution.util.FastSet;
 
 import com.l2jserver.Config;
+import com.l2jserver.util.HashedTimingWheel;
 import com.l2jserver.util.StringUtil;
+import com.l2jserver.util.WorkStealingScheduledExecutor;
 
 /**
  * <p>
@@ -69,6 +76,9 @@ import com.l2jserver.util.StringUtil;
  * <li>A general ThreadPool where everything else that needs to run asynchronously with no delay should be executed ({@link com.l2jserver.gameserver.model.actor.knownlist KnownList} updates, SQL updates/inserts...)?</li>
  * </ul>
  * </p>
+ * <p>
+ * With {@link Config#THREAD_POOL_WORK_STEALING} every pool is replaced by a {@link WorkStealingScheduledExecutor} of the same size, the delayed tasks of all pools share a single {@link HashedTimingWheel}.
+ * </p>
  * @author -Wooden-
  */
 public class ThreadPoolManager
@@ -103,14 +113,17 @@ public class ThreadPoolManager
 		}
 	}
 	
-	protected ScheduledThreadPoolExecutor _effectsScheduledThreadPool;
-	protected ScheduledThreadPoolExecutor _generalScheduledThreadPool;
-	protected ScheduledThreadPoolExecutor _aiScheduledThreadPool;
-	protected ScheduledThreadPoolExecutor _eventScheduledThreadPool;
-	private final ThreadPoolExecutor _generalPacketsThreadPool;
-	private final ThreadPoolExecutor _ioPacketsThreadPool;
-	private final ThreadPoolExecutor _generalThreadPool;
-	private final ThreadPoolExecutor _eventThreadPool;
+	protected ScheduledExecutorService _effectsScheduledThreadPool;
+	protected ScheduledExecutorService _generalScheduledThreadPool;
+	protected ScheduledExecutorService _aiScheduledThreadPool;
+	protected ScheduledExecutorService _eventScheduledThreadPool;
+	private final ExecutorService _generalPacketsThreadPool;
+	private final ExecutorService _ioPacketsThreadPool;
+	private final ExecutorService _generalThreadPool;
+	private final ExecutorService _eventThreadPool;
+	
+	/** Timer of the work-stealing pools, {@code null} with the default pools. */
+	private final HashedTimingWheel _timingWheel;
 	
 	private boolean _shutdown;
 	
@@ -121,6 +134,22 @@ public class ThreadPoolManager
 	
 	protected ThreadPoolManager()
 	{
+		if (Config.THREAD_POOL_WORK_STEALING)
+		{
+			_timingWheel = new HashedTimingWheel("ThreadPoolTimer", Config.THREAD_POOL_TIMING_WHEEL_TICK, TimeUnit.MILLISECONDS, 512);
+			_effectsScheduledThreadPool = new WorkStealingScheduledExecutor("EffectsSTPool", Config.THREAD_P_EFFECTS, Thread.NORM_PRIORITY, _timingWheel);
+			_generalScheduledThreadPool = new WorkStealingScheduledExecutor("GeneralSTPool", Config.THREAD_P_GENERAL, Thread.NORM_PRIORITY, _timingWheel);
+			_eventScheduledThreadPool = new WorkStealingScheduledExecutor("EventSTPool", Config.THREAD_E_EVENTS, Thread.NORM_PRIORITY, _timingWheel);
+			_ioPacketsThreadPool = new WorkStealingScheduledExecutor("I/O Packet Pool", Config.IO_PACKET_THREAD_CORE_SIZE, Thread.NORM_PRIORITY + 1, _timingWheel);
+			_generalPacketsThreadPool = new WorkStealingScheduledExecutor("Normal Packet Pool", Config.GENERAL_PACKET_THREAD_CORE_SIZE, Thread.NORM_PRIORITY + 1, _timingWheel);
+			_generalThreadPool = new WorkStealingScheduledExecutor("General Pool", Config.GENERAL_THREAD_CORE_SIZE, Thread.NORM_PRIORITY, _timingWheel);
+			_aiScheduledThreadPool = new WorkStealingScheduledExecutor("AISTPool", Config.AI_MAX_THREAD, Thread.NORM_PRIORITY, _timingWheel);
+			_eventThreadPool = new WorkStealingScheduledExecutor("Event Pool", Config.EVENT_MAX_THREAD, Thread.NORM_PRIORITY, _timingWheel);
+			// Cancelled tasks are dropped by the timing wheel, no purge needed.
+			return;
+		}
+		
+		_timingWheel = null;
 		_effectsScheduledThreadPool = new ScheduledThreadPoolExecutor(Config.THREAD_P_EFFECTS, new PriorityThreadFactory("EffectsSTPool", Thread.NORM_PRIORITY));
 		_generalScheduledThreadPool = new ScheduledThreadPoolExecutor(Config.THREAD_P_GENERAL, new PriorityThreadFactory("GeneralSTPool", Thread.NORM_PRIORITY));
 		_eventScheduledThreadPool = new ScheduledThreadPoolExecutor(Config.THREAD_E_EVENTS, new PriorityThreadFactory("EventSTPool", Thread.NORM_PRIORITY));
@@ -144,7 +173,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _effectsScheduledThreadPool.schedule(new RunnableWrapper(task), delay, unit);
+			return _effectsScheduledThreadPool.schedule(wrap(task), delay, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -175,7 +204,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _effectsScheduledThreadPool.scheduleAtFixedRate(new RunnableWrapper(task), initialDelay, period, unit);
+			return _effectsScheduledThreadPool.scheduleAtFixedRate(wrap(task), initialDelay, period, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -206,7 +235,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _generalScheduledThreadPool.schedule(new RunnableWrapper(task), delay, unit);
+			return _generalScheduledThreadPool.schedule(wrap(task), delay, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -237,7 +266,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _generalScheduledThreadPool.scheduleAtFixedRate(new RunnableWrapper(task), initialDelay, period, unit);
+			return _generalScheduledThreadPool.scheduleAtFixedRate(wrap(task), initialDelay, period, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -256,7 +285,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _eventScheduledThreadPool.schedule(new RunnableWrapper(task), delay, unit);
+			return _eventScheduledThreadPool.schedule(wrap(task), delay, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -287,7 +316,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _eventScheduledThreadPool.scheduleAtFixedRate(new RunnableWrapper(task), initialDelay, period, unit);
+			return _eventScheduledThreadPool.scheduleAtFixedRate(wrap(task), initialDelay, period, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -318,7 +347,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _aiScheduledThreadPool.schedule(new RunnableWrapper(task), delay, unit);
+			return _aiScheduledThreadPool.schedule(wrap(task), delay, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -349,7 +378,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			return _aiScheduledThreadPool.scheduleAtFixedRate(new RunnableWrapper(task), initialDelay, period, unit);
+			return _aiScheduledThreadPool.scheduleAtFixedRate(wrap(task), initialDelay, period, unit);
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -409,7 +438,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			_generalThreadPool.execute(new RunnableWrapper(task));
+			_generalThreadPool.execute(wrap(task));
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -425,7 +454,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			_aiScheduledThreadPool.execute(new RunnableWrapper(task));
+			_aiScheduledThreadPool.execute(wrap(task));
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -441,7 +470,7 @@ public class ThreadPoolManager
 	{
 		try
 		{
-			_eventThreadPool.execute(new RunnableWrapper(task));
+			_eventThreadPool.execute(wrap(task));
 		}
 		catch (RejectedExecutionException e)
 		{
@@ -449,78 +478,121 @@ public class ThreadPoolManager
 		}
 	}
 	
+	/**
+	 * The work-stealing pools catch task exceptions themselves, the default pools need a wrapper.
+	 * @param task the task to wrap
+	 * @return the task to submit
+	 */
+	private Runnable wrap(Runnable task)
+	{
+		return _timingWheel != null ? task : new RunnableWrapper(task);
+	}
+	
 	public String[] getStats()
 	{
+		if (_timingWheel != null)
+		{
+			final List<String> stats = new ArrayList<>();
+			stats.add("WSP:");
+			stats.add(" + Timing Wheel:");
+			stats.add(" |- Tick:            " + _timingWheel.getTickDuration() + " ms");
+			stats.add(" |- ScheduledTasks:  " + _timingWheel.size());
+			stats.add(" | -------");
+			for (ExecutorService pool : new ExecutorService[]
+			{
+				_effectsScheduledThreadPool,
+				_generalScheduledThreadPool,
+				_aiScheduledThreadPool,
+				_eventScheduledThreadPool,
+				_generalPacketsThreadPool,
+				_ioPacketsThreadPool,
+				_generalThreadPool,
+				_eventThreadPool
+			})
+			{
+				Collections.addAll(stats, ((WorkStealingScheduledExecutor) pool).getStats());
+			}
+			return stats.toArray(new String[stats.size()]);
+		}
+		
+		final ScheduledThreadPoolExecutor effectsScheduledThreadPool = (ScheduledThreadPoolExecutor) _effectsScheduledThreadPool;
+		final ScheduledThreadPoolExecutor generalScheduledThreadPool = (ScheduledThreadPoolExecutor) _generalScheduledThreadPool;
+		final ScheduledThreadPoolExecutor aiScheduledThreadPool = (ScheduledThreadPoolExecutor) _aiScheduledThreadPool;
+		final ScheduledThreadPoolExecutor eventScheduledThreadPool = (ScheduledThreadPoolExecutor) _eventScheduledThreadPool;
+		final ThreadPoolExecutor generalPacketsThreadPool = (ThreadPoolExecutor) _generalPacketsThreadPool;
+		final ThreadPoolExecutor ioPacketsThreadPool = (ThreadPoolExecutor) _ioPacketsThreadPool;
+		final ThreadPoolExecutor generalThreadPool = (ThreadPoolExecutor) _generalThreadPool;
+		final ThreadPoolExecutor eventThreadPool = (ThreadPoolExecutor) _eventThreadPool;
 		return new String[]
 		{
 			"STP:",
 			" + Effects:",
-			" |- ActiveThreads:   " + _effectsScheduledThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _effectsScheduledThreadPool.getCorePoolSize(),
-			" |- PoolSize:        " + _effectsScheduledThreadPool.getPoolSize(),
-			" |- MaximumPoolSize: " + _effectsScheduledThreadPool.getMaximumPoolSize(),
-			" |- CompletedTasks:  " + _effectsScheduledThreadPool.getCompletedTaskCount(),
-			" |- ScheduledTasks:  " + _effectsScheduledThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + effectsScheduledThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + effectsScheduledThreadPool.getCorePoolSize(),
+			" |- PoolSize:        " + effectsScheduledThreadPool.getPoolSize(),
+			" |- MaximumPoolSize: " + effectsScheduledThreadPool.getMaximumPoolSize(),
+			" |- CompletedTasks:  " + effectsScheduledThreadPool.getCompletedTaskCount(),
+			" |- ScheduledTasks:  " + effectsScheduledThreadPool.getQueue().size(),
 			" | -------",
 			" + General:",
-			" |- ActiveThreads:   " + _generalScheduledThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _generalScheduledThreadPool.getCorePoolSize(),
-			" |- PoolSize:        " + _generalScheduledThreadPool.getPoolSize(),
-			" |- MaximumPoolSize: " + _generalScheduledThreadPool.getMaximumPoolSize(),
-			" |- CompletedTasks:  " + _generalScheduledThreadPool.getCompletedTaskCount(),
-			" |- ScheduledTasks:  " + _generalScheduledThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + generalScheduledThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + generalScheduledThreadPool.getCorePoolSize(),
+			" |- PoolSize:        " + generalScheduledThreadPool.getPoolSize(),
+			" |- MaximumPoolSize: " + generalScheduledThreadPool.getMaximumPoolSize(),
+			" |- CompletedTasks:  " + generalScheduledThreadPool.getCompletedTaskCount(),
+			" |- ScheduledTasks:  " + generalScheduledThreadPool.getQueue().size(),
 			" | -------",
 			" + AI:",
-			" |- ActiveThreads:   " + _aiScheduledThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _aiScheduledThreadPool.getCorePoolSize(),
-			" |- PoolSize:        " + _aiScheduledThreadPool.getPoolSize(),
-			" |- MaximumPoolSize: " + _aiScheduledThreadPool.getMaximumPoolSize(),
-			" |- CompletedTasks:  " + _aiScheduledThreadPool.getCompletedTaskCount(),
-			" |- ScheduledTasks:  " + _aiScheduledThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + aiScheduledThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + aiScheduledThreadPool.getCorePoolSize(),
+			" |- PoolSize:        " + aiScheduledThreadPool.getPoolSize(),
+			" |- MaximumPoolSize: " + aiScheduledThreadPool.getMaximumPoolSize(),
+			" |- CompletedTasks:  " + aiScheduledThreadPool.getCompletedTaskCount(),
+			" |- ScheduledTasks:  " + aiScheduledThreadPool.getQueue().size(),
 			" | -------",
 			" + Event:",
-			" |- ActiveThreads:   " + _eventScheduledThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _eventScheduledThreadPool.getCorePoolSize(),
-			" |- PoolSize:        " + _eventScheduledThreadPool.getPoolSize(),
-			" |- MaximumPoolSize: " + _eventScheduledThreadPool.getMaximumPoolSize(),
-			" |- CompletedTasks:  " + _eventScheduledThreadPool.getCompletedTaskCount(),
-			" |- ScheduledTasks:  " + _eventScheduledThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + eventScheduledThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + eventScheduledThreadPool.getCorePoolSize(),
+			" |- PoolSize:        " + eventScheduledThreadPool.getPoolSize(),
+			" |- MaximumPoolSize: " + eventScheduledThreadPool.getMaximumPoolSize(),
+			" |- CompletedTasks:  " + eventScheduledThreadPool.getCompletedTaskCount(),
+			" |- ScheduledTasks:  " + eventScheduledThreadPool.getQueue().size(),
 			"TP:",
 			" + Packets:",
-			" |- ActiveThreads:   " + _generalPacketsThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _generalPacketsThreadPool.getCorePoolSize(),
-			" |- MaximumPoolSize: " + _generalPacketsThreadPool.getMaximumPoolSize(),
-			" |- LargestPoolSize: " + _generalPacketsThreadPool.getLargestPoolSize(),
-			" |- PoolSize:        " + _generalPacketsThreadPool.getPoolSize(),
-			" |- CompletedTasks:  " + _generalPacketsThreadPool.getCompletedTaskCount(),
-			" |- QueuedTasks:     " + _generalPacketsThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + generalPacketsThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + generalPacketsThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + generalPacketsThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + generalPacketsThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + generalPacketsThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + generalPacketsThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + generalPacketsThreadPool.getQueue().size(),
 			" | -------",
 			" + I/O Packets:",
-			" |- ActiveThreads:   " + _ioPacketsThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _ioPacketsThreadPool.getCorePoolSize(),
-			" |- MaximumPoolSize: " + _ioPacketsThreadPool.getMaximumPoolSize(),
-			" |- LargestPoolSize: " + _ioPacketsThreadPool.getLargestPoolSize(),
-			" |- PoolSize:        " + _ioPacketsThreadPool.getPoolSize(),
-			" |- CompletedTasks:  " + _ioPacketsThreadPool.getCompletedTaskCount(),
-			" |- QueuedTasks:     " + _ioPacketsThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + ioPacketsThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + ioPacketsThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + ioPacketsThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + ioPacketsThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + ioPacketsThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + ioPacketsThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + ioPacketsThreadPool.getQueue().size(),
 			" | -------",
 			" + General Tasks:",
-			" |- ActiveThreads:   " + _generalThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _generalThreadPool.getCorePoolSize(),
-			" |- MaximumPoolSize: " + _generalThreadPool.getMaximumPoolSize(),
-			" |- LargestPoolSize: " + _generalThreadPool.getLargestPoolSize(),
-			" |- PoolSize:        " + _generalThreadPool.getPoolSize(),
-			" |- CompletedTasks:  " + _generalThreadPool.getCompletedTaskCount(),
-			" |- QueuedTasks:     " + _generalThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + generalThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + generalThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + generalThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + generalThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + generalThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + generalThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + generalThreadPool.getQueue().size(),
 			" | -------",
 			" + Event Tasks:",
-			" |- ActiveThreads:   " + _eventThreadPool.getActiveCount(),
-			" |- getCorePoolSize: " + _eventThreadPool.getCorePoolSize(),
-			" |- MaximumPoolSize: " + _eventThreadPool.getMaximumPoolSize(),
-			" |- LargestPoolSize: " + _eventThreadPool.getLargestPoolSize(),
-			" |- PoolSize:        " + _eventThreadPool.getPoolSize(),
-			" |- CompletedTasks:  " + _eventThreadPool.getCompletedTaskCount(),
-			" |- QueuedTasks:     " + _eventThreadPool.getQueue().size(),
+			" |- ActiveThreads:   " + eventThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + eventThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + eventThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + eventThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + eventThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + eventThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + eventThreadPool.getQueue().size(),
 			" | -------",
 			" + Javolution stats:",
 			" |- FastList:        " + FastList.report(),
@@ -575,6 +647,10 @@ public class ThreadPoolManager
 			_ioPacketsThreadPool.shutdown();
 			_generalThreadPool.shutdown();
 			_eventThreadPool.shutdown();
+			if (_timingWheel != null)
+			{
+				_timingWheel.shutdown();
+			}
 			_log.info("All ThreadPools are now stopped");
 			
 		}
@@ -591,27 +667,32 @@ public class ThreadPoolManager
 	
 	public void purge()
 	{
-		_effectsScheduledThreadPool.purge();
-		_generalScheduledThreadPool.purge();
-		_aiScheduledThreadPool.purge();
-		_eventScheduledThreadPool.purge();
-		_ioPacketsThreadPool.purge();
-		_generalPacketsThreadPool.purge();
-		_generalThreadPool.purge();
-		_eventThreadPool.purge();
+		if (_timingWheel != null)
+		{
+			return;
+		}
+		
+		((ScheduledThreadPoolExecutor) _effectsScheduledThreadPool).purge();
+		((ScheduledThreadPoolExecutor) _generalScheduledThreadPool).purge();
+		((ScheduledThreadPoolExecutor) _aiScheduledThreadPool).purge();
+		((ScheduledThreadPoolExecutor) _eventScheduledThreadPool).purge();
+		((ThreadPoolExecutor) _ioPacketsThreadPool).purge();
+		((ThreadPoolExecutor) _generalPacketsThreadPool).purge();
+		((ThreadPoolExecutor) _generalThreadPool).purge();
+		((ThreadPoolExecutor) _eventThreadPool).purge();
 	}
 	
 	public String getPacketStats()
 	{
 		final StringBuilder sb = new StringBuilder(1000);
-		ThreadFactory tf = _generalPacketsThreadPool.getThreadFactory();
+		ThreadFactory tf = getThreadFactory(_generalPacketsThreadPool);
 		if (tf instanceof PriorityThreadFactory)
 		{
 			PriorityThreadFactory ptf = (PriorityThreadFactory) tf;
 			int count = ptf.getGroup().activeCount();
 			Thread[] threads = new Thread[count + 2];
 			ptf.getGroup().enumerate(threads);
-			StringUtil.append(sb, "General Packet Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(_generalPacketsThreadPool.getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
+			StringUtil.append(sb, "General Packet Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(((ThreadPoolExecutor) _generalPacketsThreadPool).getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
 			for (Thread t : threads)
 			{
 				if (t == null)
@@ -635,7 +716,7 @@ public class ThreadPoolManager
 	public String getIOPacketStats()
 	{
 		final StringBuilder sb = new StringBuilder(1000);
-		ThreadFactory tf = _ioPacketsThreadPool.getThreadFactory();
+		ThreadFactory tf = getThreadFactory(_ioPacketsThreadPool);
 		
 		if (tf instanceof PriorityThreadFactory)
 		{
@@ -643,7 +724,7 @@ public class ThreadPoolManager
 			int count = ptf.getGroup().activeCount();
 			Thread[] threads = new Thread[count + 2];
 			ptf.getGroup().enumerate(threads);
-			StringUtil.append(sb, "I/O Packet Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(_ioPacketsThreadPool.getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
+			StringUtil.append(sb, "I/O Packet Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(((ThreadPoolExecutor) _ioPacketsThreadPool).getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
 			
 			for (Thread t : threads)
 			{
@@ -669,7 +750,7 @@ public class ThreadPoolManager
 	public String getGeneralStats()
 	{
 		final StringBuilder sb = new StringBuilder(1000);
-		ThreadFactory tf = _generalThreadPool.getThreadFactory();
+		ThreadFactory tf = getThreadFactory(_generalThreadPool);
 		
 		if (tf instanceof PriorityThreadFactory)
 		{
@@ -677,7 +758,7 @@ public class ThreadPoolManager
 			int count = ptf.getGroup().activeCount();
 			Thread[] threads = new Thread[count + 2];
 			ptf.getGroup().enumerate(threads);
-			StringUtil.append(sb, "General Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(_generalThreadPool.getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
+			StringUtil.append(sb, "General Thread Pool:" + Config.EOL + "Tasks in the queue: ", String.valueOf(((ThreadPoolExecutor) _generalThreadPool).getQueue().size()), Config.EOL + "Showing threads stack trace:" + Config.EOL + "There should be ", String.valueOf(count), " Threads" + Config.EOL);
 			
 			for (Thread t : threads)
 			{
@@ -700,15 +781,20 @@ public class ThreadPoolManager
 		return sb.toString();
 	}
 	
+	private static ThreadFactory getThreadFactory(ExecutorService pool)
+	{
+		return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getThreadFactory() : null;
+	}
+	
 	protected class PurgeTask implements Runnable
 	{
 		@Override
 		public void run()
 		{
-			_effectsScheduledThreadPool.purge();
-			_generalScheduledThreadPool.purge();
-			_aiScheduledThreadPool.purge();
-			_eventScheduledThreadPool.purge();
+			((ScheduledThreadPoolExecutor) _effectsScheduledThreadPool).purge();
+			((ScheduledThreadPoolExecutor) _generalScheduledThreadPool).purge();
+			((ScheduledThreadPoolExecutor) _aiScheduledThreadPool).purge();
+			((ScheduledThreadPoolExecutor) _eventScheduledThreadPool).purge();
 		}
 	}
 	
@@ -63,6 +63,7 @@ import com.l2jserver.gameserver.model.events.returns.TerminateReturn;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.skills.targets.L2TargetType;
 import com.l2jserver.gameserver.model.zone.ZoneId;
+import com.l2jserver.gameserver.taskmanager.AiTaskManager;
 import com.l2jserver.gameserver.util.Util;
 import com.l2jserver.util.Rnd;
 
@@ -301,7 +302,7 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
 		if (_aiTask == null)
 		{
-			_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
+			_aiTask = Config.AI_TICK_SCHEDULER ? AiTaskManager.getInstance().add(this) : ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
 		}
 	}
 	
@@ -1044,29 +1045,21 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 					}
 					if (sk.getTargetType() == L2TargetType.ONE)
 					{
-						for (L2Character obj : npc.getKnownList().getKnownCharactersInRadius(sk.getCastRange() + collision))
+						final L2Character healTarget = npc.getKnownList().findKnownCharacterInRadius(sk.getCastRange() + collision, obj ->
 						{
-							if (!(obj instanceof L2Attackable) || obj.isDead())
+							if (!(obj instanceof L2Attackable) || obj.isDead() || !((L2Attackable) obj).isInMyClan(npc))
 							{
-								continue;
-							}
-							
-							L2Attackable targets = ((L2Attackable) obj);
-							if (!((L2Attackable) obj).isInMyClan(npc))
-							{
-								continue;
-							}
-							percentage = (targets.getCurrentHp() / targets.getMaxHp()) * 100;
-							if (Rnd.get(100) < ((100 - percentage) / 10))
-							{
-								if (GeoData.getInstance().canSeeTarget(npc, targets))
-								{
-									clientStopMoving(null);
-									npc.setTarget(obj);
-									npc.doCast(sk);
-									return;
-								}
+								return false;
 							}
+							final double hpPercentage = (obj.getCurrentHp() / obj.getMaxHp()) * 100;
+							return (Rnd.get(100) < ((100 - hpPercentage) / 10)) && GeoData.getInstance().canSeeTarget(npc, obj);
+						});
+						if (healTarget != null)
+						{
+							clientStopMoving(null);
+							npc.setTarget(healTarget);
+							npc.doCast(sk);
+							return;
 						}
 					}
 					if (isParty(sk))
@@ -1120,28 +1113,13 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 					}
 					if (sk.getTargetType() == L2TargetType.ONE)
 					{
-						for (L2Character obj : npc.getKnownList().getKnownCharactersInRadius(sk.getCastRange() + collision))
+						final L2Character resTarget = npc.getKnownList().findKnownCharacterInRadius(sk.getCastRange() + collision, obj -> (obj instanceof L2Attackable) && obj.isDead() && npc.isInMyClan((L2Attackable) obj) && (Rnd.get(100) < 10) && GeoData.getInstance().canSeeTarget(npc, obj));
+						if (resTarget != null)
 						{
-							if (!(obj instanceof L2Attackable) || !obj.isDead())
-							{
-								continue;
-							}
-							
-							L2Attackable targets = ((L2Attackable) obj);
-							if (!npc.isInMyClan(targets))
-							{
-								continue;
-							}
-							if (Rnd.get(100) < 10)
-							{
-								if (GeoData.getInstance().canSeeTarget(npc, targets))
-								{
-									clientStopMoving(null);
-									npc.setTarget(obj);
-									npc.doCast(sk);
-									return;
-								}
-							}
+							clientStopMoving(null);
+							npc.setTarget(resTarget);
+							npc.doCast(sk);
+							return;
 						}
 					}
 					if (isParty(sk))
@@ -1503,51 +1481,31 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 			
 			if (sk.getTargetType() == L2TargetType.ONE)
 			{
-				for (L2Character obj : caster.getKnownList().getKnownCharactersInRadius(sk.getCastRange() + caster.getTemplate().getCollisionRadius()))
+				final L2Character healTarget = caster.getKnownList().findKnownCharacterInRadius(sk.getCastRange() + caster.getTemplate().getCollisionRadius(), obj ->
 				{
-					if (!(obj instanceof L2Attackable) || obj.isDead())
-					{
-						continue;
-					}
-					
-					L2Attackable targets = ((L2Attackable) obj);
-					if (!caster.isInMyClan(targets))
+					if (!(obj instanceof L2Attackable) || obj.isDead() || !caster.isInMyClan((L2Attackable) obj))
 					{
-						continue;
-					}
-					
-					percentage = (targets.getCurrentHp() / targets.getMaxHp()) * 100;
-					if (Rnd.get(100) < ((100 - percentage) / 10))
-					{
-						if (GeoData.getInstance().canSeeTarget(caster, targets))
-						{
-							clientStopMoving(null);
-							caster.setTarget(obj);
-							caster.doCast(sk);
-							return true;
-						}
+						return false;
 					}
+					final double hpPercentage = (obj.getCurrentHp() / obj.getMaxHp()) * 100;
+					return (Rnd.get(100) < ((100 - hpPercentage) / 10)) && GeoData.getInstance().canSeeTarget(caster, obj);
+				});
+				if (healTarget != null)
+				{
+					clientStopMoving(null);
+					caster.setTarget(healTarget);
+					caster.doCast(sk);
+					return true;
 				}
 			}
 			if (isParty(sk))
 			{
-				for (L2Character obj : caster.getKnownList().getKnownCharactersInRadius(sk.getAffectRange() + caster.getTemplate().getCollisionRadius()))
+				if (caster.getKnownList().findKnownCharacterInRadius(sk.getAffectRange() + caster.getTemplate().getCollisionRadius(), obj -> (obj instanceof L2Attackable) && ((L2Npc) obj).isInMyClan(caster) && (obj.getCurrentHp() < obj.getMaxHp()) && (Rnd.get(100) <= 20)) != null)
 				{
-					if (!(obj instanceof L2Attackable))
-					{
-						continue;
-					}
-					L2Npc targets = ((L2Npc) obj);
-					if (targets.isInMyClan(caster))
-					{
-						if ((obj.getCurrentHp() < obj.getMaxHp()) && (Rnd.get(100) <= 20))
-						{
-							clientStopMoving(null);
-							caster.setTarget(caster);
-							caster.doCast(sk);
-							return true;
-						}
-					}
+					clientStopMoving(null);
+					caster.setTarget(caster);
+					caster.doCast(sk);
+					return true;
 				}
 			}
 		}
@@ -1726,49 +1684,23 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 					}
 				}
 				
-				for (L2Character obj : caster.getKnownList().getKnownCharactersInRadius(sk.getCastRange() + caster.getTemplate().getCollisionRadius()))
+				final L2Character resTarget = caster.getKnownList().findKnownCharacterInRadius(sk.getCastRange() + caster.getTemplate().getCollisionRadius(), obj -> (obj instanceof L2Attackable) && obj.isDead() && caster.isInMyClan((L2Attackable) obj) && (Rnd.get(100) < 10) && GeoData.getInstance().canSeeTarget(caster, obj));
+				if (resTarget != null)
 				{
-					if (!(obj instanceof L2Attackable) || !obj.isDead())
-					{
-						continue;
-					}
-					
-					L2Attackable targets = ((L2Attackable) obj);
-					if (!caster.isInMyClan(targets))
-					{
-						continue;
-					}
-					if (Rnd.get(100) < 10)
-					{
-						if (GeoData.getInstance().canSeeTarget(caster, targets))
-						{
-							clientStopMoving(null);
-							caster.setTarget(obj);
-							caster.doCast(sk);
-							return true;
-						}
-					}
+					clientStopMoving(null);
+					caster.setTarget(resTarget);
+					caster.doCast(sk);
+					return true;
 				}
 			}
 			else if (isParty(sk))
 			{
-				for (L2Character obj : caster.getKnownList().getKnownCharactersInRadius(sk.getAffectRange() + caster.getTemplate().getCollisionRadius()))
+				if (caster.getKnownList().findKnownCharacterInRadius(sk.getAffectRange() + caster.getTemplate().getCollisionRadius(), obj -> (obj instanceof L2Attackable) && caster.isInMyClan((L2Npc) obj) && (obj.getCurrentHp() < obj.getMaxHp()) && (Rnd.get(100) <= 20)) != null)
 				{
-					if (!(obj instanceof L2Attackable))
-					{
-						continue;
-					}
-					L2Npc targets = ((L2Npc) obj);
-					if (caster.isInMyClan(targets))
-					{
-						if ((obj.getCurrentHp() < obj.getMaxHp()) && (Rnd.get(100) <= 20))
-						{
-							clientStopMoving(null);
-							caster.setTarget(caster);
-							caster.doCast(sk);
-							return true;
-						}
-					}
+					clientStopMoving(null);
+					caster.setTarget(caster);
+					caster.doCast(sk);
+					return true;
 				}
 			}
 		}
@@ -2092,123 +2024,90 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 				
 				// ----------------------------------------------------------------------
 				// If there is nearby Target with aggro, start going on random target that is attackable
-				for (L2Character obj : actor.getKnownList().getKnownCharactersInRadius(range))
+				final int searchRange = range;
+				return actor.getKnownList().findKnownCharacterInRadius(searchRange, obj ->
 				{
 					if (obj.isDead() || !GeoData.getInstance().canSeeTarget(actor, obj))
 					{
-						continue;
+						return false;
 					}
+					double objDist;
+					int objRange;
 					try
 					{
 						actor.setTarget(getAttackTarget());
-						dist = actor.calculateDistance(obj, false, false);
-						dist2 = dist;
-						range = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
+						objDist = actor.calculateDistance(obj, false, false);
+						objRange = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
 						if (obj.isMoving())
 						{
-							dist2 = dist2 - 70;
+							objDist = objDist - 70;
 						}
 					}
 					catch (NullPointerException e)
 					{
-						continue;
+						return false;
 					}
 					
-					if ((obj instanceof L2PcInstance) || (obj instanceof L2Summon))
-					{
-						if (dist2 <= range)
-						{
-							if (!getAttackTarget().isAffectedBySkill(sk.getId()))
-							{
-								return obj;
-							}
-						}
-					}
-				}
+					return ((obj instanceof L2PcInstance) || (obj instanceof L2Summon)) && (objDist <= objRange) && !getAttackTarget().isAffectedBySkill(sk.getId());
+				});
 			}
 			else if (positive)
 			{
-				double dist = 0;
-				double dist2 = 0;
-				int range = 0;
-				for (L2Character obj : actor.getKnownList().getKnownCharactersInRadius(range))
+				final int range = 0;
+				return actor.getKnownList().findKnownCharacterInRadius(range, obj ->
 				{
-					if (!(obj instanceof L2Attackable) || obj.isDead() || !GeoData.getInstance().canSeeTarget(actor, obj))
+					if (!(obj instanceof L2Attackable) || obj.isDead() || !GeoData.getInstance().canSeeTarget(actor, obj) || ((L2Attackable) obj).isInMyClan(actor))
 					{
-						continue;
-					}
-					
-					L2Attackable targets = ((L2Attackable) obj);
-					if (targets.isInMyClan(actor))
-					{
-						continue;
+						return false;
 					}
-					
+					double objDist;
+					int objRange;
 					try
 					{
 						actor.setTarget(getAttackTarget());
-						dist = actor.calculateDistance(obj, false, false);
-						dist2 = dist - actor.getTemplate().getCollisionRadius();
-						range = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
+						objDist = actor.calculateDistance(obj, false, false) - actor.getTemplate().getCollisionRadius();
+						objRange = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
 						if (obj.isMoving())
 						{
-							dist2 = dist2 - 70;
+							objDist = objDist - 70;
 						}
 					}
 					catch (NullPointerException e)
 					{
-						continue;
-					}
-					if (dist2 <= range)
-					{
-						if (!obj.isAffectedBySkill(sk.getId()))
-						{
-							return obj;
-						}
+						return false;
 					}
-				}
+					return (objDist <= objRange) && !obj.isAffectedBySkill(sk.getId());
+				});
 			}
 		}
 		else
 		{
-			double dist = 0;
-			double dist2 = 0;
-			int range = 0;
-			range = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + getAttackTarget().getTemplate().getCollisionRadius();
-			for (L2Character obj : actor.getKnownList().getKnownCharactersInRadius(range))
+			final int range = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + getAttackTarget().getTemplate().getCollisionRadius();
+			return actor.getKnownList().findKnownCharacterInRadius(range, obj ->
 			{
-				if ((obj == null) || obj.isDead() || !GeoData.getInstance().canSeeTarget(actor, obj))
+				if (obj.isDead() || !GeoData.getInstance().canSeeTarget(actor, obj))
 				{
-					continue;
+					return false;
 				}
+				double objDist;
+				int objRange;
 				try
 				{
 					actor.setTarget(getAttackTarget());
-					dist = actor.calculateDistance(obj, false, false);
-					dist2 = dist - actor.getTemplate().getCollisionRadius();
-					range = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
+					objDist = actor.calculateDistance(obj, false, false) - actor.getTemplate().getCollisionRadius();
+					objRange = sk.getCastRange() + actor.getTemplate().getCollisionRadius() + obj.getTemplate().getCollisionRadius();
 					if (obj.isMoving())
 					{
-						dist2 = dist2 - 70;
+						objDist = objDist - 70;
 					}
 				}
 				catch (NullPointerException e)
 				{
-					continue;
+					return false;
 				}
 				
-				if ((obj instanceof L2PcInstance) || (obj instanceof L2Summon))
-				{
-					
-					if (dist2 <= range)
-					{
-						if (getAttackTarget().getEffectList().getFirstEffect(L2EffectType.BUFF) != null)
-						{
-							return obj;
-						}
-					}
-				}
-			}
+				return ((obj instanceof L2PcInstance) || (obj instanceof L2Summon)) && (objDist <= objRange) && (getAttackTarget().getEffectList().getFirstEffect(L2EffectType.BUFF) != null);
+			});
 		}
 		return null;
 	}
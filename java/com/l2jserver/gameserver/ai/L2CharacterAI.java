@@ -1459,13 +1459,8 @@ public class L2CharacterAI extends AbstractAI
 	{
 		if ((sk.getTargetType() == L2TargetType.AURA) || (sk.getTargetType() == L2TargetType.BEHIND_AURA) || (sk.getTargetType() == L2TargetType.FRONT_AURA) || (sk.getTargetType() == L2TargetType.AURA_CORPSE_MOB))
 		{
-			for (L2Object target : _actor.getKnownList().getKnownCharactersInRadius(sk.getAffectRange()))
-			{
-				if (target == getAttackTarget())
-				{
-					return true;
-				}
-			}
+			final L2Character attackTarget = getAttackTarget();
+			return _actor.getKnownList().findKnownCharacterInRadius(sk.getAffectRange(), target -> target == attackTarget) != null;
 		}
 		return false;
 	}
@@ -1476,29 +1471,8 @@ public class L2CharacterAI extends AbstractAI
 		{
 			if ((sk.getTargetType() == L2TargetType.AURA) || (sk.getTargetType() == L2TargetType.BEHIND_AURA) || (sk.getTargetType() == L2TargetType.FRONT_AURA) || (sk.getTargetType() == L2TargetType.AURA_CORPSE_MOB))
 			{
-				boolean cancast = true;
-				for (L2Character target : _actor.getKnownList().getKnownCharactersInRadius(sk.getAffectRange()))
-				{
-					if (!GeoData.getInstance().canSeeTarget(_actor, target))
-					{
-						continue;
-					}
-					if (target instanceof L2Attackable)
-					{
-						L2Npc actors = ((L2Npc) _actor);
-						
-						if (!actors.isChaos())
-						{
-							continue;
-						}
-					}
-					
-					if (target.isAffectedBySkill(sk.getId()))
-					{
-						cancast = false;
-					}
-				}
-				if (cancast)
+				// Can cast if none of the targets is already affected.
+				if (_actor.getKnownList().findKnownCharacterInRadius(sk.getAffectRange(), target -> GeoData.getInstance().canSeeTarget(_actor, target) && (!(target instanceof L2Attackable) || ((L2Npc) _actor).isChaos()) && target.isAffectedBySkill(sk.getId())) == null)
 				{
 					return true;
 				}
@@ -1537,58 +1511,16 @@ public class L2CharacterAI extends AbstractAI
 		{
 			if ((sk.getTargetType() == L2TargetType.AURA) || (sk.getTargetType() == L2TargetType.BEHIND_AURA) || (sk.getTargetType() == L2TargetType.FRONT_AURA) || (sk.getTargetType() == L2TargetType.AURA_CORPSE_MOB))
 			{
-				boolean cancast = false;
-				for (L2Character target : _actor.getKnownList().getKnownCharactersInRadius(sk.getAffectRange()))
-				{
-					if (!GeoData.getInstance().canSeeTarget(_actor, target))
-					{
-						continue;
-					}
-					if (target instanceof L2Attackable)
-					{
-						L2Npc actors = ((L2Npc) _actor);
-						
-						if (!actors.isChaos())
-						{
-							continue;
-						}
-					}
-					
-					if (!target.getEffectList().isEmpty())
-					{
-						cancast = true;
-					}
-				}
-				if (cancast)
+				// Can cast if one of the targets has effects.
+				if (_actor.getKnownList().findKnownCharacterInRadius(sk.getAffectRange(), target -> GeoData.getInstance().canSeeTarget(_actor, target) && (!(target instanceof L2Attackable) || ((L2Npc) _actor).isChaos()) && !target.getEffectList().isEmpty()) != null)
 				{
 					return true;
 				}
 			}
 			else if ((sk.getTargetType() == L2TargetType.AREA) || (sk.getTargetType() == L2TargetType.BEHIND_AREA) || (sk.getTargetType() == L2TargetType.FRONT_AREA))
 			{
-				boolean cancast = true;
-				for (L2Character target : getAttackTarget().getKnownList().getKnownCharactersInRadius(sk.getAffectRange()))
-				{
-					if (!GeoData.getInstance().canSeeTarget(_actor, target))
-					{
-						continue;
-					}
-					
-					if (target instanceof L2Attackable)
-					{
-						L2Npc actors = ((L2Npc) _actor);
-						if (!actors.isChaos())
-						{
-							continue;
-						}
-					}
-					
-					if (target.isAffectedBySkill(sk.getId()))
-					{
-						cancast = false;
-					}
-				}
-				if (cancast)
+				// Can cast if none of the targets around the attack target is already affected.
+				if (getAttackTarget().getKnownList().findKnownCharacterInRadius(sk.getAffectRange(), target -> GeoData.getInstance().canSeeTarget(_actor, target) && (!(target instanceof L2Attackable) || ((L2Npc) _actor).isChaos()) && target.isAffectedBySkill(sk.getId())) == null)
 				{
 					return true;
 				}
@@ -1601,26 +1533,8 @@ public class L2CharacterAI extends AbstractAI
 	{
 		if (sk.getTargetType() == L2TargetType.PARTY)
 		{
-			int count = 0;
-			int ccount = 0;
-			for (L2Character target : _actor.getKnownList().getKnownCharactersInRadius(sk.getAffectRange()))
-			{
-				if (!(target instanceof L2Attackable) || !GeoData.getInstance().canSeeTarget(_actor, target))
-				{
-					continue;
-				}
-				L2Npc targets = ((L2Npc) target);
-				L2Npc actors = ((L2Npc) _actor);
-				if (targets.isInMyClan(actors))
-				{
-					count++;
-					if (target.isAffectedBySkill(sk.getId()))
-					{
-						ccount++;
-					}
-				}
-			}
-			if (ccount < count)
+			// Can cast if one of the clan members around isn't affected yet.
+			if (_actor.getKnownList().findKnownCharacterInRadius(sk.getAffectRange(), target -> (target instanceof L2Attackable) && GeoData.getInstance().canSeeTarget(_actor, target) && ((L2Npc) target).isInMyClan((L2Npc) _actor) && !target.isAffectedBySkill(sk.getId())) != null)
 			{
 				return true;
 			}
@@ -258,7 +258,7 @@ public class L2SiegeGuardAI extends L2CharacterAI implements Runnable
 	 */
 	private void thinkActive()
 	{
-		L2Attackable npc = (L2Attackable) _actor;
+		final L2Attackable npc = (L2Attackable) _actor;
 		
 		// Update every 1s the _globalAggro counter to come close to 0
 		if (_globalAggro != 0)
@@ -277,24 +277,14 @@ public class L2SiegeGuardAI extends L2CharacterAI implements Runnable
 		// A L2Attackable isn't aggressive during 10s after its spawn because _globalAggro is set to -10
 		if (_globalAggro >= 0)
 		{
-			for (L2Character target : npc.getKnownList().getKnownCharactersInRadius(_attackRange))
+			npc.getKnownList().forEachKnownCharacterInRadius(_attackRange, target ->
 			{
-				if (target == null)
+				// Add the attacker to the L2Attackable _aggroList with 0 damage and 1 hate
+				if (autoAttackCondition(target) && (npc.getHating(target) == 0)) // check aggression
 				{
-					continue;
+					npc.addDamageHate(target, 0, 1);
 				}
-				if (autoAttackCondition(target)) // check aggression
-				{
-					// Get the hate level of the L2Attackable against this L2Character target contained in _aggroList
-					int hating = npc.getHating(target);
-					
-					// Add the attacker to the L2Attackable _aggroList with 0 damage and 1 hate
-					if (hating == 0)
-					{
-						npc.addDamageHate(target, 0, 1);
-					}
-				}
-			}
+			});
 			
 			// Chose a target from its aggroList
 			L2Character hated;
@@ -41,6 +41,8 @@ public class HtmCache
 	private static final HTMLFilter htmlFilter = new HTMLFilter();
 	
 	private static final Map<String, String> _cache = Config.LAZY_CACHE ? new ConcurrentHashMap<>() : new HashMap<>();
+	/** Precompiled pages by content, used with Config.HTML_TEMPLATES. */
+	private static final Map<String, HtmlTemplate> _templates = new ConcurrentHashMap<>();
 	
 	private int _loadedFiles;
 	private long _bytesBuffLen;
@@ -57,6 +59,7 @@ public class HtmCache
 	
 	public void reload(File f)
 	{
+		_templates.clear();
 		if (!Config.LAZY_CACHE)
 		{
 			_log.info("Html cache start...");
@@ -132,6 +135,7 @@ public class HtmCache
 			else
 			{
 				_bytesBuffLen = (_bytesBuffLen - oldContent.length()) + bytes;
+				_templates.remove(oldContent);
 			}
 		}
 		catch (Exception e)
@@ -175,6 +179,22 @@ public class HtmCache
 		return content;
 	}
 	
+	/**
+	 * Gets a page precompiled with the position of its variables.
+	 * @param prefix the path prefix, can be {@code null}
+	 * @param path the path to the HTM
+	 * @return the template, {@code null} if the page doesn't exist
+	 */
+	public HtmlTemplate getTemplate(String prefix, String path)
+	{
+		final String content = getHtm(prefix, path);
+		if (content == null)
+		{
+			return null;
+		}
+		return _templates.computeIfAbsent(content, HtmlTemplate::new);
+	}
+	
 	private String getHtm(String path)
 	{
 		if ((path == null) || path.isEmpty())
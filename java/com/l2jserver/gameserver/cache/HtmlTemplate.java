@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.l2jserver.gameserver.util.Util;
+
+/**
+ * A HTML page with the offsets of its {@code %name%} placeholders found once, see {@link HtmCache#getTemplate(String, String)}.<br>
+ * All the variables of a page are then filled in a single pass instead of one regular expression replacement on the whole page per variable.<br>
+ * The bypass and link actions of the page are also found once, only the actions containing variables and the variables themselves are parsed for each window sent.
+ */
+public final class HtmlTemplate
+{
+	private static final String BYPASS_MARKER = "=\"bypass ";
+	private static final String LINK_MARKER = "=\"link ";
+	/** Length of the longest action marker. */
+	private static final int MARKER_LENGTH = BYPASS_MARKER.length();
+	
+	private final String _content;
+	/** The placeholders, including their % delimiters. */
+	private final String[] _names;
+	private final int[] _starts;
+	
+	/** {@code false} if the actions of the page can't be found from the template, the whole filled page is parsed then. */
+	private final boolean _actionsCacheable;
+	/** The actions without variables. */
+	private final List<String> _staticActions;
+	/** Start and end of the bypass and link attributes containing variables. */
+	private final int[] _dynamicBypasses;
+	private final int[] _dynamicLinks;
+	/** Placeholders inside a bypass or a link attribute. */
+	private final boolean[] _inBypass;
+	private final boolean[] _inLink;
+	
+	public HtmlTemplate(String content)
+	{
+		_content = content;
+		
+		final List<String> names = new ArrayList<>();
+		final List<Integer> starts = new ArrayList<>();
+		int start = content.indexOf('%');
+		while (start >= 0)
+		{
+			final int end = content.indexOf('%', start + 1);
+			if (end < 0)
+			{
+				break;
+			}
+			
+			if ((end > (start + 1)) && isName(content, start + 1, end))
+			{
+				names.add(content.substring(start, end + 1).intern());
+				starts.add(start);
+			}
+			// The closing % may also open the next placeholder, overlapping ones are skipped when rendering.
+			start = end;
+		}
+		
+		_names = names.toArray(new String[names.size()]);
+		_starts = new int[starts.size()];
+		boolean overlapping = false;
+		for (int i = 0; i < _starts.length; i++)
+		{
+			_starts[i] = starts.get(i);
+			overlapping |= (i > 0) && (_starts[i] < (_starts[i - 1] + _names[i - 1].length()));
+		}
+		
+		final String lower = content.toLowerCase(Locale.ENGLISH);
+		final List<String> staticActions = new ArrayList<>();
+		_inBypass = new boolean[_names.length];
+		_inLink = new boolean[_names.length];
+		_dynamicBypasses = findActions(lower, BYPASS_MARKER, _inBypass, staticActions, Util::parseHtmlBypasses);
+		_dynamicLinks = findActions(lower, LINK_MARKER, _inLink, staticActions, Util::parseHtmlLinks);
+		_staticActions = Collections.unmodifiableList(staticActions);
+		_actionsCacheable = !overlapping && (_dynamicBypasses != null) && (_dynamicLinks != null);
+	}
+	
+	/**
+	 * Finds the attributes of an action type like {@link Util#parseHtmlBypasses(String, Consumer)}, the actions without variables are parsed now.
+	 * @return the start and end of the attributes containing variables, {@code null} if an attribute is not closed
+	 */
+	private int[] findActions(String lower, String marker, boolean[] inside, List<String> staticActions, BiConsumer<String, Consumer<String>> parser)
+	{
+		final List<Integer> dynamic = new ArrayList<>();
+		int end = 0;
+		int start = lower.indexOf(marker, end);
+		while (start != -1)
+		{
+			end = lower.indexOf('"', start + marker.length());
+			if (end == -1)
+			{
+				// A variable after it could close it.
+				return null;
+			}
+			
+			boolean hasVariables = false;
+			for (int i = 0; i < _starts.length; i++)
+			{
+				if ((_starts[i] > start) && (_starts[i] < end))
+				{
+					inside[i] = true;
+					hasVariables = true;
+				}
+			}
+			
+			if (hasVariables)
+			{
+				dynamic.add(start);
+				dynamic.add(end + 1);
+			}
+			else
+			{
+				parser.accept(_content.substring(start, end + 1), staticActions::add);
+			}
+			start = lower.indexOf(marker, end);
+		}
+		
+		final int[] result = new int[dynamic.size()];
+		for (int i = 0; i < result.length; i++)
+		{
+			result[i] = dynamic.get(i);
+		}
+		return result;
+	}
+	
+	private static boolean isName(CharSequence text, int start, int end)
+	{
+		for (int i = start; i < end; i++)
+		{
+			final char c = text.charAt(i);
+			if (!Character.isLetterOrDigit(c) && (c != '_'))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param pattern a replacement pattern
+	 * @return {@code true} if the pattern is a plain {@code %name%} placeholder which can be filled by {@link #render(Map)}
+	 */
+	public static boolean isPlaceholder(String pattern)
+	{
+		final int length = pattern.length();
+		return (length > 2) && (pattern.charAt(0) == '%') && (pattern.charAt(length - 1) == '%') && isName(pattern, 1, length - 1);
+	}
+	
+	/**
+	 * @return the page without any variable filled
+	 */
+	public String getContent()
+	{
+		return _content;
+	}
+	
+	/**
+	 * Fills the placeholders of the page, the ones without a value are kept as is.
+	 * @param values the values by placeholder, including the % delimiters
+	 * @return the filled page
+	 */
+	public String render(Map<String, String> values)
+	{
+		if (values.isEmpty() || (_names.length == 0))
+		{
+			return _content;
+		}
+		return render(values, 0, _content.length());
+	}
+	
+	private String render(Map<String, String> values, int from, int to)
+	{
+		final StringBuilder sb = new StringBuilder((to - from) + (values.size() * 16));
+		int last = from;
+		for (int i = 0; i < _names.length; i++)
+		{
+			if ((_starts[i] < last) || ((_starts[i] + _names[i].length()) > to))
+			{
+				continue;
+			}
+			
+			final String value = values.get(_names[i]);
+			if (value != null)
+			{
+				sb.append(_content, last, _starts[i]).append(value);
+				last = _starts[i] + _names[i].length();
+			}
+		}
+		sb.append(_content, last, to);
+		return sb.toString();
+	}
+	
+	/**
+	 * Gets the bypass and link actions of the filled page, as found by {@link Util#parseHtmlBypasses(String, Consumer)} and {@link Util#parseHtmlLinks(String, Consumer)}.
+	 * @param values the values by placeholder, including the % delimiters
+	 * @return the actions, {@code null} if a value could change the actions around it and the whole filled page must be parsed
+	 */
+	public List<String> getActions(Map<String, String> values)
+	{
+		if (!_actionsCacheable)
+		{
+			return null;
+		}
+		if (values.isEmpty() && (_dynamicBypasses.length == 0) && (_dynamicLinks.length == 0))
+		{
+			return _staticActions;
+		}
+		
+		final List<String> actions = new ArrayList<>(_staticActions);
+		if (!addDynamicActions(values, _dynamicBypasses, actions, Util::parseHtmlBypasses) || !addDynamicActions(values, _dynamicLinks, actions, Util::parseHtmlLinks))
+		{
+			return null;
+		}
+		
+		for (int i = 0; i < _names.length; i++)
+		{
+			final String value = values.get(_names[i]);
+			if (value == null)
+			{
+				continue;
+			}
+			
+			if (!isIsolated(values, i, value))
+			{
+				return null;
+			}
+			
+			if (value.indexOf('"') >= 0)
+			{
+				final String lower = value.toLowerCase(Locale.ENGLISH);
+				if ((!_inBypass[i] && !isClosed(lower, BYPASS_MARKER)) || (!_inLink[i] && !isClosed(lower, LINK_MARKER)))
+				{
+					return null;
+				}
+				if (!_inBypass[i])
+				{
+					Util.parseHtmlBypasses(value, actions::add);
+				}
+				if (!_inLink[i])
+				{
+					Util.parseHtmlLinks(value, actions::add);
+				}
+			}
+		}
+		return actions;
+	}
+	
+	/**
+	 * Parses again the action attributes containing variables.
+	 * @return {@code false} if a value contains a quote which could end the attribute
+	 */
+	private boolean addDynamicActions(Map<String, String> values, int[] attributes, List<String> actions, BiConsumer<String, Consumer<String>> parser)
+	{
+		for (int a = 0; a < attributes.length; a += 2)
+		{
+			for (int i = 0; i < _names.length; i++)
+			{
+				if ((_starts[i] > attributes[a]) && (_starts[i] < attributes[a + 1]))
+				{
+					final String value = values.get(_names[i]);
+					if ((value != null) && (value.indexOf('"') >= 0))
+					{
+						return false;
+					}
+				}
+			}
+			parser.accept(render(values, attributes[a], attributes[a + 1]), actions::add);
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks a value doesn't form an action marker with the text around it.
+	 * @return {@code true} if the actions of the value can be parsed alone
+	 */
+	private boolean isIsolated(Map<String, String> values, int index, String value)
+	{
+		final int start = _starts[index];
+		final int end = start + _names[index].length();
+		final int before = Math.max(start - (MARKER_LENGTH - 1), 0);
+		final int after = Math.min(end + (MARKER_LENGTH - 1), _content.length());
+		
+		// The text around must be the template itself.
+		if ((index > 0) && ((_starts[index - 1] + _names[index - 1].length()) > before) && values.containsKey(_names[index - 1]))
+		{
+			return false;
+		}
+		if ((index < (_names.length - 1)) && (_starts[index + 1] < after) && values.containsKey(_names[index + 1]))
+		{
+			return false;
+		}
+		
+		final String left = _content.substring(before, start);
+		final String right = _content.substring(end, after);
+		final int edge = MARKER_LENGTH - 1;
+		if (value.length() <= (2 * edge))
+		{
+			return !crossesValue(left + value + right, left.length(), left.length() + value.length());
+		}
+		// A marker can't go over a long value, only its edges are checked.
+		return !crossesValue(left + value.substring(0, edge), left.length(), left.length() + edge) && !crossesValue(value.substring(value.length() - edge) + right, 0, edge);
+	}
+	
+	private static boolean crossesValue(String text, int valueStart, int valueEnd)
+	{
+		final String lower = text.toLowerCase(Locale.ENGLISH);
+		return crossesValue(lower, BYPASS_MARKER, valueStart, valueEnd) || crossesValue(lower, LINK_MARKER, valueStart, valueEnd);
+	}
+	
+	private static boolean crossesValue(String text, String marker, int valueStart, int valueEnd)
+	{
+		for (int pos = text.indexOf(marker); pos != -1; pos = text.indexOf(marker, pos + 1))
+		{
+			final int markerEnd = pos + marker.length();
+			final boolean insideValue = (pos >= valueStart) && (markerEnd <= valueEnd);
+			final boolean outsideValue = (markerEnd <= valueStart) || (pos >= valueEnd);
+			if (!insideValue && !outsideValue)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return {@code false} if an action attribute of the given type is opened but not closed in the text
+	 */
+	private static boolean isClosed(String lower, String marker)
+	{
+		int start = lower.indexOf(marker);
+		while (start != -1)
+		{
+			final int end = lower.indexOf('"', start + marker.length());
+			if (end == -1)
+			{
+				return false;
+			}
+			start = lower.indexOf(marker, end);
+		}
+		return true;
+	}
+}
@@ -29,13 +29,16 @@ import java.util.Set;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.engines.DocumentParser;
 import com.l2jserver.gameserver.idfactory.IdFactory;
 import com.l2jserver.gameserver.instancemanager.InstanceManager;
 import com.l2jserver.gameserver.instancemanager.MapRegionManager;
+import com.l2jserver.gameserver.model.DoorGrid;
 import com.l2jserver.gameserver.model.StatsSet;
 import com.l2jserver.gameserver.model.actor.instance.L2DoorInstance;
 import com.l2jserver.gameserver.model.actor.templates.L2DoorTemplate;
+import com.l2jserver.gameserver.model.entity.Instance;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
 
 /**
@@ -48,6 +51,8 @@ public class DoorTable extends DocumentParser
 	private final Map<Integer, L2DoorInstance> _doors = new HashMap<>();
 	private final Map<Integer, StatsSet> _templates = new HashMap<>();
 	private final Map<Integer, List<L2DoorInstance>> _regions = new HashMap<>();
+	/** Grid of the doors outside instances, {@code null} when Config.DOOR_GRID_CELL_SIZE is 0. */
+	private final DoorGrid _grid = Config.DOOR_GRID_CELL_SIZE > 0 ? new DoorGrid(Config.DOOR_GRID_CELL_SIZE) : null;
 	
 	protected DoorTable()
 	{
@@ -60,6 +65,10 @@ public class DoorTable extends DocumentParser
 		_doors.clear();
 		_groups.clear();
 		_regions.clear();
+		if (_grid != null)
+		{
+			_grid.clear();
+		}
 		parseDatapackFile("data/doors.xml");
 	}
 	
@@ -148,6 +157,11 @@ public class DoorTable extends DocumentParser
 			_regions.put(region, new ArrayList<L2DoorInstance>());
 		}
 		_regions.get(region).add(door);
+		
+		if (_grid != null)
+		{
+			_grid.add(door);
+		}
 	}
 	
 	public static void addDoorGroup(String groupName, int doorId)
@@ -196,13 +210,26 @@ public class DoorTable extends DocumentParser
 	public boolean checkIfDoorsBetween(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean doubleFaceCheck)
 	{
 		Collection<L2DoorInstance> allDoors;
-		if ((instanceId > 0) && (InstanceManager.getInstance().getInstance(instanceId) != null))
+		DoorGrid grid;
+		final Instance instance = instanceId > 0 ? InstanceManager.getInstance().getInstance(instanceId) : null;
+		if (instance != null)
 		{
-			allDoors = InstanceManager.getInstance().getInstance(instanceId).getDoors();
+			allDoors = instance.getDoors();
+			grid = instance.getDoorGrid();
 		}
 		else
 		{
-			allDoors = _regions.get(MapRegionManager.getInstance().getMapRegionLocId(x, y));
+			allDoors = null;
+			grid = _grid;
+			if (grid == null)
+			{
+				allDoors = _regions.get(MapRegionManager.getInstance().getMapRegionLocId(x, y));
+			}
+		}
+		
+		if (grid != null)
+		{
+			return checkIfDoorsBetween(grid, x, y, z, tx, ty, tz, doubleFaceCheck);
 		}
 		
 		if (allDoors == null)
@@ -212,38 +239,98 @@ public class DoorTable extends DocumentParser
 		
 		for (L2DoorInstance doorInst : allDoors)
 		{
-			// check dead and open
-			if (doorInst.isDead() || doorInst.getOpen() || !doorInst.checkCollision() || (doorInst.getX(0) == 0))
+			if (checkIfDoorBetween(doorInst, x, y, z, tx, ty, tz, doubleFaceCheck))
 			{
-				continue;
+				return true;
 			}
-			
-			boolean intersectFace = false;
-			for (int i = 0; i < 4; i++)
+		}
+		return false;
+	}
+	
+	/**
+	 * Tests only the doors of the grid cells covered by the bounding box of the segment.
+	 * @param grid
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param tx
+	 * @param ty
+	 * @param tz
+	 * @param doubleFaceCheck
+	 * @return {@code true} if a closed door is between the two points
+	 */
+	private static boolean checkIfDoorsBetween(DoorGrid grid, int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
+		final int shift = grid.getCellShift();
+		final int minX = Math.min(x, tx);
+		final int maxX = Math.max(x, tx);
+		final int minY = Math.min(y, ty);
+		final int maxY = Math.max(y, ty);
+		final int minZ = Math.min(z, tz);
+		final int maxZ = Math.max(z, tz);
+		final int minCellX = minX >> shift;
+		final int minCellY = minY >> shift;
+		for (int cellX = minCellX; cellX <= (maxX >> shift); cellX++)
+		{
+			for (int cellY = minCellY; cellY <= (maxY >> shift); cellY++)
 			{
-				int j = (i + 1) < 4 ? i + 1 : 0;
-				// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
-				int denominator = ((ty - y) * (doorInst.getX(i) - doorInst.getX(j))) - ((tx - x) * (doorInst.getY(i) - doorInst.getY(j)));
-				if (denominator == 0)
+				for (L2DoorInstance doorInst : grid.getDoors(cellX, cellY))
 				{
-					continue;
+					final L2DoorTemplate template = doorInst.getTemplate();
+					if ((template.getNodeMinX() > maxX) || (template.getNodeMaxX() < minX) || (template.getNodeMinY() > maxY) || (template.getNodeMaxY() < minY) || (doorInst.getZMin() >= maxZ) || (doorInst.getZMax() <= minZ))
+					{
+						continue;
+					}
+					
+					// a door spanning several cells is only tested in the first cell shared by its bounding box and the segment's one
+					if ((Math.max(template.getNodeMinX() >> shift, minCellX) != cellX) || (Math.max(template.getNodeMinY() >> shift, minCellY) != cellY))
+					{
+						continue;
+					}
+					
+					if (checkIfDoorBetween(doorInst, x, y, z, tx, ty, tz, doubleFaceCheck))
+					{
+						return true;
+					}
 				}
-				
-				// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
-				float multiplier1 = (float) (((doorInst.getX(j) - doorInst.getX(i)) * (y - doorInst.getY(i))) - ((doorInst.getY(j) - doorInst.getY(i)) * (x - doorInst.getX(i)))) / denominator;
-				float multiplier2 = (float) (((tx - x) * (y - doorInst.getY(i))) - ((ty - y) * (x - doorInst.getX(i)))) / denominator;
-				if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1))
+			}
+		}
+		return false;
+	}
+	
+	private static boolean checkIfDoorBetween(L2DoorInstance doorInst, int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
+		// check dead and open
+		if (doorInst.isDead() || doorInst.getOpen() || !doorInst.checkCollision() || (doorInst.getX(0) == 0))
+		{
+			return false;
+		}
+		
+		boolean intersectFace = false;
+		for (int i = 0; i < 4; i++)
+		{
+			int j = (i + 1) < 4 ? i + 1 : 0;
+			// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
+			int denominator = ((ty - y) * (doorInst.getX(i) - doorInst.getX(j))) - ((tx - x) * (doorInst.getY(i) - doorInst.getY(j)));
+			if (denominator == 0)
+			{
+				continue;
+			}
+			
+			// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
+			float multiplier1 = (float) (((doorInst.getX(j) - doorInst.getX(i)) * (y - doorInst.getY(i))) - ((doorInst.getY(j) - doorInst.getY(i)) * (x - doorInst.getX(i)))) / denominator;
+			float multiplier2 = (float) (((tx - x) * (y - doorInst.getY(i))) - ((ty - y) * (x - doorInst.getX(i)))) / denominator;
+			if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1))
+			{
+				int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
+				// now checking if the resulting point is between door's min and max z
+				if ((intersectZ > doorInst.getZMin()) && (intersectZ < doorInst.getZMax()))
 				{
-					int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
-					// now checking if the resulting point is between door's min and max z
-					if ((intersectZ > doorInst.getZMin()) && (intersectZ < doorInst.getZMax()))
+					if (!doubleFaceCheck || intersectFace)
 					{
-						if (!doubleFaceCheck || intersectFace)
-						{
-							return true;
-						}
-						intersectFace = true;
+						return true;
 					}
+					intersectFace = true;
 				}
 			}
 		}
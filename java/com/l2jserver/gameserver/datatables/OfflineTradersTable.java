@@ -22,7 +22,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,6 +52,9 @@ public class OfflineTradersTable
 	private static final String LOAD_OFFLINE_STATUS = "SELECT * FROM character_offline_trade";
 	private static final String LOAD_OFFLINE_ITEMS = "SELECT * FROM character_offline_trade_items WHERE charId = ?";
 	
+	/** Number of traders written to the database at once by {@link #storeOffliners()}. */
+	private static final int STORE_BATCH_SIZE = 100;
+	
 	public void storeOffliners()
 	{
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
@@ -61,17 +67,16 @@ public class OfflineTradersTable
 			stm2.execute();
 			con.setAutoCommit(false); // avoid halfway done
 			
+			final List<OfflineTrader> batch = new ArrayList<>(STORE_BATCH_SIZE);
+			int stored = 0;
 			for (L2PcInstance pc : L2World.getInstance().getPlayers())
 			{
 				try
 				{
 					if ((pc.getPrivateStoreType() != PrivateStoreType.NONE) && ((pc.getClient() == null) || pc.getClient().isDetached()))
 					{
-						stm3.setInt(1, pc.getObjectId()); // Char Id
-						stm3.setLong(2, pc.getOfflineStartTime());
-						stm3.setInt(3, pc.getPrivateStoreType().getId()); // store type
-						String title = null;
-						
+						// The rows are collected first, so a trader failing halfway adds nothing to the batch.
+						final OfflineTrader trader = new OfflineTrader(pc.getObjectId(), pc.getOfflineStartTime(), pc.getPrivateStoreType().getId());
 						switch (pc.getPrivateStoreType())
 						{
 							case BUY:
@@ -79,15 +84,10 @@ public class OfflineTradersTable
 								{
 									continue;
 								}
-								title = pc.getBuyList().getTitle();
+								trader._title = pc.getBuyList().getTitle();
 								for (TradeItem i : pc.getBuyList().getItems())
 								{
-									stm_items.setInt(1, pc.getObjectId());
-									stm_items.setInt(2, i.getItem().getId());
-									stm_items.setLong(3, i.getCount());
-									stm_items.setLong(4, i.getPrice());
-									stm_items.executeUpdate();
-									stm_items.clearParameters();
+									trader.addItem(i.getItem().getId(), i.getCount(), i.getPrice());
 								}
 								break;
 							case SELL:
@@ -96,15 +96,10 @@ public class OfflineTradersTable
 								{
 									continue;
 								}
-								title = pc.getSellList().getTitle();
+								trader._title = pc.getSellList().getTitle();
 								for (TradeItem i : pc.getSellList().getItems())
 								{
-									stm_items.setInt(1, pc.getObjectId());
-									stm_items.setInt(2, i.getObjectId());
-									stm_items.setLong(3, i.getCount());
-									stm_items.setLong(4, i.getPrice());
-									stm_items.executeUpdate();
-									stm_items.clearParameters();
+									trader.addItem(i.getObjectId(), i.getCount(), i.getPrice());
 								}
 								break;
 							case MANUFACTURE:
@@ -112,21 +107,17 @@ public class OfflineTradersTable
 								{
 									continue;
 								}
-								title = pc.getStoreName();
+								trader._title = pc.getStoreName();
 								for (L2ManufactureItem i : pc.getManufactureItems().values())
 								{
-									stm_items.setInt(1, pc.getObjectId());
-									stm_items.setInt(2, i.getRecipeId());
-									stm_items.setLong(3, 0);
-									stm_items.setLong(4, i.getCost());
-									stm_items.executeUpdate();
-									stm_items.clearParameters();
+									trader.addItem(i.getRecipeId(), 0, i.getCost());
 								}
 						}
-						stm3.setString(4, title);
-						stm3.executeUpdate();
-						stm3.clearParameters();
-						con.commit(); // flush
+						batch.add(trader);
+						if (batch.size() >= STORE_BATCH_SIZE)
+						{
+							stored += flush(con, stm3, stm_items, batch);
+						}
 					}
 				}
 				catch (Exception e)
@@ -134,7 +125,8 @@ public class OfflineTradersTable
 					_log.log(Level.WARNING, getClass().getSimpleName() + ": Error while saving offline trader: " + pc.getObjectId() + " " + e, e);
 				}
 			}
-			_log.info(getClass().getSimpleName() + ": Offline traders stored.");
+			stored += flush(con, stm3, stm_items, batch);
+			_log.info(getClass().getSimpleName() + ": " + stored + " offline traders stored.");
 		}
 		catch (Exception e)
 		{
@@ -142,6 +134,88 @@ public class OfflineTradersTable
 		}
 	}
 	
+	/**
+	 * Writes a batch of offline traders and empties it.<br>
+	 * If the batch fails, its traders are written again one at a time so a single faulty trader does not drop the others.
+	 * @param con the connection, not in auto-commit mode
+	 * @param traders the statement inserting the traders
+	 * @param items the statement inserting the items of the traders
+	 * @param batch the traders to write
+	 * @return the number of traders written
+	 */
+	private int flush(Connection con, PreparedStatement traders, PreparedStatement items, List<OfflineTrader> batch)
+	{
+		int stored = 0;
+		if (!batch.isEmpty())
+		{
+			if (store(con, traders, items, batch))
+			{
+				stored = batch.size();
+			}
+			else
+			{
+				for (OfflineTrader trader : batch)
+				{
+					if (store(con, traders, items, Collections.singletonList(trader)))
+					{
+						stored++;
+					}
+				}
+			}
+			batch.clear();
+		}
+		return stored;
+	}
+	
+	private boolean store(Connection con, PreparedStatement traders, PreparedStatement items, List<OfflineTrader> batch)
+	{
+		try
+		{
+			for (OfflineTrader trader : batch)
+			{
+				traders.setInt(1, trader._charId);
+				traders.setLong(2, trader._time);
+				traders.setInt(3, trader._type);
+				traders.setString(4, trader._title);
+				traders.addBatch();
+				for (long[] item : trader._items)
+				{
+					items.setInt(1, trader._charId);
+					items.setInt(2, (int) item[0]);
+					items.setLong(3, item[1]);
+					items.setLong(4, item[2]);
+					items.addBatch();
+				}
+			}
+			items.executeBatch();
+			traders.executeBatch();
+			con.commit();
+			return true;
+		}
+		catch (Exception e)
+		{
+			if (batch.size() == 1)
+			{
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Error while saving offline trader: " + batch.get(0)._charId + " " + e, e);
+			}
+			else
+			{
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Error while saving a batch of offline traders, saving them one by one: " + e, e);
+			}
+			try
+			{
+				items.clearBatch();
+				traders.clearBatch();
+				con.rollback();
+			}
+			catch (Exception e1)
+			{
+				// ignore, the connection is closed by the caller
+			}
+			return false;
+		}
+	}
+	
 	public void restoreOfflineTraders()
 	{
 		_log.info(getClass().getSimpleName() + ": Loading offline traders...");
@@ -278,4 +352,34 @@ public class OfflineTradersTable
 	{
 		protected static final OfflineTradersTable _instance = new OfflineTradersTable();
 	}
+	
+	/**
+	 * Rows of an offline trader, collected before being added to the batches.
+	 */
+	private static final class OfflineTrader
+	{
+		protected final int _charId;
+		protected final long _time;
+		protected final int _type;
+		protected String _title;
+		/** Item, count and price of each item. */
+		protected final List<long[]> _items = new ArrayList<>();
+		
+		public OfflineTrader(int charId, long time, int type)
+		{
+			_charId = charId;
+			_time = time;
+			_type = type;
+		}
+		
+		public void addItem(int item, long count, long price)
+		{
+			_items.add(new long[]
+			{
+				item,
+				count,
+				price
+			});
+		}
+	}
 }
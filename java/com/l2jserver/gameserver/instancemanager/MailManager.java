@@ -24,14 +24,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javolution.util.FastList;
 
+import com.l2jserver.Config;
 import com.l2jserver.L2DatabaseFactory;
 import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.idfactory.IdFactory;
@@ -48,7 +51,15 @@ public final class MailManager
 {
 	private static final Logger _log = Logger.getLogger(MailManager.class.getName());
 	
+	private static final String LOAD_MESSAGES = "SELECT * FROM messages ORDER BY expiration";
+	private static final String LOAD_MESSAGE_HEADERS = "SELECT messageId, senderId, receiverId, subject, expiration, reqAdena, hasAttachments, isUnread, isDeletedBySender, isDeletedByReceiver, sendBySystem, isReturned FROM messages ORDER BY expiration";
+	private static final String LOAD_MESSAGE_CONTENT = "SELECT content FROM messages WHERE messageId = ?";
+	
 	private final Map<Integer, Message> _messages = new ConcurrentHashMap<>();
+	/** Messages by receiver id, including the ones deleted by the receiver. */
+	private final Map<Integer, Set<Message>> _inboxes = new ConcurrentHashMap<>();
+	/** Messages by sender id, including the ones deleted by the sender. */
+	private final Map<Integer, Set<Message>> _outboxes = new ConcurrentHashMap<>();
 	
 	protected MailManager()
 	{
@@ -60,7 +71,7 @@ public final class MailManager
 		int count = 0;
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
 			Statement ps = con.createStatement();
-			ResultSet rs = ps.executeQuery("SELECT * FROM messages ORDER BY expiration"))
+			ResultSet rs = ps.executeQuery(Config.MAIL_LAZY_CONTENT ? LOAD_MESSAGE_HEADERS : LOAD_MESSAGES))
 		{
 			while (rs.next())
 			{
@@ -68,7 +79,7 @@ public final class MailManager
 				final Message msg = new Message(rs);
 				
 				int msgId = msg.getId();
-				_messages.put(msgId, msg);
+				addMessage(msg);
 				
 				count++;
 				
@@ -91,6 +102,42 @@ public final class MailManager
 		_log.info(getClass().getSimpleName() + ": Successfully loaded " + count + " messages.");
 	}
 	
+	private void addMessage(Message msg)
+	{
+		_messages.put(msg.getId(), msg);
+		addToIndex(_inboxes, msg.getReceiverId(), msg);
+		addToIndex(_outboxes, msg.getSenderId(), msg);
+	}
+	
+	private static void addToIndex(Map<Integer, Set<Message>> index, int objectId, Message msg)
+	{
+		// Sets are only modified while their bin is locked by compute, so an emptied set can't get a message after its removal.
+		index.compute(objectId, (k, messages) ->
+		{
+			if (messages == null)
+			{
+				messages = ConcurrentHashMap.newKeySet();
+			}
+			messages.add(msg);
+			return messages;
+		});
+	}
+	
+	private static void removeFromIndex(Map<Integer, Set<Message>> index, int objectId, Message msg)
+	{
+		index.computeIfPresent(objectId, (k, messages) ->
+		{
+			messages.remove(msg);
+			return messages.isEmpty() ? null : messages;
+		});
+	}
+	
+	private static Collection<Message> getIndexedMessages(Map<Integer, Set<Message>> index, int objectId)
+	{
+		final Set<Message> messages = index.get(objectId);
+		return messages != null ? messages : Collections.<Message> emptySet();
+	}
+	
 	public final Message getMessage(int msgId)
 	{
 		return _messages.get(msgId);
@@ -103,10 +150,9 @@ public final class MailManager
 	
 	public final boolean hasUnreadPost(L2PcInstance player)
 	{
-		final int objectId = player.getObjectId();
-		for (Message msg : getMessages())
+		for (Message msg : getIndexedMessages(_inboxes, player.getObjectId()))
 		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && msg.isUnread())
+			if (msg.isUnread())
 			{
 				return true;
 			}
@@ -117,9 +163,9 @@ public final class MailManager
 	public final int getInboxSize(int objectId)
 	{
 		int size = 0;
-		for (Message msg : getMessages())
+		for (Message msg : getIndexedMessages(_inboxes, objectId))
 		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
+			if (!msg.isDeletedByReceiver())
 			{
 				size++;
 			}
@@ -130,9 +176,9 @@ public final class MailManager
 	public final int getOutboxSize(int objectId)
 	{
 		int size = 0;
-		for (Message msg : getMessages())
+		for (Message msg : getIndexedMessages(_outboxes, objectId))
 		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
+			if (!msg.isDeletedBySender())
 			{
 				size++;
 			}
@@ -143,9 +189,9 @@ public final class MailManager
 	public final List<Message> getInbox(int objectId)
 	{
 		final List<Message> inbox = new FastList<>();
-		for (Message msg : getMessages())
+		for (Message msg : getIndexedMessages(_inboxes, objectId))
 		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
+			if (!msg.isDeletedByReceiver())
 			{
 				inbox.add(msg);
 			}
@@ -156,9 +202,9 @@ public final class MailManager
 	public final List<Message> getOutbox(int objectId)
 	{
 		final List<Message> outbox = new FastList<>();
-		for (Message msg : getMessages())
+		for (Message msg : getIndexedMessages(_outboxes, objectId))
 		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
+			if (!msg.isDeletedBySender())
 			{
 				outbox.add(msg);
 			}
@@ -168,7 +214,7 @@ public final class MailManager
 	
 	public void sendMessage(Message msg)
 	{
-		_messages.put(msg.getId(), msg);
+		addMessage(msg);
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
 			PreparedStatement ps = Message.getStatement(msg, con))
 		{
@@ -188,6 +234,33 @@ public final class MailManager
 		ThreadPoolManager.getInstance().scheduleGeneral(new MessageDeletionTask(msg.getId()), msg.getExpiration() - System.currentTimeMillis());
 	}
 	
+	/**
+	 * Reads the text of a message from the database, used with {@link Config#MAIL_LAZY_CONTENT}.
+	 * @param msgId the message id
+	 * @return the text of the message, an empty string if it can't be read
+	 */
+	public final String loadContentFromDb(int msgId)
+	{
+		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
+			PreparedStatement ps = con.prepareStatement(LOAD_MESSAGE_CONTENT))
+		{
+			ps.setInt(1, msgId);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				if (rs.next())
+				{
+					final String content = rs.getString("content");
+					return content != null ? content : "";
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Error loading message content:" + e.getMessage(), e);
+		}
+		return "";
+	}
+	
 	public final void markAsReadInDb(int msgId)
 	{
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
@@ -257,7 +330,12 @@ public final class MailManager
 			_log.log(Level.WARNING, getClass().getSimpleName() + ": Error deleting message:" + e.getMessage(), e);
 		}
 		
-		_messages.remove(msgId);
+		final Message msg = _messages.remove(msgId);
+		if (msg != null)
+		{
+			removeFromIndex(_inboxes, msg.getReceiverId(), msg);
+			removeFromIndex(_outboxes, msg.getSenderId(), msg);
+		}
 		IdFactory.getInstance().releaseId(msgId);
 	}
 	
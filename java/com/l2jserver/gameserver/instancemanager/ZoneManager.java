@@ -40,6 +40,7 @@ import com.l2jserver.gameserver.model.zone.AbstractZoneSettings;
 import com.l2jserver.gameserver.model.zone.L2ZoneForm;
 import com.l2jserver.gameserver.model.zone.L2ZoneRespawn;
 import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.ZoneGrid;
 import com.l2jserver.gameserver.model.zone.form.ZoneCuboid;
 import com.l2jserver.gameserver.model.zone.form.ZoneCylinder;
 import com.l2jserver.gameserver.model.zone.form.ZoneNPoly;
@@ -95,7 +96,7 @@ public final class ZoneManager extends DocumentParser
 		{
 			for (L2WorldRegion element : worldRegion)
 			{
-				element.getZones().clear();
+				element.clearZones();
 				count++;
 			}
 		}
@@ -539,6 +540,13 @@ public final class ZoneManager extends DocumentParser
 	{
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
+		final ZoneGrid grid = region.getZoneGrid();
+		if (grid != null)
+		{
+			grid.getZones(x, y, temp);
+			return temp;
+		}
+		
 		for (L2ZoneType zone : region.getZones())
 		{
 			if (zone.isInsideZone(x, y))
@@ -560,6 +568,13 @@ public final class ZoneManager extends DocumentParser
 	{
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
+		final ZoneGrid grid = region.getZoneGrid();
+		if (grid != null)
+		{
+			grid.getZones(x, y, z, temp);
+			return temp;
+		}
+		
 		for (L2ZoneType zone : region.getZones())
 		{
 			if (zone.isInsideZone(x, y, z))
@@ -583,6 +598,12 @@ public final class ZoneManager extends DocumentParser
 	public <T extends L2ZoneType> T getZone(int x, int y, int z, Class<T> type)
 	{
 		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
+		final ZoneGrid grid = region.getZoneGrid();
+		if (grid != null)
+		{
+			return grid.getZone(x, y, z, type);
+		}
+		
 		for (L2ZoneType zone : region.getZones())
 		{
 			if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
@@ -23,9 +23,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.logging.Logger;
@@ -33,6 +36,7 @@ import java.util.logging.Logger;
 import javolution.util.FastMap;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Summon;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
@@ -49,6 +53,8 @@ import com.l2jserver.gameserver.network.serverpackets.AbnormalStatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.ExOlympiadSpelledInfo;
 import com.l2jserver.gameserver.network.serverpackets.PartySpelled;
 import com.l2jserver.gameserver.network.serverpackets.ShortBuffStatusUpdate;
+import com.l2jserver.gameserver.taskmanager.BuffTaskManager;
+import com.l2jserver.gameserver.taskmanager.StatusUpdateTaskManager;
 
 /**
  * Effect lists.<br>
@@ -90,10 +96,16 @@ public final class CharEffectList
 	private int _effectFlags;
 	/** If {@code true} only party icons need to be updated. */
 	private boolean _partyOnly = false;
+	/** If {@code true} the icons deferred by StatusUpdateTaskManager include the owner's own icons. */
+	private volatile boolean _ownIconsPending = false;
 	/** The owner of this effect list. */
 	private final L2Character _owner;
 	/** Hidden buffs count, prevents iterations. */
 	private final AtomicInteger _hiddenBuffs = new AtomicInteger();
+	/** Buff timers which are due, only used with the buff timing wheel. */
+	private volatile Queue<Runnable> _dueTimers;
+	/** If {@code true} a task running the due buff timers is scheduled. */
+	private final AtomicBoolean _dueTimersScheduled = new AtomicBoolean();
 	
 	/**
 	 * Constructor for effect list.
@@ -1545,6 +1557,40 @@ public final class CharEffectList
 			return;
 		}
 		
+		final boolean partyOnly = _partyOnly;
+		_partyOnly = false;
+		if (Config.COALESCE_STATUS_UPDATES)
+		{
+			// Coalesced icons are party only if all the requests were.
+			if (!partyOnly)
+			{
+				_ownIconsPending = true;
+			}
+			if (!StatusUpdateTaskManager.getInstance().defer(_owner, StatusUpdateTaskManager.EFFECT_ICONS))
+			{
+				sendEffectIcons();
+			}
+			return;
+		}
+		sendEffectIcons(partyOnly);
+	}
+	
+	/**
+	 * Sends the effect icons deferred by {@link StatusUpdateTaskManager}.
+	 */
+	public void sendEffectIcons()
+	{
+		final boolean partyOnly = !_ownIconsPending;
+		_ownIconsPending = false;
+		sendEffectIcons(partyOnly);
+	}
+	
+	/**
+	 * Sends the effect icons to the owner, its party and the olympiad observers.
+	 * @param partyOnly if {@code true} the owner's own icons are not sent
+	 */
+	private void sendEffectIcons(boolean partyOnly)
+	{
 		AbnormalStatusUpdate asu = null;
 		PartySpelled ps = null;
 		PartySpelled psSummon = null;
@@ -1553,11 +1599,7 @@ public final class CharEffectList
 		
 		if (_owner.isPlayer())
 		{
-			if (_partyOnly)
-			{
-				_partyOnly = false;
-			}
-			else
+			if (!partyOnly)
 			{
 				asu = new AbnormalStatusUpdate();
 			}
@@ -1882,4 +1924,51 @@ public final class CharEffectList
 	{
 		return (_effectFlags & flag.getMask()) != 0;
 	}
+	
+	/**
+	 * Queues a buff timer which is due, called by the buff timing wheel.<br>
+	 * All the timers of this effect list which are due together are run by a single task of the effects thread pool.
+	 * @param timer the timer to run
+	 */
+	public void queueDueTimer(Runnable timer)
+	{
+		if (_dueTimers == null)
+		{
+			synchronized (this)
+			{
+				if (_dueTimers == null)
+				{
+					_dueTimers = new ConcurrentLinkedQueue<>();
+				}
+			}
+		}
+		
+		_dueTimers.add(timer);
+		if (_dueTimersScheduled.compareAndSet(false, true))
+		{
+			ThreadPoolManager.getInstance().scheduleEffect(this::runDueTimers, 0);
+		}
+	}
+	
+	/**
+	 * Runs the due buff timers until the queue is empty.
+	 */
+	private void runDueTimers()
+	{
+		int count = 0;
+		do
+		{
+			Runnable timer;
+			while ((timer = _dueTimers.poll()) != null)
+			{
+				timer.run();
+				count++;
+			}
+			_dueTimersScheduled.set(false);
+		}
+		// A timer may have been queued after the last poll but before the flag was cleared.
+		while (!_dueTimers.isEmpty() && _dueTimersScheduled.compareAndSet(false, true));
+		
+		BuffTaskManager.getInstance().countBatch(count);
+	}
 }
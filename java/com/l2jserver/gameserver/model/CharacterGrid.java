@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.Arrays;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+
+/**
+ * Uniform grid over the visible characters of a world region, used to answer radius queries without going through the knownlists.<br>
+ * Cells are copy on write arrays: characters change cell far less often than cells are looked up, so lookups neither lock nor allocate.
+ */
+public final class CharacterGrid
+{
+	private final int _cellShift;
+	private final int _cellsPerSide;
+	private final Cell[] _cells;
+	
+	/**
+	 * @param regionShift the region size, as a power of two
+	 * @param cellShift the cell size, as a power of two
+	 */
+	public CharacterGrid(int regionShift, int cellShift)
+	{
+		_cellShift = cellShift;
+		_cellsPerSide = 1 << (regionShift - cellShift);
+		_cells = new Cell[_cellsPerSide * _cellsPerSide];
+		for (int i = 0; i < _cells.length; i++)
+		{
+			_cells[i] = new Cell();
+		}
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @return the cell containing the given coordinates, which have to be inside the region of this grid
+	 */
+	public Cell getCell(int x, int y)
+	{
+		final int mask = _cellsPerSide - 1;
+		return _cells[(((x >> _cellShift) & mask) * _cellsPerSide) + ((y >> _cellShift) & mask)];
+	}
+	
+	public static final class Cell
+	{
+		private static final L2Character[] EMPTY = new L2Character[0];
+		
+		private volatile L2Character[] _characters = EMPTY;
+		
+		/**
+		 * The returned array must not be modified.
+		 * @return the characters of this cell
+		 */
+		public L2Character[] getCharacters()
+		{
+			return _characters;
+		}
+		
+		protected synchronized void add(L2Character character)
+		{
+			final L2Character[] characters = Arrays.copyOf(_characters, _characters.length + 1);
+			characters[characters.length - 1] = character;
+			_characters = characters;
+		}
+		
+		protected synchronized void remove(L2Character character)
+		{
+			final L2Character[] characters = _characters;
+			for (int i = 0; i < characters.length; i++)
+			{
+				if (characters[i] == character)
+				{
+					final L2Character[] result = Arrays.copyOf(characters, characters.length - 1);
+					System.arraycopy(characters, i + 1, result, i, characters.length - i - 1);
+					_characters = result;
+					return;
+				}
+			}
+		}
+	}
+}
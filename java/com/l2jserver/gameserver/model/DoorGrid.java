@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.Arrays;
+
+import com.l2jserver.gameserver.model.actor.instance.L2DoorInstance;
+import com.l2jserver.gameserver.model.actor.templates.L2DoorTemplate;
+import com.l2jserver.util.ConcurrentIntObjectMap;
+
+/**
+ * Sparse uniform grid over the doors, each cell keeps the doors whose nodes bounding box intersects it.<br>
+ * Used by the door line checks so a segment only tests the doors of the cells it covers instead of all the doors of its map region.<br>
+ * Doors are only added when they are loaded, so cells are copy on write arrays and lookups neither lock nor allocate.
+ */
+public final class DoorGrid
+{
+	private static final L2DoorInstance[] EMPTY = new L2DoorInstance[0];
+	
+	private final int _cellShift;
+	private final ConcurrentIntObjectMap<L2DoorInstance[]> _cells = new ConcurrentIntObjectMap<>();
+	
+	/**
+	 * @param cellSize the cell size, rounded down to a power of two
+	 */
+	public DoorGrid(int cellSize)
+	{
+		_cellShift = Integer.numberOfTrailingZeros(Integer.highestOneBit(Math.max(cellSize, 16)));
+	}
+	
+	/**
+	 * @return the cell size, as a power of two
+	 */
+	public int getCellShift()
+	{
+		return _cellShift;
+	}
+	
+	/**
+	 * Adds the door to all the cells intersecting its nodes bounding box.
+	 * @param door the door to add
+	 */
+	public synchronized void add(L2DoorInstance door)
+	{
+		final L2DoorTemplate template = door.getTemplate();
+		for (int cellX = template.getNodeMinX() >> _cellShift; cellX <= (template.getNodeMaxX() >> _cellShift); cellX++)
+		{
+			for (int cellY = template.getNodeMinY() >> _cellShift; cellY <= (template.getNodeMaxY() >> _cellShift); cellY++)
+			{
+				final L2DoorInstance[] doors = getDoors(cellX, cellY);
+				final L2DoorInstance[] newDoors = Arrays.copyOf(doors, doors.length + 1);
+				newDoors[doors.length] = door;
+				_cells.put(getKey(cellX, cellY), newDoors);
+			}
+		}
+	}
+	
+	/**
+	 * Removes all the doors from the grid.
+	 */
+	public synchronized void clear()
+	{
+		_cells.clear();
+	}
+	
+	/**
+	 * The returned array must not be modified.
+	 * @param cellX the cell x, world x shifted by the cell size
+	 * @param cellY the cell y, world y shifted by the cell size
+	 * @return the doors intersecting the given cell
+	 */
+	public L2DoorInstance[] getDoors(int cellX, int cellY)
+	{
+		final L2DoorInstance[] doors = _cells.get(getKey(cellX, cellY));
+		return doors != null ? doors : EMPTY;
+	}
+	
+	private static int getKey(int cellX, int cellY)
+	{
+		return (cellX << 16) | (cellY & 0xFFFF);
+	}
+}
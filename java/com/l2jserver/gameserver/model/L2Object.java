@@ -23,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import javolution.util.FastMap;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.enums.InstanceType;
 import com.l2jserver.gameserver.enums.ShotType;
 import com.l2jserver.gameserver.handler.ActionHandler;
@@ -50,6 +51,7 @@ import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.DeleteObject;
 import com.l2jserver.gameserver.network.serverpackets.ExSendUIEvent;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -630,6 +632,11 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 			
 			// Add the L2Oject spawn to _visibleObjects and if necessary to _allplayers of its L2WorldRegion
 			getWorldRegion().addVisibleObject(this);
+			
+			if (Config.INCREMENTAL_KNOWNLIST)
+			{
+				KnownListUpdateTaskManager.getInstance().addPendingObject(this);
+			}
 		}
 	}
 	
@@ -766,6 +773,11 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 			{
 				updateWorldRegion();
 			}
+			
+			if (isCharacter())
+			{
+				L2World.getInstance().updateCharacterGrid((L2Character) this);
+			}
 		}
 		catch (Exception e)
 		{
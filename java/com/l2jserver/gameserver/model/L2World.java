@@ -25,15 +25,20 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.datatables.AdminTable;
 import com.l2jserver.gameserver.datatables.CharNameTable;
+import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.instance.L2PetInstance;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+import com.l2jserver.util.ConcurrentIntObjectMap;
 import com.l2jserver.util.StringUtil;
 
 public final class L2World
@@ -71,9 +76,9 @@ public final class L2World
 	private static final int REGIONS_Y = (MAP_MAX_Y >> SHIFT_BY) + OFFSET_Y;
 	
 	/** Map containing all the players in game. */
-	private final Map<Integer, L2PcInstance> _allPlayers = new ConcurrentHashMap<>();
+	private final ConcurrentIntObjectMap<L2PcInstance> _allPlayers = new ConcurrentIntObjectMap<>(16);
 	/** Map containing all visible objects. */
-	private final Map<Integer, L2Object> _allObjects = new ConcurrentHashMap<>();
+	private final ConcurrentIntObjectMap<L2Object> _allObjects = new ConcurrentIntObjectMap<>(64);
 	/** Map used for debug. */
 	private final Map<Integer, String> _allObjectsDebug = new ConcurrentHashMap<>();
 	/** Map with the pets instances and their owner ID. */
@@ -81,10 +86,16 @@ public final class L2World
 	
 	private L2WorldRegion[][] _worldRegions;
 	
+	/** Cell size of the character grids as a power of two, 0 if the grids are disabled. */
+	private final int _characterGridShift;
+	/** Largest collision radius of the characters added to the grids, lookups are enlarged by it. */
+	private final AtomicInteger _characterGridMaxRadius = new AtomicInteger();
+	
 	/** Constructor of L2World. */
 	protected L2World()
 	{
 		initRegions();
+		_characterGridShift = Config.CHARACTER_GRID_CELL_SIZE > 0 ? Math.min(Integer.numberOfTrailingZeros(Integer.highestOneBit(Math.max(Config.CHARACTER_GRID_CELL_SIZE, 16))), SHIFT_BY) : 0;
 	}
 	
 	/**
@@ -306,6 +317,12 @@ public final class L2World
 			// If visible L2Object is a L2PcInstance, add visible L2Object in L2ObjectHashSet(L2PcInstance) _knownPlayer of the object
 			object.getKnownList().addKnownObject(visible);
 		}
+		
+		// The loop above only covers the close area, the rest is done by the incremental update
+		if (Config.INCREMENTAL_KNOWNLIST)
+		{
+			KnownListUpdateTaskManager.getInstance().addPendingObject(object);
+		}
 	}
 	
 	/**
@@ -366,6 +383,11 @@ public final class L2World
 			// Remove all L2PcInstance from L2ObjectHashSet(L2PcInstance) containing all player ingame detected by the L2Character
 			object.getKnownList().removeAllKnownObjects();
 			
+			if (Config.INCREMENTAL_KNOWNLIST)
+			{
+				KnownListUpdateTaskManager.getInstance().removePendingObject(object);
+			}
+			
 			// If selected L2Object is a L2PcIntance, remove it from L2ObjectHashSet(L2PcInstance) _allPlayers of L2World
 			if (object.isPlayer())
 			{
@@ -567,6 +589,157 @@ public final class L2World
 		return _worldRegions;
 	}
 	
+	/**
+	 * @return {@code true} if the visible characters are kept in the character grids of the world regions
+	 */
+	public boolean isCharacterGridEnabled()
+	{
+		return _characterGridShift > 0;
+	}
+	
+	/**
+	 * @return the cell size of the character grids, as a power of two
+	 */
+	public int getCharacterGridShift()
+	{
+		return _characterGridShift;
+	}
+	
+	/**
+	 * Adds the character to the grid cell of its current position, called when it's added to the visible objects of a region.
+	 * @param character
+	 */
+	void addToCharacterGrid(L2Character character)
+	{
+		final CharacterGrid.Cell cell = getCharacterGridCell(character.getX(), character.getY());
+		synchronized (character)
+		{
+			moveInCharacterGrid(character, cell);
+		}
+	}
+	
+	/**
+	 * Removes the character from the grids, called when it's removed from the visible objects of a region.
+	 * @param character
+	 */
+	void removeFromCharacterGrid(L2Character character)
+	{
+		synchronized (character)
+		{
+			moveInCharacterGrid(character, null);
+		}
+	}
+	
+	/**
+	 * Moves the character to the grid cell of its new position, characters which are not in the grids are ignored.
+	 * @param character
+	 */
+	public void updateCharacterGrid(L2Character character)
+	{
+		final CharacterGrid.Cell current = character.getCharacterGridCell();
+		if (current == null)
+		{
+			return;
+		}
+		
+		final CharacterGrid.Cell cell = getCharacterGridCell(character.getX(), character.getY());
+		if (cell == current)
+		{
+			return;
+		}
+		
+		synchronized (character)
+		{
+			// Removed from the world meanwhile.
+			if (character.getCharacterGridCell() != null)
+			{
+				moveInCharacterGrid(character, cell);
+			}
+		}
+	}
+	
+	private void moveInCharacterGrid(L2Character character, CharacterGrid.Cell cell)
+	{
+		final CharacterGrid.Cell old = character.getCharacterGridCell();
+		if (old == cell)
+		{
+			return;
+		}
+		
+		if (old != null)
+		{
+			old.remove(character);
+		}
+		if (cell != null)
+		{
+			cell.add(character);
+			
+			final int radius = character.getTemplate().getCollisionRadius();
+			if (radius > _characterGridMaxRadius.get())
+			{
+				_characterGridMaxRadius.accumulateAndGet(radius, Math::max);
+			}
+		}
+		character.setCharacterGridCell(cell);
+	}
+	
+	private CharacterGrid.Cell getCharacterGridCell(int x, int y)
+	{
+		return getRegion(x, y).getCharacterGrid(true).getCell(x, y);
+	}
+	
+	/**
+	 * Visits the characters of the grid cells overlapping the square of the given half side around the coordinates.<br>
+	 * The square is enlarged by the largest collision radius of the characters in the grids, the visitor does the exact range check.
+	 * @param x
+	 * @param y
+	 * @param range the half side of the square
+	 * @param visitor returns {@code true} to stop the visit on the given character
+	 * @return the character the visit stopped on, {@code null} if all the characters were visited
+	 */
+	public L2Character findCharacterInGrid(int x, int y, int range, Predicate<L2Character> visitor)
+	{
+		final int shift = _characterGridShift;
+		final int regionShift = SHIFT_BY - shift;
+		final int margin = range + _characterGridMaxRadius.get();
+		final int minX = (x - margin) >> shift;
+		final int maxX = (x + margin) >> shift;
+		final int minY = (y - margin) >> shift;
+		final int maxY = (y + margin) >> shift;
+		for (int cx = minX; cx <= maxX; cx++)
+		{
+			final int rx = (cx >> regionShift) + OFFSET_X;
+			if ((rx < 0) || (rx > REGIONS_X))
+			{
+				continue;
+			}
+			
+			for (int cy = minY; cy <= maxY; cy++)
+			{
+				final int ry = (cy >> regionShift) + OFFSET_Y;
+				if ((ry < 0) || (ry > REGIONS_Y))
+				{
+					continue;
+				}
+				
+				final CharacterGrid grid = _worldRegions[rx][ry].getCharacterGrid(false);
+				if (grid == null)
+				{
+					continue;
+				}
+				
+				for (L2Character character : grid.getCell(cx << shift, cy << shift).getCharacters())
+				{
+					if (visitor.test(character))
+					{
+						return character;
+					}
+				}
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * Check if the current L2WorldRegions of the object is valid according to its position (x,y). <B><U> Example of use </U> :</B> <li>Init L2WorldRegions</li><BR>
 	 * @param x X position of the object
@@ -21,12 +21,10 @@ package com.l2jserver.gameserver.model;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
 import java.util.logging.Logger;
 
 import javolution.util.FastList;
-import javolution.util.FastMap;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.ThreadPoolManager;
@@ -38,28 +36,32 @@ import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.L2Vehicle;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.ZoneGrid;
 import com.l2jserver.gameserver.model.zone.type.L2PeaceZone;
+import com.l2jserver.util.ConcurrentIntObjectMap;
 
 public final class L2WorldRegion
 {
 	private static final Logger _log = Logger.getLogger(L2WorldRegion.class.getName());
 	
 	/** Map containing all playable characters in game in this world region. */
-	private final Map<Integer, L2Playable> _allPlayable;
+	private final ConcurrentIntObjectMap<L2Playable> _allPlayable;
 	
 	/** Map containing visible objects in this world region. */
-	private final Map<Integer, L2Object> _visibleObjects;
+	private final ConcurrentIntObjectMap<L2Object> _visibleObjects;
 	
 	private final List<L2WorldRegion> _surroundingRegions;
 	private final int _tileX, _tileY;
 	private boolean _active = false;
 	private ScheduledFuture<?> _neighborsTask = null;
 	private final List<L2ZoneType> _zones;
+	private volatile ZoneGrid _zoneGrid = null;
+	private volatile CharacterGrid _characterGrid = null;
 	
 	public L2WorldRegion(int pTileX, int pTileY)
 	{
-		_allPlayable = new FastMap<Integer, L2Playable>().shared();
-		_visibleObjects = new FastMap<Integer, L2Object>().shared();
+		_allPlayable = new ConcurrentIntObjectMap<>();
+		_visibleObjects = new ConcurrentIntObjectMap<>();
 		_surroundingRegions = new ArrayList<>();
 		
 		_tileX = pTileX;
@@ -85,11 +87,61 @@ public final class L2WorldRegion
 	public void addZone(L2ZoneType zone)
 	{
 		_zones.add(zone);
+		_zoneGrid = null;
 	}
 	
 	public void removeZone(L2ZoneType zone)
 	{
 		_zones.remove(zone);
+		_zoneGrid = null;
+	}
+	
+	public void clearZones()
+	{
+		_zones.clear();
+		_zoneGrid = null;
+	}
+	
+	/**
+	 * The grid is built on first use and rebuilt when the zones of this region change.
+	 * @return the zone grid of this region, {@code null} if disabled
+	 */
+	public ZoneGrid getZoneGrid()
+	{
+		if (Config.ZONE_GRID_CELL_SIZE <= 0)
+		{
+			return null;
+		}
+		
+		ZoneGrid grid = _zoneGrid;
+		if ((grid == null) || (grid.getZoneCount() != _zones.size()))
+		{
+			grid = new ZoneGrid((_tileX - L2World.OFFSET_X) << L2World.SHIFT_BY, (_tileY - L2World.OFFSET_Y) << L2World.SHIFT_BY, L2World.SHIFT_BY, Config.ZONE_GRID_CELL_SIZE, _zones.toArray(new L2ZoneType[0]));
+			_zoneGrid = grid;
+		}
+		return grid;
+	}
+	
+	/**
+	 * @param create if {@code true} the grid is created if this region doesn't have one yet
+	 * @return the character grid of this region, {@code null} if disabled or not created
+	 */
+	public CharacterGrid getCharacterGrid(boolean create)
+	{
+		CharacterGrid grid = _characterGrid;
+		if ((grid == null) && create && L2World.getInstance().isCharacterGridEnabled())
+		{
+			synchronized (this)
+			{
+				grid = _characterGrid;
+				if (grid == null)
+				{
+					grid = new CharacterGrid(L2World.SHIFT_BY, L2World.getInstance().getCharacterGridShift());
+					_characterGrid = grid;
+				}
+			}
+		}
+		return grid;
 	}
 	
 	public void revalidateZones(L2Character character)
@@ -102,6 +154,13 @@ public final class L2WorldRegion
 			return;
 		}
 		
+		final ZoneGrid grid = getZoneGrid();
+		if (grid != null)
+		{
+			grid.revalidateZones(character);
+			return;
+		}
+		
 		for (L2ZoneType z : getZones())
 		{
 			if (z != null)
@@ -418,6 +477,11 @@ public final class L2WorldRegion
 		
 		_visibleObjects.put(object.getObjectId(), object);
 		
+		if (object.isCharacter() && L2World.getInstance().isCharacterGridEnabled())
+		{
+			L2World.getInstance().addToCharacterGrid((L2Character) object);
+		}
+		
 		if (object instanceof L2Playable)
 		{
 			_allPlayable.put(object.getObjectId(), (L2Playable) object);
@@ -446,6 +510,11 @@ public final class L2WorldRegion
 		
 		_visibleObjects.remove(object.getObjectId());
 		
+		if (object.isCharacter() && L2World.getInstance().isCharacterGridEnabled())
+		{
+			L2World.getInstance().removeFromCharacterGrid((L2Character) object);
+		}
+		
 		if (object instanceof L2Playable)
 		{
 			_allPlayable.remove(object.getObjectId());
@@ -470,12 +539,12 @@ public final class L2WorldRegion
 		return _surroundingRegions;
 	}
 	
-	public Map<Integer, L2Playable> getVisiblePlayable()
+	public ConcurrentIntObjectMap<L2Playable> getVisiblePlayable()
 	{
 		return _allPlayable;
 	}
 	
-	public Map<Integer, L2Object> getVisibleObjects()
+	public ConcurrentIntObjectMap<L2Object> getVisibleObjects()
 	{
 		return _visibleObjects;
 	}
@@ -23,15 +23,15 @@ import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_ATTACK;
 import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_FOLLOW;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -63,6 +63,7 @@ import com.l2jserver.gameserver.instancemanager.TerritoryWarManager;
 import com.l2jserver.gameserver.instancemanager.TownManager;
 import com.l2jserver.gameserver.model.ChanceSkillList;
 import com.l2jserver.gameserver.model.CharEffectList;
+import com.l2jserver.gameserver.model.CharacterGrid;
 import com.l2jserver.gameserver.model.L2AccessLevel;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2Party;
@@ -144,6 +145,7 @@ import com.l2jserver.gameserver.network.serverpackets.MagicSkillCanceld;
 import com.l2jserver.gameserver.network.serverpackets.MagicSkillLaunched;
 import com.l2jserver.gameserver.network.serverpackets.MagicSkillUse;
 import com.l2jserver.gameserver.network.serverpackets.MoveToLocation;
+import com.l2jserver.gameserver.network.serverpackets.PreEncodedPacket;
 import com.l2jserver.gameserver.network.serverpackets.Revive;
 import com.l2jserver.gameserver.network.serverpackets.ServerObjectInfo;
 import com.l2jserver.gameserver.network.serverpackets.SetupGauge;
@@ -153,8 +155,9 @@ import com.l2jserver.gameserver.network.serverpackets.StopMove;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.TeleportToLocation;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
-import com.l2jserver.gameserver.pathfinding.PathFinding;
+import com.l2jserver.gameserver.pathfinding.PathFindingService;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.taskmanager.StatusUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 import com.l2jserver.util.Rnd;
 
@@ -243,6 +246,8 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	private volatile Map<Integer, OptionsSkillHolder> _triggerSkills;
 	
 	private volatile Map<Integer, InvulSkillHolder> _invulAgainst;
+	/** Character grid cell this character is in, {@code null} if it's not in the grids. */
+	private volatile CharacterGrid.Cell _characterGridCell;
 	/** Creatures effect list. */
 	private final CharEffectList _effectList = new CharEffectList(this);
 	/** The character that summons this character. */
@@ -261,6 +266,10 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	
 	/** Movement data of this L2Character */
 	protected MoveData _move;
+	/** Move waiting for its asynchronous path, see {@link PathFindingService}. */
+	private volatile PendingMove _pendingMove;
+	/** Move whose asynchronous path is being applied by {@link #moveToLocation(int, int, int, int)}. */
+	private PendingMove _readyMove;
 	
 	/** This creature's target. */
 	private L2Object _target;
@@ -286,6 +295,23 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		return _effectList;
 	}
 	
+	/**
+	 * @return the character grid cell this character is in, {@code null} if it's not in the grids
+	 */
+	public final CharacterGrid.Cell getCharacterGridCell()
+	{
+		return _characterGridCell;
+	}
+	
+	/**
+	 * Only used by {@link L2World} to keep the character grids up to date.
+	 * @param cell the new character grid cell of this character
+	 */
+	public final void setCharacterGridCell(CharacterGrid.Cell cell)
+	{
+		_characterGridCell = cell;
+	}
+	
 	/**
 	 * Verify if this character is under debug.
 	 * @return {@code true} if this character is under debug, {@code false} otherwise
@@ -583,12 +609,13 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	public void broadcastPacket(L2GameServerPacket mov)
 	{
 		mov.setInvisible(isInvisible());
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
 		{
 			if (player != null)
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 			}
 		}
 	}
@@ -604,12 +631,13 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	public void broadcastPacket(L2GameServerPacket mov, int radiusInKnownlist)
 	{
 		mov.setInvisible(isInvisible());
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
 		{
 			if ((player != null) && isInsideRadius(player, radiusInKnownlist, false, false))
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 			}
 		}
 	}
@@ -660,7 +688,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 */
 	public void broadcastStatusUpdate()
 	{
-		if (getStatus().getStatusListener().isEmpty() || !needHpUpdate())
+		if (getStatus().getStatusListener().isEmpty() || StatusUpdateTaskManager.getInstance().defer(this, StatusUpdateTaskManager.STATUS_UPDATE) || !needHpUpdate())
 		{
 			return;
 		}
@@ -3174,6 +3202,10 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	protected final void setTemplate(L2CharTemplate template)
 	{
 		_template = template;
+		if (_stat != null)
+		{
+			_stat.invalidateStatCache();
+		}
 	}
 	
 	/**
@@ -3653,6 +3685,70 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		public int geoPathGty;
 	}
 	
+	/**
+	 * A move waiting for its asynchronous path, run again with the computed path once it is available.<br>
+	 * It is dropped if the character stopped or started another move meanwhile.
+	 */
+	private final class PendingMove implements Consumer<List<AbstractNodeLoc>>
+	{
+		private final int _x;
+		private final int _y;
+		private final int _z;
+		private final int _offset;
+		private List<AbstractNodeLoc> _path;
+		
+		public PendingMove(int x, int y, int z, int offset)
+		{
+			_x = x;
+			_y = y;
+			_z = z;
+			_offset = offset;
+		}
+		
+		@Override
+		public void accept(List<AbstractNodeLoc> path)
+		{
+			if ((_pendingMove != this) || isDead())
+			{
+				return;
+			}
+			_pendingMove = null;
+			_path = path;
+			
+			final MoveData move = _move;
+			_readyMove = this;
+			try
+			{
+				moveToLocation(_x, _y, _z, _offset);
+			}
+			finally
+			{
+				_readyMove = null;
+			}
+			if ((_move != move) && isMoving())
+			{
+				broadcastPacket(new MoveToLocation(L2Character.this));
+			}
+		}
+		
+		/**
+		 * The character kept moving while the path was computed, so the path is only used if its first node can still be reached.
+		 * @param x the current X
+		 * @param y the current Y
+		 * @param z the current Z
+		 * @return {@code true} if the computed path can be used from the given location
+		 */
+		public boolean canUsePath(int x, int y, int z)
+		{
+			if ((_path == null) || _path.isEmpty())
+			{
+				return true;
+			}
+			final AbstractNodeLoc first = _path.get(0);
+			return GeoData.getInstance().canMove(x, y, z, first.getX(), first.getY(), first.getZ(), getInstanceId());
+		}
+	}
+	
 	/**
 	 * Add a Func to the Calculator set of the L2Character.<br>
 	 * <b><u>Concept</u>:</b> A L2Character owns a table of Calculators called <b>_calculators</b>.<br>
@@ -3701,6 +3797,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Add the Func to the calculator corresponding to the state
 			_calculators[stat].addFunc(f);
+			getStat().invalidateStatCache();
 		}
 	}
 	
@@ -3774,6 +3871,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Remove the Func object from the Calculator
 			_calculators[stat].removeFunc(f);
+			getStat().invalidateStatCache();
 			
 			if (_calculators[stat].size() == 0)
 			{
@@ -3903,6 +4001,11 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 				}
 			}
 			
+			if ((modifiedStats != null) && !modifiedStats.isEmpty())
+			{
+				getStat().invalidateStatCache();
+			}
+			
 			broadcastModifiedStats(modifiedStats);
 		}
 	}
@@ -4299,6 +4402,11 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		}
 		revalidateZone(false);
 		
+		if (Config.INCREMENTAL_KNOWNLIST)
+		{
+			getKnownList().onMove();
+		}
+		
 		// Set the timer of last position update to now
 		m._moveTimestamp = gameTicks;
 		
@@ -4354,6 +4462,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	{
 		// Delete movement data of the L2Character
 		_move = null;
+		_pendingMove = null;
 		
 		// if (getAI() != null)
 		// getAI().setIntention(CtrlIntention.AI_INTENTION_IDLE);
@@ -4474,6 +4583,9 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			return;
 		}
 		
+		// Kept for a move waiting for its asynchronous path
+		final int originalOffset = offset;
+		
 		// Get current position of the L2Character
 		final int curX = super.getX();
 		final int curY = super.getY();
@@ -4638,7 +4750,24 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 				// Overrides previous movement check
 				if ((isPlayable() && !isInVehicle) || isMinion() || isInCombat())
 				{
-					m.geoPath = PathFinding.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId(), isPlayable());
+					final PendingMove readyMove = _readyMove;
+					_readyMove = null;
+					if (readyMove != null)
+					{
+						// Use the computed path instead of asking again from the new position, which could queue the move forever.
+						m.geoPath = readyMove.canUsePath(curX, curY, curZ) ? readyMove._path : PathFindingService.getInstance().findPath(this, curX, curY, curZ, originalX, originalY, originalZ, null);
+					}
+					else
+					{
+						final PendingMove pendingMove = (Config.PATHFIND_ASYNC && !isPlayable()) ? new PendingMove(originalX, originalY, originalZ, originalOffset) : null;
+						_pendingMove = pendingMove;
+						m.geoPath = PathFindingService.getInstance().findPath(this, curX, curY, curZ, originalX, originalY, originalZ, pendingMove);
+					}
+					if (m.geoPath == PathFindingService.PENDING)
+					{
+						// Keep the current move until the path is computed.
+						return;
+					}
 					if ((m.geoPath == null) || (m.geoPath.size() < 2)) // No path found
 					{
 						// * Even though there's no path found (remember geonodes aren't perfect),
@@ -4736,6 +4865,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		
 		// Set the L2Character _move object to MoveData object
 		_move = m;
+		_pendingMove = null;
 		
 		// Add the L2Character to movingObjects of the GameTimeController
 		// The GameTimeController manage objects movement
@@ -7149,22 +7279,21 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	}
 	
 	@Override
-	public Queue<AbstractEventListener> getListeners(EventType type)
+	public AbstractEventListener[] getListenersArray(EventType type)
 	{
-		final Queue<AbstractEventListener> objectListenres = super.getListeners(type);
-		final Queue<AbstractEventListener> templateListeners = getTemplate().getListeners(type);
-		if (objectListenres.isEmpty())
+		final AbstractEventListener[] objectListenres = super.getListenersArray(type);
+		final AbstractEventListener[] templateListeners = getTemplate().getListenersArray(type);
+		if (objectListenres.length == 0)
 		{
 			return templateListeners;
 		}
-		else if (templateListeners.isEmpty())
+		else if (templateListeners.length == 0)
 		{
 			return objectListenres;
 		}
 		
-		final Queue<AbstractEventListener> both = new LinkedBlockingDeque<>(objectListenres.size() + templateListeners.size());
-		both.addAll(objectListenres);
-		both.addAll(templateListeners);
+		final AbstractEventListener[] both = Arrays.copyOf(objectListenres, objectListenres.length + templateListeners.length);
+		System.arraycopy(templateListeners, 0, both, objectListenres.length, templateListeners.length);
 		return both;
 	}
 	
@@ -68,6 +68,7 @@ import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.TeleportToLocation;
 import com.l2jserver.gameserver.taskmanager.DecayTaskManager;
+import com.l2jserver.gameserver.taskmanager.StatusUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 import com.l2jserver.util.Rnd;
 
@@ -383,6 +384,11 @@ public abstract class L2Summon extends L2Playable
 	@Override
 	public void broadcastStatusUpdate()
 	{
+		if (StatusUpdateTaskManager.getInstance().defer(this, StatusUpdateTaskManager.STATUS_UPDATE))
+		{
+			return;
+		}
+		
 		super.broadcastStatusUpdate();
 		updateAndBroadcastStatus(1);
 	}
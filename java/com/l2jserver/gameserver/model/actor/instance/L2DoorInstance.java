@@ -58,6 +58,7 @@ import com.l2jserver.gameserver.network.serverpackets.DoorStatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.OnEventTrigger;
 import com.l2jserver.gameserver.network.serverpackets.StaticObject;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.pathfinding.PathFindingService;
 import com.l2jserver.util.Rnd;
 
 public class L2DoorInstance extends L2Character
@@ -280,6 +281,8 @@ public class L2DoorInstance extends L2Character
 	public void setOpen(boolean open)
 	{
 		_open = open;
+		// Cached paths may go through this door, or avoid it.
+		PathFindingService.getInstance().clearCache();
 		if (getChildId() > 0)
 		{
 			L2DoorInstance sibling = getSiblingDoor(getChildId());
@@ -32,7 +32,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -303,6 +302,7 @@ import com.l2jserver.gameserver.network.serverpackets.PetInventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.PlaySound;
 import com.l2jserver.gameserver.network.serverpackets.PledgeShowMemberListDelete;
 import com.l2jserver.gameserver.network.serverpackets.PledgeShowMemberListUpdate;
+import com.l2jserver.gameserver.network.serverpackets.PreEncodedPacket;
 import com.l2jserver.gameserver.network.serverpackets.PrivateStoreListBuy;
 import com.l2jserver.gameserver.network.serverpackets.PrivateStoreListSell;
 import com.l2jserver.gameserver.network.serverpackets.PrivateStoreManageListBuy;
@@ -331,6 +331,7 @@ import com.l2jserver.gameserver.network.serverpackets.TradeStart;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
 import com.l2jserver.gameserver.network.serverpackets.ValidateLocation;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.taskmanager.StatusUpdateTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.gameserver.util.FloodProtectors;
 import com.l2jserver.gameserver.util.Util;
@@ -791,7 +792,10 @@ public final class L2PcInstance extends L2Playable
 	
 	/** Bypass validations */
 	@SuppressWarnings("unchecked")
-	private final LinkedList<String>[] _htmlActionCaches = new LinkedList[HtmlActionScope.values().length];
+	private final Set<String>[] _htmlActionCaches = new Set[HtmlActionScope.values().length];
+	/** Bypass validations of the actions ending with a parameter, without the parameter start char */
+	@SuppressWarnings("unchecked")
+	private final List<String>[] _htmlActionPrefixes = new List[HtmlActionScope.values().length];
 	
 	private Forum _forumMail;
 	private Forum _forumMemo;
@@ -1114,7 +1118,8 @@ public final class L2PcInstance extends L2Playable
 		
 		for (int i = 0; i < _htmlActionCaches.length; ++i)
 		{
-			_htmlActionCaches[i] = new LinkedList<>();
+			_htmlActionCaches[i] = new HashSet<>();
+			_htmlActionPrefixes[i] = new ArrayList<>();
 		}
 		
 		_accountName = accountName;
@@ -1518,7 +1523,7 @@ public final class L2PcInstance extends L2Playable
 		}
 		
 		// Go through the QuestState of the L2PcInstance quests
-		for (AbstractEventListener listener : template.getListeners(EventType.ON_NPC_TALK))
+		for (AbstractEventListener listener : template.getListenersArray(EventType.ON_NPC_TALK))
 		{
 			if (listener.getOwner() instanceof Quest)
 			{
@@ -4285,6 +4290,11 @@ public final class L2PcInstance extends L2Playable
 	@Override
 	public void broadcastStatusUpdate()
 	{
+		if (StatusUpdateTaskManager.getInstance().defer(this, StatusUpdateTaskManager.STATUS_UPDATE))
+		{
+			return;
+		}
+		
 		// TODO We mustn't send these informations to other players
 		// Send the Server->Client packet StatusUpdate with current HP and MP to all L2PcInstance that must be informed of HP/MP updates of this L2PcInstance
 		// super.broadcastStatusUpdate();
@@ -4331,6 +4341,11 @@ public final class L2PcInstance extends L2Playable
 	 */
 	public final void broadcastUserInfo()
 	{
+		if (StatusUpdateTaskManager.getInstance().defer(this, StatusUpdateTaskManager.USER_INFO))
+		{
+			return;
+		}
+		
 		// Send a Server->Client packet UserInfo to this L2PcInstance
 		sendPacket(new UserInfo(this));
 		
@@ -4357,12 +4372,15 @@ public final class L2PcInstance extends L2Playable
 	@Override
 	public final void broadcastPacket(L2GameServerPacket mov)
 	{
+		// Encoded before being queued anywhere, the packet buffer is not shared with the selector thread writing it.
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
+		
+		// Sent to self before being marked invisible, invisible packets are only sent to the players who can see all players.
 		if (!(mov instanceof CharInfo))
 		{
-			sendPacket(mov);
+			sendPacket(packet);
 		}
-		
-		mov.setInvisible(isInvisible());
+		packet.setInvisible(isInvisible());
 		
 		final Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
@@ -4371,7 +4389,7 @@ public final class L2PcInstance extends L2Playable
 			{
 				continue;
 			}
-			player.sendPacket(mov);
+			player.sendPacket(packet);
 			if (mov instanceof CharInfo)
 			{
 				int relation = getRelation(player);
@@ -4391,12 +4409,15 @@ public final class L2PcInstance extends L2Playable
 	@Override
 	public void broadcastPacket(L2GameServerPacket mov, int radiusInKnownlist)
 	{
+		// Encoded before being queued anywhere, the packet buffer is not shared with the selector thread writing it.
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
+		
+		// Sent to self before being marked invisible, invisible packets are only sent to the players who can see all players.
 		if (!(mov instanceof CharInfo))
 		{
-			sendPacket(mov);
+			sendPacket(packet);
 		}
-		
-		mov.setInvisible(isInvisible());
+		packet.setInvisible(isInvisible());
 		
 		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
@@ -4407,7 +4428,7 @@ public final class L2PcInstance extends L2Playable
 			}
 			if (isInsideRadius(player, radiusInKnownlist, false, false))
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 				if (mov instanceof CharInfo)
 				{
 					int relation = getRelation(player);
@@ -4858,6 +4879,7 @@ public final class L2PcInstance extends L2Playable
 		}
 		
 		_transformation = transformation;
+		getStat().invalidateStatCache();
 		getEffectList().stopAllToggles();
 		transformation.onTransform(this);
 		sendSkillList();
@@ -4876,6 +4898,7 @@ public final class L2PcInstance extends L2Playable
 			setQueuedSkill(null, false, false);
 			_transformation.onUntransform(this);
 			_transformation = null;
+			getStat().invalidateStatCache();
 			getEffectList().stopSkillEffects(false, AbnormalType.TRANSFORM);
 			sendSkillList();
 			sendPacket(new SkillCoolTime(this));
@@ -7594,10 +7617,9 @@ public final class L2PcInstance extends L2Playable
 				statement.setInt(4, subClass.getClassId());
 				statement.setInt(5, getObjectId());
 				statement.setInt(6, subClass.getClassIndex());
-				
-				statement.execute();
-				statement.clearParameters();
+				statement.addBatch();
 			}
+			statement.executeBatch();
 		}
 		catch (Exception e)
 		{
@@ -7673,7 +7695,7 @@ public final class L2PcInstance extends L2Playable
 					statement.setInt(7, 0); // Store type 0, active buffs/debuffs.
 					statement.setInt(8, getClassIndex());
 					statement.setInt(9, ++buff_index);
-					statement.execute();
+					statement.addBatch();
 				}
 			}
 			
@@ -7703,10 +7725,11 @@ public final class L2PcInstance extends L2Playable
 						statement.setInt(7, 1); // Restore type 1, skill reuse.
 						statement.setInt(8, getClassIndex());
 						statement.setInt(9, ++buff_index);
-						statement.execute();
+						statement.addBatch();
 					}
 				}
 			}
+			statement.executeBatch();
 		}
 		catch (Exception e)
 		{
@@ -7735,9 +7758,10 @@ public final class L2PcInstance extends L2Playable
 						ps2.setInt(3, ts.getItemObjectId());
 						ps2.setLong(4, ts.getReuse());
 						ps2.setDouble(5, ts.getStamp());
-						ps2.execute();
+						ps2.addBatch();
 					}
 				}
+				ps2.executeBatch();
 			}
 		}
 		catch (Exception e)
@@ -8313,6 +8337,8 @@ public final class L2PcInstance extends L2Playable
 			_hennaWIT += ((_hennaWIT + h.getStatWIT()) > 5) ? 5 - _hennaWIT : h.getStatWIT();
 			_hennaDEX += ((_hennaDEX + h.getStatDEX()) > 5) ? 5 - _hennaDEX : h.getStatDEX();
 		}
+		
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -9903,6 +9929,8 @@ public final class L2PcInstance extends L2Playable
 	public void setIsInOlympiadMode(boolean b)
 	{
 		_inOlympiadMode = b;
+		// The enchant bonuses of the items are limited in olympiad mode.
+		getStat().invalidateStatCache();
 	}
 	
 	public void setIsOlympiadStart(boolean b)
@@ -11099,12 +11127,20 @@ public final class L2PcInstance extends L2Playable
 	
 	public void addHtmlAction(HtmlActionScope scope, String action)
 	{
-		_htmlActionCaches[scope.ordinal()].add(action);
+		if (action.charAt(action.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR)
+		{
+			_htmlActionPrefixes[scope.ordinal()].add(action.substring(0, action.length() - 1).trim());
+		}
+		else
+		{
+			_htmlActionCaches[scope.ordinal()].add(action);
+		}
 	}
 	
 	public void clearHtmlActions(HtmlActionScope scope)
 	{
 		_htmlActionCaches[scope.ordinal()].clear();
+		_htmlActionPrefixes[scope.ordinal()].clear();
 	}
 	
 	public void setHtmlActionOriginObjectId(HtmlActionScope scope, int npcObjId)
@@ -11122,18 +11158,16 @@ public final class L2PcInstance extends L2Playable
 		return _lastHtmlActionOriginObjId;
 	}
 	
-	private boolean validateHtmlAction(Iterable<String> actionIter, String action)
+	private boolean validateHtmlAction(int scope, String action)
 	{
-		for (String cachedAction : actionIter)
+		if (_htmlActionCaches[scope].contains(action))
 		{
-			if (cachedAction.charAt(cachedAction.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR)
-			{
-				if (action.startsWith(cachedAction.substring(0, cachedAction.length() - 1).trim()))
-				{
-					return true;
-				}
-			}
-			else if (cachedAction.equals(action))
+			return true;
+		}
+		
+		for (String prefix : _htmlActionPrefixes[scope])
+		{
+			if (action.startsWith(prefix))
 			{
 				return true;
 			}
@@ -11155,7 +11189,7 @@ public final class L2PcInstance extends L2Playable
 	{
 		for (int i = 0; i < _htmlActionCaches.length; ++i)
 		{
-			if (validateHtmlAction(_htmlActionCaches[i], action))
+			if (validateHtmlAction(i, action))
 			{
 				return _lastHtmlActionOriginObjId = _htmlActionOriginObjectIds[i];
 			}
@@ -24,19 +24,23 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import javolution.util.FastList;
 
 import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Summon;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.util.Util;
+import com.l2jserver.util.ConcurrentIntObjectMap;
 
 public class CharKnownList extends ObjectKnownList
 {
-	private Map<Integer, L2PcInstance> _knownPlayers;
-	private Map<Integer, L2Summon> _knownSummons;
+	private ConcurrentIntObjectMap<L2PcInstance> _knownPlayers;
+	private ConcurrentIntObjectMap<L2Summon> _knownSummons;
 	private Map<Integer, Integer> _knownRelations;
 	
 	public CharKnownList(L2Character activeChar)
@@ -240,11 +244,50 @@ public class CharKnownList extends ObjectKnownList
 		return result;
 	}
 	
-	public final Map<Integer, L2PcInstance> getKnownPlayers()
+	/**
+	 * Finds a known character within the given radius, same range check as {@link #getKnownCharactersInRadius(long)} without building the list.<br>
+	 * Uses the character grids of the world regions when they are enabled, only the characters around the active char are tested then.
+	 * @param radius the radius
+	 * @param filter returns {@code true} to stop on the given character
+	 * @return the first character accepted by the filter, {@code null} if none
+	 */
+	public L2Character findKnownCharacterInRadius(int radius, Predicate<L2Character> filter)
+	{
+		final L2Character activeChar = getActiveChar();
+		if (L2World.getInstance().isCharacterGridEnabled() && (radius >= 0))
+		{
+			return L2World.getInstance().findCharacterInGrid(activeChar.getX(), activeChar.getY(), radius + activeChar.getTemplate().getCollisionRadius(), character -> (character != activeChar) && Util.checkIfInRange(radius, activeChar, character, true) && knowsObject(character) && filter.test(character));
+		}
+		
+		for (L2Object obj : getKnownObjects().values())
+		{
+			if ((obj instanceof L2Character) && Util.checkIfInRange(radius, activeChar, obj, true) && filter.test((L2Character) obj))
+			{
+				return (L2Character) obj;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Visits the known characters within the given radius, see {@link #findKnownCharacterInRadius(int, Predicate)}.
+	 * @param radius the radius
+	 * @param action the action to run on each character
+	 */
+	public void forEachKnownCharacterInRadius(int radius, Consumer<L2Character> action)
+	{
+		findKnownCharacterInRadius(radius, character ->
+		{
+			action.accept(character);
+			return false;
+		});
+	}
+	
+	public final ConcurrentIntObjectMap<L2PcInstance> getKnownPlayers()
 	{
 		if (_knownPlayers == null)
 		{
-			_knownPlayers = new ConcurrentHashMap<>();
+			_knownPlayers = new ConcurrentIntObjectMap<>();
 		}
 		return _knownPlayers;
 	}
@@ -258,11 +301,11 @@ public class CharKnownList extends ObjectKnownList
 		return _knownRelations;
 	}
 	
-	public final Map<Integer, L2Summon> getKnownSummons()
+	public final ConcurrentIntObjectMap<L2Summon> getKnownSummons()
 	{
 		if (_knownSummons == null)
 		{
-			_knownSummons = new ConcurrentHashMap<>();
+			_knownSummons = new ConcurrentIntObjectMap<>();
 		}
 		return _knownSummons;
 	}
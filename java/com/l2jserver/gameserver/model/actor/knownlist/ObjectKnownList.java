@@ -20,19 +20,24 @@ package com.l2jserver.gameserver.model.actor.knownlist;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
+import com.l2jserver.util.ConcurrentIntObjectMap;
 
 public class ObjectKnownList
 {
 	private final L2Object _activeObject;
-	private Map<Integer, L2Object> _knownObjects;
+	private ConcurrentIntObjectMap<L2Object> _knownObjects;
+	/** Position of the last incremental update, used only in Config.INCREMENTAL_KNOWNLIST */
+	private int _lastUpdateX;
+	private int _lastUpdateY;
+	private int _lastUpdateZ;
 	
 	public ObjectKnownList(L2Object activeObject)
 	{
@@ -159,6 +164,32 @@ public class ObjectKnownList
 		}
 	}
 	
+	/**
+	 * Stores the current position of the active object as the position of the last knownlist update.
+	 */
+	public final void updateLastPosition()
+	{
+		_lastUpdateX = getActiveObject().getX();
+		_lastUpdateY = getActiveObject().getY();
+		_lastUpdateZ = getActiveObject().getZ();
+	}
+	
+	/**
+	 * Used only in Config.INCREMENTAL_KNOWNLIST<br>
+	 * Schedules a knownlist update if the active object moved far enough since the last one.
+	 */
+	public final void onMove()
+	{
+		final double dx = getActiveObject().getX() - _lastUpdateX;
+		final double dy = getActiveObject().getY() - _lastUpdateY;
+		final double dz = getActiveObject().getZ() - _lastUpdateZ;
+		if (((dx * dx) + (dy * dy) + (dz * dz)) >= ((double) Config.INCREMENTAL_KNOWNLIST_MOVE_DISTANCE * Config.INCREMENTAL_KNOWNLIST_MOVE_DISTANCE))
+		{
+			updateLastPosition();
+			KnownListUpdateTaskManager.getInstance().addPendingObject(getActiveObject());
+		}
+	}
+	
 	/**
 	 * Remove invisible and too far L2Object from _knowObject and if necessary from _knownPlayers of the L2Character
 	 * @param fullCheck
@@ -210,11 +241,11 @@ public class ObjectKnownList
 	/**
 	 * @return the _knownObjects containing all L2Object known by the L2Character.
 	 */
-	public final Map<Integer, L2Object> getKnownObjects()
+	public final ConcurrentIntObjectMap<L2Object> getKnownObjects()
 	{
 		if (_knownObjects == null)
 		{
-			_knownObjects = new ConcurrentHashMap<>();
+			_knownObjects = new ConcurrentIntObjectMap<>();
 		}
 		return _knownObjects;
 	}
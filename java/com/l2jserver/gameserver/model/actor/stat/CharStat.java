@@ -47,6 +47,12 @@ public class CharStat
 	private final int[] _traitsInvul = new int[TraitType.values().length];
 	/** Creature's maximum buff count. */
 	private int _maxBuffCount = Config.BUFFS_MAX_AMOUNT;
+	/** Cached results of target independent stats, indexed by stat ordinal. */
+	private final StatCacheEntry[] _statCache = new StatCacheEntry[Stats.NUM_STATS];
+	/** Incremented each time the cached stats become invalid. */
+	private volatile int _statCacheVersion = 0;
+	/** Stat calculation running on the current thread, tells whether the stats it read so far could be cached. */
+	private static final ThreadLocal<StatCalculation> CURRENT_CALCULATION = ThreadLocal.withInitial(StatCalculation::new);
 	
 	public CharStat(L2Character activeChar)
 	{
@@ -101,6 +107,23 @@ public class CharStat
 			}
 		}
 		
+		// Target independent stats are computed once until the character changes
+		final boolean cacheable = (target == null) && (skill == null) && c.isCacheable();
+		final int version = _statCacheVersion;
+		if (cacheable)
+		{
+			final StatCacheEntry entry = _statCache[id];
+			if ((entry != null) && (entry._version == version) && (entry._level == getLevel()) && (entry._init == init))
+			{
+				return entry._value;
+			}
+		}
+		
+		// The funcs of derived stats read other stats (DEX for the attack speed, CON for the max HP...), the result is only cached if all of them could be cached too.
+		final StatCalculation calculation = CURRENT_CALCULATION.get();
+		final boolean outerCacheable = calculation._cacheable;
+		calculation._cacheable = cacheable;
+		
 		// Create and init an Env object to pass parameters to the Calculator
 		final Env env = new Env();
 		env.setCharacter(_activeChar);
@@ -109,7 +132,16 @@ public class CharStat
 		env.setValue(init);
 		
 		// Launch the calculation
-		c.calc(env);
+		final boolean storable;
+		try
+		{
+			c.calc(env);
+		}
+		finally
+		{
+			storable = calculation._cacheable;
+			calculation._cacheable = outerCacheable && storable;
+		}
 		
 		// avoid some troubles with negative stats (some stats should never be negative)
 		if (env.getValue() <= 0)
@@ -135,9 +167,23 @@ public class CharStat
 					env.setValue(1);
 			}
 		}
+		
+		if (storable)
+		{
+			_statCache[id] = new StatCacheEntry(version, getLevel(), init, env.getValue());
+		}
 		return env.getValue();
 	}
 	
+	/**
+	 * Invalidates all the cached stats of the character.<br>
+	 * Must be called when something used by the stat functions changes without changing the calculators (equipment, enchantment, hennas, transformation, template...).
+	 */
+	public final void invalidateStatCache()
+	{
+		_statCacheVersion++;
+	}
+	
 	/**
 	 * @return the Accuracy (base+modifier) of the L2Character in function of the Weapon Expertise Penalty.
 	 */
@@ -819,4 +865,25 @@ public class CharStat
 	{
 		_maxBuffCount = buffCount;
 	}
+	
+	private static final class StatCalculation
+	{
+		protected boolean _cacheable = true;
+	}
+	
+	private static final class StatCacheEntry
+	{
+		protected final int _version;
+		protected final int _level;
+		protected final double _init;
+		protected final double _value;
+		
+		protected StatCacheEntry(int version, int level, double init, double value)
+		{
+			_version = version;
+			_level = level;
+			_init = init;
+			_value = value;
+		}
+	}
 }
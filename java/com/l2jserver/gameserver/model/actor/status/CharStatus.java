@@ -31,6 +31,7 @@ import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.stat.CharStat;
 import com.l2jserver.gameserver.model.stats.Formulas;
+import com.l2jserver.gameserver.taskmanager.RegenTaskManager;
 import com.l2jserver.util.Rnd;
 
 public class CharStatus
@@ -46,6 +47,8 @@ public class CharStatus
 	private Set<L2Character> _StatusListener;
 	
 	private Future<?> _regTask;
+	/** The RegenTaskManager slot this character regenerates in, used with Config.SHARED_REGENERATION. */
+	private Set<CharStatus> _regenSlot;
 	
 	protected byte _flagsRegenActive = 0;
 	
@@ -199,7 +202,7 @@ public class CharStatus
 	 */
 	public final synchronized void startHpMpRegeneration()
 	{
-		if ((_regTask == null) && !getActiveChar().isDead())
+		if ((_regTask == null) && (_regenSlot == null) && !getActiveChar().isDead())
 		{
 			if (Config.DEBUG)
 			{
@@ -209,8 +212,15 @@ public class CharStatus
 			// Get the Regeneration period
 			int period = Formulas.getRegeneratePeriod(getActiveChar());
 			
-			// Create the HP/MP/CP Regeneration task
-			_regTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new RegenTask(), period, period);
+			if (Config.SHARED_REGENERATION)
+			{
+				_regenSlot = RegenTaskManager.getInstance().add(this, period);
+			}
+			else
+			{
+				// Create the HP/MP/CP Regeneration task
+				_regTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new RegenTask(), period, period);
+			}
 		}
 	}
 	
@@ -224,7 +234,7 @@ public class CharStatus
 	 */
 	public final synchronized void stopHpMpRegeneration()
 	{
-		if (_regTask != null)
+		if ((_regTask != null) || (_regenSlot != null))
 		{
 			if (Config.DEBUG)
 			{
@@ -232,8 +242,17 @@ public class CharStatus
 			}
 			
 			// Stop the HP/MP/CP Regeneration task
-			_regTask.cancel(false);
-			_regTask = null;
+			if (_regTask != null)
+			{
+				_regTask.cancel(false);
+				_regTask = null;
+			}
+			
+			if (_regenSlot != null)
+			{
+				_regenSlot.remove(this);
+				_regenSlot = null;
+			}
 			
 			// Set the RegenActive flag to false
 			_flagsRegenActive = 0;
@@ -390,6 +409,8 @@ public class CharStatus
 	protected void doRegeneration()
 	{
 		final CharStat charstat = getActiveChar().getStat();
+		final int oldHp = (int) getCurrentHp();
+		final int oldMp = (int) getCurrentMp();
 		
 		// Modify the current HP of the L2Character and broadcast Server->Client packet StatusUpdate
 		if (getCurrentHp() < charstat.getMaxRecoverableHp())
@@ -414,10 +435,36 @@ public class CharStatus
 		}
 		else
 		{
-			getActiveChar().broadcastStatusUpdate(); // send the StatusUpdate packet
+			broadcastRegenStatusUpdate((oldHp != (int) getCurrentHp()) || (oldMp != (int) getCurrentMp()));
 		}
 	}
 	
+	/**
+	 * Sends the StatusUpdate packet of a regeneration.<br>
+	 * With the shared regeneration scheduler, the packet is not sent when the values displayed by the client did not change.
+	 * @param changed {@code true} if a displayed value changed
+	 */
+	protected final void broadcastRegenStatusUpdate(boolean changed)
+	{
+		if (Config.SHARED_REGENERATION)
+		{
+			RegenTaskManager.getInstance().countStatusUpdate(changed);
+			if (!changed)
+			{
+				return;
+			}
+		}
+		getActiveChar().broadcastStatusUpdate(); // send the StatusUpdate packet
+	}
+	
+	/**
+	 * Runs a HP/MP/CP regeneration, called by the regeneration task or the {@link RegenTaskManager}.
+	 */
+	public final void regenerate()
+	{
+		doRegeneration();
+	}
+	
 	/** Task of HP/MP regeneration */
 	class RegenTask implements Runnable
 	{
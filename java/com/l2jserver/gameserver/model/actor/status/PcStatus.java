@@ -404,6 +404,9 @@ public class PcStatus extends PlayableStatus
 	protected void doRegeneration()
 	{
 		final PcStat charstat = getActiveChar().getStat();
+		final int oldCp = (int) getCurrentCp();
+		final int oldHp = (int) getCurrentHp();
+		final int oldMp = (int) getCurrentMp();
 		
 		// Modify the current CP of the L2Character and broadcast Server->Client packet StatusUpdate
 		if (getCurrentCp() < charstat.getMaxRecoverableCp())
@@ -423,7 +426,7 @@ public class PcStatus extends PlayableStatus
 			setCurrentMp(getCurrentMp() + Formulas.calcMpRegen(getActiveChar()), false);
 		}
 		
-		getActiveChar().broadcastStatusUpdate(); // send the StatusUpdate packet
+		broadcastRegenStatusUpdate((oldCp != (int) getCurrentCp()) || (oldHp != (int) getCurrentHp()) || (oldMp != (int) getCurrentMp()));
 	}
 	
 	@Override
@@ -31,6 +31,10 @@ public class L2DoorTemplate extends L2CharTemplate implements IIdentifiable
 	private final int _doorId;
 	private final int _nodeX[];
 	private final int _nodeY[];
+	private final int _nodeMinX;
+	private final int _nodeMaxX;
+	private final int _nodeMinY;
+	private final int _nodeMaxY;
 	private final int _nodeZ;
 	private final int _height;
 	private final int _posX;
@@ -80,6 +84,10 @@ public class L2DoorTemplate extends L2CharTemplate implements IIdentifiable
 			_nodeX[i] = Integer.parseInt(split[0]);
 			_nodeY[i] = Integer.parseInt(split[1]);
 		}
+		_nodeMinX = Math.min(Math.min(_nodeX[0], _nodeX[1]), Math.min(_nodeX[2], _nodeX[3]));
+		_nodeMaxX = Math.max(Math.max(_nodeX[0], _nodeX[1]), Math.max(_nodeX[2], _nodeX[3]));
+		_nodeMinY = Math.min(Math.min(_nodeY[0], _nodeY[1]), Math.min(_nodeY[2], _nodeY[3]));
+		_nodeMaxY = Math.max(Math.max(_nodeY[0], _nodeY[1]), Math.max(_nodeY[2], _nodeY[3]));
 		
 		// optional
 		_emmiter = set.getInt("emitter_id", 0);
@@ -136,6 +144,38 @@ public class L2DoorTemplate extends L2CharTemplate implements IIdentifiable
 		return _nodeY;
 	}
 	
+	/**
+	 * @return the lowest x of the door nodes
+	 */
+	public int getNodeMinX()
+	{
+		return _nodeMinX;
+	}
+	
+	/**
+	 * @return the highest x of the door nodes
+	 */
+	public int getNodeMaxX()
+	{
+		return _nodeMaxX;
+	}
+	
+	/**
+	 * @return the lowest y of the door nodes
+	 */
+	public int getNodeMinY()
+	{
+		return _nodeMinY;
+	}
+	
+	/**
+	 * @return the highest y of the door nodes
+	 */
+	public int getNodeMaxY()
+	{
+		return _nodeMaxY;
+	}
+	
 	public int getNodeZ()
 	{
 		return _nodeZ;
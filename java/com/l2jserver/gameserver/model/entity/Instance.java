@@ -46,6 +46,7 @@ import com.l2jserver.gameserver.datatables.DoorTable;
 import com.l2jserver.gameserver.datatables.NpcData;
 import com.l2jserver.gameserver.idfactory.IdFactory;
 import com.l2jserver.gameserver.instancemanager.InstanceManager;
+import com.l2jserver.gameserver.model.DoorGrid;
 import com.l2jserver.gameserver.model.L2Spawn;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.L2WorldRegion;
@@ -81,6 +82,8 @@ public final class Instance
 	private final List<Integer> _players = new FastList<Integer>().shared();
 	private final List<L2Npc> _npcs = new FastList<L2Npc>().shared();
 	private final Map<Integer, L2DoorInstance> _doors = new ConcurrentHashMap<>();
+	/** Grid of the instance doors, {@code null} when Config.DOOR_GRID_CELL_SIZE is 0. */
+	private final DoorGrid _doorGrid = Config.DOOR_GRID_CELL_SIZE > 0 ? new DoorGrid(Config.DOOR_GRID_CELL_SIZE) : null;
 	private final Map<String, List<L2Spawn>> _manualSpawn = new HashMap<>();
 	private Location _spawnLoc = null;
 	private boolean _allowSummon = true;
@@ -270,6 +273,11 @@ public final class Instance
 		newdoor.setCurrentHp(newdoor.getMaxHp());
 		newdoor.spawnMe(newdoor.getTemplate().getX(), newdoor.getTemplate().getY(), newdoor.getTemplate().getZ());
 		_doors.put(doorId, newdoor);
+		
+		if (_doorGrid != null)
+		{
+			_doorGrid.add(newdoor);
+		}
 	}
 	
 	public List<Integer> getPlayers()
@@ -292,6 +300,14 @@ public final class Instance
 		return _doors.get(id);
 	}
 	
+	/**
+	 * @return the grid of the instance doors, {@code null} if the door grid is disabled
+	 */
+	public DoorGrid getDoorGrid()
+	{
+		return _doorGrid;
+	}
+	
 	public long getInstanceEndTime()
 	{
 		return _instanceEndTime;
@@ -391,6 +407,11 @@ public final class Instance
 			}
 		}
 		_doors.clear();
+		
+		if (_doorGrid != null)
+		{
+			_doorGrid.clear();
+		}
 	}
 	
 	/**
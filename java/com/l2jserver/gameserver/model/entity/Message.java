@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.concurrent.ScheduledFuture;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.datatables.CharNameTable;
 import com.l2jserver.gameserver.idfactory.IdFactory;
@@ -50,7 +51,9 @@ public class Message
 	private final long _expiration;
 	private String _senderName = null;
 	private String _receiverName = null;
-	private final String _subject, _content;
+	private final String _subject;
+	/** {@code null} for the stored messages with {@link Config#MAIL_LAZY_CONTENT}, the text is read from the database when the message is opened. */
+	private final String _content;
 	private boolean _unread, _returned;
 	private int _sendBySystem;
 	private boolean _deletedBySender;
@@ -77,7 +80,7 @@ public class Message
 		_senderId = rset.getInt("senderId");
 		_receiverId = rset.getInt("receiverId");
 		_subject = rset.getString("subject");
-		_content = rset.getString("content");
+		_content = Config.MAIL_LAZY_CONTENT ? null : rset.getString("content");
 		_expiration = rset.getLong("expiration");
 		_reqAdena = rset.getLong("reqAdena");
 		_hasAttachments = rset.getBoolean("hasAttachments");
@@ -222,8 +225,16 @@ public class Message
 		return _subject;
 	}
 	
+	/**
+	 * With {@link Config#MAIL_LAZY_CONTENT} the text of a stored message is read from the database, so this must not be called while writing a packet.
+	 * @return the text of the message
+	 */
 	public final String getContent()
 	{
+		if ((_content == null) && Config.MAIL_LAZY_CONTENT)
+		{
+			return MailManager.getInstance().loadContentFromDb(_messageId);
+		}
 		return _content;
 	}
 	
@@ -18,8 +18,10 @@
  */
 package com.l2jserver.gameserver.model.events;
 
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +37,11 @@ public final class EventDispatcher extends ListenersContainer
 {
 	private static final Logger _log = Logger.getLogger(EventDispatcher.class.getName());
 	
+	/** Dispatch statistics, indexed by {@link EventType#ordinal()}. */
+	private final AtomicLongArray _dispatchCount = new AtomicLongArray(EventType.values().length);
+	private final AtomicLongArray _dispatchTime = new AtomicLongArray(EventType.values().length);
+	private final AtomicLongArray _dispatchMaxTime = new AtomicLongArray(EventType.values().length);
+	
 	protected EventDispatcher()
 	{
 	}
@@ -167,6 +174,7 @@ public final class EventDispatcher extends ListenersContainer
 				throw new NullPointerException("Event cannot be null!");
 			}
 			
+			final long start = System.nanoTime();
 			T callback = null;
 			if (containers != null)
 			{
@@ -175,7 +183,7 @@ public final class EventDispatcher extends ListenersContainer
 				{
 					if ((callback == null) || !callback.abort())
 					{
-						callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+						callback = notifyToListeners(container.getListenersArray(event.getType()), event, callbackClass, callback);
 					}
 				}
 			}
@@ -183,9 +191,10 @@ public final class EventDispatcher extends ListenersContainer
 			// Global listener container.
 			if ((callback == null) || !callback.abort())
 			{
-				callback = notifyToListeners(getListeners(event.getType()), event, callbackClass, callback);
+				callback = notifyToListeners(getListenersArray(event.getType()), event, callbackClass, callback);
 			}
 			
+			updateStats(event.getType(), System.nanoTime() - start);
 			return callback;
 		}
 		catch (Exception e)
@@ -209,19 +218,21 @@ public final class EventDispatcher extends ListenersContainer
 			throw new NullPointerException("Event cannot be null!");
 		}
 		
+		final long start = System.nanoTime();
 		T callback = null;
 		// Local listener container first.
 		if (container != null)
 		{
-			callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+			callback = notifyToListeners(container.getListenersArray(event.getType()), event, callbackClass, callback);
 		}
 		
 		// Global listener container.
 		if ((callback == null) || !callback.abort())
 		{
-			callback = notifyToListeners(getListeners(event.getType()), event, callbackClass, callback);
+			callback = notifyToListeners(getListenersArray(event.getType()), event, callbackClass, callback);
 		}
 		
+		updateStats(event.getType(), System.nanoTime() - start);
 		return callback;
 	}
 	
@@ -233,7 +244,7 @@ public final class EventDispatcher extends ListenersContainer
 	 * @param callback
 	 * @return
 	 */
-	private <T extends AbstractEventReturn> T notifyToListeners(Queue<AbstractEventListener> listeners, IBaseEvent event, Class<T> returnBackClass, T callback)
+	private <T extends AbstractEventReturn> T notifyToListeners(AbstractEventListener[] listeners, IBaseEvent event, Class<T> returnBackClass, T callback)
 	{
 		for (AbstractEventListener listener : listeners)
 		{
@@ -262,6 +273,41 @@ public final class EventDispatcher extends ListenersContainer
 		return callback;
 	}
 	
+	private void updateStats(EventType type, long time)
+	{
+		final int index = type.ordinal();
+		_dispatchCount.incrementAndGet(index);
+		_dispatchTime.addAndGet(index, time);
+		long max;
+		while (time > (max = _dispatchMaxTime.get(index)))
+		{
+			if (_dispatchMaxTime.compareAndSet(index, max, time))
+			{
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * @return the dispatch count and listener time of every event type notified so far
+	 */
+	public String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Event Dispatcher:");
+		for (EventType type : EventType.values())
+		{
+			final long count = _dispatchCount.get(type.ordinal());
+			if (count == 0)
+			{
+				continue;
+			}
+			final long time = _dispatchTime.get(type.ordinal());
+			stats.add(" |- " + type + ": dispatched " + count + ", avg " + ((time / count) / 1000) + " us, max " + (_dispatchMaxTime.get(type.ordinal()) / 1000) + " us, global listeners " + getListenersArray(type).length);
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+	
 	public static EventDispatcher getInstance()
 	{
 		return SingletonHolder._instance;
@@ -18,21 +18,25 @@
  */
 package com.l2jserver.gameserver.model.events;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.function.Predicate;
 
 import com.l2jserver.gameserver.model.events.listeners.AbstractEventListener;
 import com.l2jserver.util.EmptyQueue;
 
 /**
+ * Listeners are kept in immutable arrays sorted by priority, a new array is swapped in on each add/remove so notifications iterate without locking or copying.
  * @author UnAfraid
  */
 public class ListenersContainer
 {
-	private volatile Map<EventType, Queue<AbstractEventListener>> _listeners = null;
+	protected static final AbstractEventListener[] EMPTY_LISTENERS = new AbstractEventListener[0];
+	
+	private volatile Map<EventType, AbstractEventListener[]> _listeners = null;
 	
 	/**
 	 * Registers listener for a callback when specified event is executed.
@@ -45,7 +49,17 @@ public class ListenersContainer
 		{
 			throw new NullPointerException("Listener cannot be null!");
 		}
-		getListeners().computeIfAbsent(listener.getType(), k -> new PriorityBlockingQueue<>()).add(listener);
+		
+		final Map<EventType, AbstractEventListener[]> listeners = getListeners();
+		synchronized (listeners)
+		{
+			final AbstractEventListener[] current = listeners.getOrDefault(listener.getType(), EMPTY_LISTENERS);
+			final AbstractEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = listener;
+			// Stable sort, listeners with the same priority keep their registration order.
+			Arrays.sort(updated);
+			listeners.put(listener.getType(), updated);
+		}
 		return listener;
 	}
 	
@@ -69,42 +83,87 @@ public class ListenersContainer
 			throw new IllegalAccessError("Listeners container doesn't had " + listener.getType() + " event type added!");
 		}
 		
-		_listeners.get(listener.getType()).remove(listener);
+		synchronized (_listeners)
+		{
+			final AbstractEventListener[] current = _listeners.get(listener.getType());
+			for (int i = 0; i < current.length; i++)
+			{
+				if (current[i] == listener)
+				{
+					final AbstractEventListener[] updated = new AbstractEventListener[current.length - 1];
+					System.arraycopy(current, 0, updated, 0, i);
+					System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+					_listeners.put(listener.getType(), updated);
+					break;
+				}
+			}
+		}
 		return listener;
 	}
 	
+	/**
+	 * The returned array is shared and must not be modified.
+	 * @param type
+	 * @return the listeners of the specified type sorted by priority
+	 */
+	public AbstractEventListener[] getListenersArray(EventType type)
+	{
+		final Map<EventType, AbstractEventListener[]> listeners = _listeners;
+		if (listeners == null)
+		{
+			return EMPTY_LISTENERS;
+		}
+		return listeners.getOrDefault(type, EMPTY_LISTENERS);
+	}
+	
 	/**
 	 * @param type
-	 * @return {@code List} of {@link AbstractEventListener} by the specified type
+	 * @return {@code Queue} of {@link AbstractEventListener} by the specified type
 	 */
 	public Queue<AbstractEventListener> getListeners(EventType type)
 	{
-		return (_listeners != null) && _listeners.containsKey(type) ? _listeners.get(type) : EmptyQueue.emptyQueue();
+		final AbstractEventListener[] listeners = getListenersArray(type);
+		return listeners.length == 0 ? EmptyQueue.emptyQueue() : new ArrayDeque<>(Arrays.asList(listeners));
 	}
 	
 	public void removeListenerIf(EventType type, Predicate<? super AbstractEventListener> filter)
 	{
-		getListeners(type).stream().filter(filter).forEach(AbstractEventListener::unregisterMe);
+		for (AbstractEventListener listener : getListenersArray(type))
+		{
+			if (filter.test(listener))
+			{
+				listener.unregisterMe();
+			}
+		}
 	}
 	
 	public void removeListenerIf(Predicate<? super AbstractEventListener> filter)
 	{
 		if (_listeners != null)
 		{
-			getListeners().values().forEach(queue -> queue.stream().filter(filter).forEach(AbstractEventListener::unregisterMe));
+			for (AbstractEventListener[] listeners : getListeners().values())
+			{
+				for (AbstractEventListener listener : listeners)
+				{
+					if (filter.test(listener))
+					{
+						listener.unregisterMe();
+					}
+				}
+			}
 		}
 	}
 	
 	public boolean hasListener(EventType type)
 	{
-		return !getListeners(type).isEmpty();
+		return getListenersArray(type).length > 0;
 	}
 	
 	/**
 	 * Creates the listeners container map if doesn't exists.
 	 * @return the listeners container map.
 	 */
-	private Map<EventType, Queue<AbstractEventListener>> getListeners()
+	private Map<EventType, AbstractEventListener[]> getListeners()
 	{
 		if (_listeners == null)
 		{
@@ -808,7 +808,7 @@ public abstract class Inventory extends ItemContainer
 		
 		synchronized (item)
 		{
-			if (!_items.contains(item))
+			if (!containsItem(item))
 			{
 				return null;
 			}
@@ -843,7 +843,7 @@ public abstract class Inventory extends ItemContainer
 		
 		synchronized (item)
 		{
-			if (!_items.contains(item))
+			if (!containsItem(item))
 			{
 				return null;
 			}
@@ -1105,6 +1105,11 @@ public abstract class Inventory extends ItemContainer
 				}
 				item.updateDatabase();
 			}
+			
+			if (getOwner() != null)
+			{
+				getOwner().getStat().invalidateStatCache();
+			}
 		}
 		return old;
 	}
@@ -22,6 +22,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -38,6 +39,7 @@ import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.items.L2Item;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.util.ConcurrentIntObjectMap;
 
 /**
  * @author Advi
@@ -47,6 +49,10 @@ public abstract class ItemContainer
 	protected static final Logger _log = Logger.getLogger(ItemContainer.class.getName());
 	
 	protected final List<L2ItemInstance> _items = new FastList<L2ItemInstance>().shared();
+	/** Items of this container by object id. */
+	private final ConcurrentIntObjectMap<L2ItemInstance> _itemsByObjectId = new ConcurrentIntObjectMap<>();
+	/** Items of this container by item id, in the order of the items list. */
+	private final ConcurrentIntObjectMap<L2ItemInstance[]> _itemsByItemId = new ConcurrentIntObjectMap<>();
 	
 	protected ItemContainer()
 	{
@@ -91,14 +97,17 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByItemId(int itemId)
 	{
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == itemId))
-			{
-				return item;
-			}
-		}
-		return null;
+		final L2ItemInstance[] items = _itemsByItemId.get(itemId);
+		return (items != null) ? items[0] : null;
+	}
+	
+	/**
+	 * @param itemId the item Id
+	 * @return the items of the container with the given item Id in the container order, {@code null} if none. The array must not be modified.
+	 */
+	protected final L2ItemInstance[] getIndexedItems(int itemId)
+	{
+		return _itemsByItemId.get(itemId);
 	}
 	
 	/**
@@ -107,15 +116,8 @@ public abstract class ItemContainer
 	 */
 	public List<L2ItemInstance> getItemsByItemId(int itemId)
 	{
-		final List<L2ItemInstance> returnList = new ArrayList<>();
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == itemId))
-			{
-				returnList.add(item);
-			}
-		}
-		return returnList;
+		final L2ItemInstance[] items = _itemsByItemId.get(itemId);
+		return (items != null) ? new ArrayList<>(Arrays.asList(items)) : new ArrayList<>();
 	}
 	
 	/**
@@ -125,11 +127,15 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByItemId(int itemId, L2ItemInstance itemToIgnore)
 	{
-		for (L2ItemInstance item : _items)
+		final L2ItemInstance[] items = _itemsByItemId.get(itemId);
+		if (items != null)
 		{
-			if ((item != null) && (item.getId() == itemId) && !item.equals(itemToIgnore))
+			for (L2ItemInstance item : items)
 			{
-				return item;
+				if (!item.equals(itemToIgnore))
+				{
+					return item;
+				}
 			}
 		}
 		return null;
@@ -141,14 +147,7 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByObjectId(int objectId)
 	{
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getObjectId() == objectId))
-			{
-				return item;
-			}
-		}
-		return null;
+		return _itemsByObjectId.get(objectId);
 	}
 	
 	/**
@@ -171,11 +170,16 @@ public abstract class ItemContainer
 	 */
 	public long getInventoryItemCount(int itemId, int enchantLevel, boolean includeEquipped)
 	{
-		long count = 0;
+		final L2ItemInstance[] items = _itemsByItemId.get(itemId);
+		if (items == null)
+		{
+			return 0;
+		}
 		
-		for (L2ItemInstance item : _items)
+		long count = 0;
+		for (L2ItemInstance item : items)
 		{
-			if ((item.getId() == itemId) && ((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped()))
+			if (((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped()))
 			{
 				if (item.isStackable())
 				{
@@ -532,16 +536,8 @@ public abstract class ItemContainer
 	 */
 	public long getAdena()
 	{
-		long count = 0;
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == Inventory.ADENA_ID))
-			{
-				count = item.getCount();
-				return count;
-			}
-		}
-		return count;
+		final L2ItemInstance adena = getItemByItemId(Inventory.ADENA_ID);
+		return (adena != null) ? adena.getCount() : 0;
 	}
 	
 	/**
@@ -551,6 +547,24 @@ public abstract class ItemContainer
 	protected void addItem(L2ItemInstance item)
 	{
 		_items.add(item);
+		synchronized (_itemsByItemId)
+		{
+			_itemsByObjectId.put(item.getObjectId(), item);
+			final L2ItemInstance[] items = _itemsByItemId.get(item.getId());
+			if (items == null)
+			{
+				_itemsByItemId.put(item.getId(), new L2ItemInstance[]
+				{
+					item
+				});
+			}
+			else
+			{
+				final L2ItemInstance[] newItems = Arrays.copyOf(items, items.length + 1);
+				newItems[items.length] = item;
+				_itemsByItemId.put(item.getId(), newItems);
+			}
+		}
 	}
 	
 	/**
@@ -560,7 +574,60 @@ public abstract class ItemContainer
 	 */
 	protected boolean removeItem(L2ItemInstance item)
 	{
-		return _items.remove(item);
+		if (!_items.remove(item))
+		{
+			return false;
+		}
+		
+		synchronized (_itemsByItemId)
+		{
+			_itemsByObjectId.remove(item.getObjectId());
+			final L2ItemInstance[] items = _itemsByItemId.get(item.getId());
+			if (items != null)
+			{
+				for (int i = 0; i < items.length; i++)
+				{
+					if (items[i] == item)
+					{
+						if (items.length == 1)
+						{
+							_itemsByItemId.remove(item.getId());
+						}
+						else
+						{
+							final L2ItemInstance[] newItems = new L2ItemInstance[items.length - 1];
+							System.arraycopy(items, 0, newItems, 0, i);
+							System.arraycopy(items, i + 1, newItems, i, items.length - i - 1);
+							_itemsByItemId.put(item.getId(), newItems);
+						}
+						break;
+					}
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param item the item
+	 * @return {@code true} if the item is in this container
+	 */
+	protected final boolean containsItem(L2ItemInstance item)
+	{
+		return _itemsByObjectId.get(item.getObjectId()) == item;
+	}
+	
+	/**
+	 * Removes all the items of the container, without any further adjustment.
+	 */
+	protected void clearItems()
+	{
+		_items.clear();
+		synchronized (_itemsByItemId)
+		{
+			_itemsByObjectId.clear();
+			_itemsByItemId.clear();
+		}
 	}
 	
 	/**
@@ -577,17 +644,25 @@ public abstract class ItemContainer
 	{
 		if (getOwner() != null)
 		{
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				L2ItemInstance.updateDatabase(new ArrayList<>(_items));
+			}
+			
 			for (L2ItemInstance item : _items)
 			{
 				if (item != null)
 				{
-					item.updateDatabase(true);
+					if (!Config.ITEM_WRITE_BEHIND)
+					{
+						item.updateDatabase(true);
+					}
 					item.deleteMe();
 					L2World.getInstance().removeObject(item);
 				}
 			}
 		}
-		_items.clear();
+		clearItems();
 	}
 	
 	/**
@@ -597,6 +672,12 @@ public abstract class ItemContainer
 	{
 		if (getOwner() != null)
 		{
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				L2ItemInstance.updateDatabase(new ArrayList<>(_items));
+				return;
+			}
+			
 			for (L2ItemInstance item : _items)
 			{
 				if (item != null)
@@ -232,15 +232,20 @@ public class PcInventory extends Inventory
 	 */
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, boolean includeEquipped)
 	{
+		final L2ItemInstance[] items = getIndexedItems(itemId);
+		if (items == null)
+		{
+			return new L2ItemInstance[0];
+		}
+		if (includeEquipped)
+		{
+			return items.clone();
+		}
+		
 		FastList<L2ItemInstance> list = FastList.newInstance();
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : items)
 		{
-			if (item == null)
-			{
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (includeEquipped || !item.isEquipped()))
+			if (!item.isEquipped())
 			{
 				list.add(item);
 			}
@@ -271,15 +276,16 @@ public class PcInventory extends Inventory
 	 */
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, int enchantment, boolean includeEquipped)
 	{
+		final L2ItemInstance[] items = getIndexedItems(itemId);
+		if (items == null)
+		{
+			return new L2ItemInstance[0];
+		}
+		
 		FastList<L2ItemInstance> list = FastList.newInstance();
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : items)
 		{
-			if (item == null)
-			{
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped()))
+			if ((item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped()))
 			{
 				list.add(item);
 			}
@@ -63,8 +63,8 @@ public class PcRefund extends ItemContainer
 		{
 			if (getSize() > 12)
 			{
-				L2ItemInstance removedItem = _items.remove(0);
-				if (removedItem != null)
+				L2ItemInstance removedItem = _items.get(0);
+				if ((removedItem != null) && removeItem(removedItem))
 				{
 					ItemTable.getInstance().destroyItem("ClearRefund", removedItem, getOwner(), null);
 					removedItem.updateDatabase(true);
@@ -100,7 +100,7 @@ public class PcRefund extends ItemContainer
 		{
 			_log.log(Level.SEVERE, "deleteMe()", e);
 		}
-		_items.clear();
+		clearItems();
 	}
 	
 	@Override
@@ -26,7 +26,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -81,6 +83,7 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SpawnItem;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemPersistenceTaskManager;
 import com.l2jserver.gameserver.util.GMAudit;
 
 /**
@@ -92,6 +95,12 @@ public final class L2ItemInstance extends L2Object
 	private static final Logger _log = Logger.getLogger(L2ItemInstance.class.getName());
 	private static final Logger _logItems = Logger.getLogger("item");
 	
+	private static final String INSERT_ITEM = "INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+	private static final String UPDATE_ITEM = "UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?";
+	private static final String DELETE_ITEM = "DELETE FROM items WHERE object_id = ?";
+	private static final String DELETE_ITEM_ATTRIBUTES = "DELETE FROM item_attributes WHERE itemId = ?";
+	private static final String DELETE_ITEM_ELEMENTALS = "DELETE FROM item_elementals WHERE itemId = ?";
+	
 	/** ID of the owner */
 	private int _ownerId;
 	
@@ -891,6 +900,12 @@ public final class L2ItemInstance extends L2Object
 		_enchantLevel = enchantLevel;
 		applyEnchantStats();
 		_storedInDb = false;
+		
+		// enchanted funcs of equipped items depend on the enchant level
+		if (isEquipped() && (getActingPlayer() != null))
+		{
+			getActingPlayer().getStat().invalidateStatCache();
+		}
 	}
 	
 	/**
@@ -1433,6 +1448,7 @@ public final class L2ItemInstance extends L2Object
 	
 	/**
 	 * Updates the database.<BR>
+	 * With {@link Config#ITEM_WRITE_BEHIND} inserts and updates that are not forced are queued to {@link ItemPersistenceTaskManager}, removals are always done immediately.
 	 * @param force if the update should necessarilly be done.
 	 */
 	public void updateDatabase(boolean force)
@@ -1441,9 +1457,24 @@ public final class L2ItemInstance extends L2Object
 		
 		try
 		{
+			final boolean remove = isRemovedFromDb();
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				if (!force && !remove)
+				{
+					if (!_existsInDb || !Config.LAZY_ITEMS_UPDATE)
+					{
+						ItemPersistenceTaskManager.getInstance().add(this);
+					}
+					return;
+				}
+				// Done right now, drop the queued change.
+				ItemPersistenceTaskManager.getInstance().remove(this);
+			}
+			
 			if (_existsInDb)
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE)))
+				if (remove)
 				{
 					removeFromDb();
 				}
@@ -1454,7 +1485,7 @@ public final class L2ItemInstance extends L2Object
 			}
 			else
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE)))
+				if (remove)
 				{
 					return;
 				}
@@ -1467,6 +1498,147 @@ public final class L2ItemInstance extends L2Object
 		}
 	}
 	
+	/**
+	 * @return {@code true} if this item must not be (or no longer be) stored in the database
+	 */
+	private boolean isRemovedFromDb()
+	{
+		return (_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE));
+	}
+	
+	/**
+	 * Updates the database for all the given items using JDBC batches in a single transaction.<br>
+	 * If the transaction fails it is rolled back and each item is updated on its own, so a bad item does not prevent the others from being stored.
+	 * @param items the items to store
+	 */
+	public static void updateDatabase(List<L2ItemInstance> items)
+	{
+		items.removeIf(Objects::isNull);
+		if (items.isEmpty())
+		{
+			return;
+		}
+		
+		// Always lock in the same order, so concurrent batches sharing items can't deadlock.
+		items.sort(Comparator.comparingInt(L2ItemInstance::getObjectId));
+		for (L2ItemInstance item : items)
+		{
+			item._dbLock.lock();
+		}
+		
+		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		{
+			final List<L2ItemInstance> inserted = new ArrayList<>();
+			final List<L2ItemInstance> updated = new ArrayList<>();
+			final List<L2ItemInstance> removed = new ArrayList<>();
+			con.setAutoCommit(false);
+			try (PreparedStatement insert = con.prepareStatement(INSERT_ITEM);
+				PreparedStatement update = con.prepareStatement(UPDATE_ITEM);
+				PreparedStatement delete = con.prepareStatement(DELETE_ITEM);
+				PreparedStatement deleteAttributes = con.prepareStatement(DELETE_ITEM_ATTRIBUTES);
+				PreparedStatement deleteElementals = con.prepareStatement(DELETE_ITEM_ELEMENTALS))
+			{
+				for (L2ItemInstance item : items)
+				{
+					if (Config.ITEM_WRITE_BEHIND)
+					{
+						ItemPersistenceTaskManager.getInstance().remove(item);
+					}
+					
+					if (item._wear)
+					{
+						continue;
+					}
+					
+					if (item._existsInDb)
+					{
+						if (item.isRemovedFromDb())
+						{
+							for (PreparedStatement ps : new PreparedStatement[]
+							{
+								delete,
+								deleteAttributes,
+								deleteElementals
+							})
+							{
+								ps.setInt(1, item.getObjectId());
+								ps.addBatch();
+							}
+							removed.add(item);
+						}
+						else if (!item._storedInDb)
+						{
+							item.setUpdateParameters(update);
+							update.addBatch();
+							updated.add(item);
+						}
+					}
+					else if (!item.isRemovedFromDb())
+					{
+						item.setInsertParameters(insert);
+						insert.addBatch();
+						inserted.add(item);
+					}
+				}
+				
+				insert.executeBatch();
+				update.executeBatch();
+				delete.executeBatch();
+				deleteAttributes.executeBatch();
+				deleteElementals.executeBatch();
+				con.commit();
+			}
+			catch (SQLException e)
+			{
+				con.rollback();
+				_log.log(Level.WARNING, "Could not update " + items.size() + " items in DB, updating them one by one: " + e.getMessage(), e);
+				for (L2ItemInstance item : items)
+				{
+					item.updateDatabase(true);
+				}
+				return;
+			}
+			finally
+			{
+				con.setAutoCommit(true);
+			}
+			
+			for (L2ItemInstance item : inserted)
+			{
+				item._existsInDb = true;
+				item._storedInDb = true;
+				if (item._augmentation != null)
+				{
+					item.updateItemAttributes(con);
+				}
+				if (item._elementals != null)
+				{
+					item.updateItemElements(con);
+				}
+			}
+			for (L2ItemInstance item : updated)
+			{
+				item._storedInDb = true;
+			}
+			for (L2ItemInstance item : removed)
+			{
+				item._existsInDb = false;
+				item._storedInDb = false;
+			}
+		}
+		catch (SQLException e)
+		{
+			_log.log(Level.SEVERE, "Could not update " + items.size() + " items in DB: " + e.getMessage(), e);
+		}
+		finally
+		{
+			for (L2ItemInstance item : items)
+			{
+				item._dbLock.unlock();
+			}
+		}
+	}
+	
 	/**
 	 * Returns a L2ItemInstance stored in database from its objectID
 	 * @param ownerId
@@ -1635,18 +1807,9 @@ public final class L2ItemInstance extends L2Object
 		}
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? " + "WHERE object_id = ?"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setLong(2, getCount());
-			ps.setString(3, _loc.name());
-			ps.setInt(4, _locData);
-			ps.setInt(5, getEnchantLevel());
-			ps.setInt(6, getCustomType1());
-			ps.setInt(7, getCustomType2());
-			ps.setInt(8, getMana());
-			ps.setLong(9, getTime());
-			ps.setInt(10, getObjectId());
+			PreparedStatement ps = con.prepareStatement(UPDATE_ITEM))
+		{
+			setUpdateParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1670,20 +1833,9 @@ public final class L2ItemInstance extends L2Object
 		}
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) " + "VALUES (?,?,?,?,?,?,?,?,?,?,?)"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setInt(2, _itemId);
-			ps.setLong(3, getCount());
-			ps.setString(4, _loc.name());
-			ps.setInt(5, _locData);
-			ps.setInt(6, getEnchantLevel());
-			ps.setInt(7, getObjectId());
-			ps.setInt(8, _type1);
-			ps.setInt(9, _type2);
-			ps.setInt(10, getMana());
-			ps.setLong(11, getTime());
-			
+			PreparedStatement ps = con.prepareStatement(INSERT_ITEM))
+		{
+			setInsertParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1717,7 +1869,7 @@ public final class L2ItemInstance extends L2Object
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM items WHERE object_id = ?"))
+			try (PreparedStatement ps = con.prepareStatement(DELETE_ITEM))
 			{
 				ps.setInt(1, getObjectId());
 				ps.executeUpdate();
@@ -1725,13 +1877,13 @@ public final class L2ItemInstance extends L2Object
 				_storedInDb = false;
 			}
 			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_attributes WHERE itemId = ?"))
+			try (PreparedStatement ps = con.prepareStatement(DELETE_ITEM_ATTRIBUTES))
 			{
 				ps.setInt(1, getObjectId());
 				ps.executeUpdate();
 			}
 			
-			try (PreparedStatement ps = con.prepareStatement("DELETE FROM item_elementals WHERE itemId = ?"))
+			try (PreparedStatement ps = con.prepareStatement(DELETE_ITEM_ELEMENTALS))
 			{
 				ps.setInt(1, getObjectId());
 				ps.executeUpdate();
@@ -1743,6 +1895,35 @@ public final class L2ItemInstance extends L2Object
 		}
 	}
 	
+	private void setUpdateParameters(PreparedStatement ps) throws SQLException
+	{
+		ps.setInt(1, _ownerId);
+		ps.setLong(2, getCount());
+		ps.setString(3, _loc.name());
+		ps.setInt(4, _locData);
+		ps.setInt(5, getEnchantLevel());
+		ps.setInt(6, getCustomType1());
+		ps.setInt(7, getCustomType2());
+		ps.setInt(8, getMana());
+		ps.setLong(9, getTime());
+		ps.setInt(10, getObjectId());
+	}
+	
+	private void setInsertParameters(PreparedStatement ps) throws SQLException
+	{
+		ps.setInt(1, _ownerId);
+		ps.setInt(2, _itemId);
+		ps.setLong(3, getCount());
+		ps.setString(4, _loc.name());
+		ps.setInt(5, _locData);
+		ps.setInt(6, getEnchantLevel());
+		ps.setInt(7, getObjectId());
+		ps.setInt(8, _type1);
+		ps.setInt(9, _type2);
+		ps.setInt(10, getMana());
+		ps.setLong(11, getTime());
+	}
+	
 	/**
 	 * Returns the item in String format
 	 * @return String
@@ -38,6 +38,7 @@ import com.l2jserver.gameserver.model.stats.Env;
 import com.l2jserver.gameserver.model.stats.Formulas;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.BuffTaskManager;
 
 /**
  * Buff Info.<br>
@@ -268,8 +269,16 @@ public final class BuffInfo
 		// Creates a task that will stop all the effects.
 		if (_abnormalTime > 0)
 		{
-			_effectTimeTask = new BuffTimeTask(this);
-			_scheduledFutureTimeTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(_effectTimeTask, 0, 1000L);
+			if (Config.BUFF_TIMING_WHEEL)
+			{
+				// A single timer when the abnormal time is reached, instead of a task counting the seconds.
+				_scheduledFutureTimeTask = BuffTaskManager.getInstance().schedule(_env.getTarget().getEffectList(), () -> _env.getTarget().getEffectList().stopSkillEffects(false, _env.getSkill().getId()), _abnormalTime * 1000L, 0);
+			}
+			else
+			{
+				_effectTimeTask = new BuffTimeTask(this);
+				_scheduledFutureTimeTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(_effectTimeTask, 0, 1000L);
+			}
 		}
 		
 		applyAbnormalVisualEffects();
@@ -289,7 +298,16 @@ public final class BuffInfo
 			{
 				// The task for the effect ticks
 				final EffectTickTask effectTask = new EffectTickTask(this, effect);
-				final ScheduledFuture<?> scheduledFuture = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(effectTask, effect.getTicks() * Config.EFFECT_TICK_RATIO, effect.getTicks() * Config.EFFECT_TICK_RATIO);
+				final long period = effect.getTicks() * Config.EFFECT_TICK_RATIO;
+				final ScheduledFuture<?> scheduledFuture;
+				if (Config.BUFF_TIMING_WHEEL)
+				{
+					scheduledFuture = BuffTaskManager.getInstance().schedule(_env.getTarget().getEffectList(), effectTask, period, period);
+				}
+				else
+				{
+					scheduledFuture = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(effectTask, period, period);
+				}
 				// Adds the task for ticking
 				addTask(effect, new EffectTaskInfo(effectTask, scheduledFuture));
 			}
@@ -84,6 +84,16 @@ public abstract class Func
 		cond = pCond;
 	}
 	
+	/**
+	 * Functions depending on anything else than the character stats, level, template, equipment and enchantment must return {@code false}.<br>
+	 * By default only unconditional functions with constant values are cacheable.
+	 * @return {@code true} if the result of this function can be kept in the character stat cache
+	 */
+	public boolean isCacheable()
+	{
+		return (cond == null) && ((_lambda == null) || (_lambda instanceof LambdaConst));
+	}
+	
 	/**
 	 * Run the mathematics function of the Func.
 	 * @param env
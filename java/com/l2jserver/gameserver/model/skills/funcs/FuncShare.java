@@ -34,6 +34,13 @@ public class FuncShare extends Func
 		super(pStat, pOrder, owner, lambda);
 	}
 	
+	@Override
+	public boolean isCacheable()
+	{
+		// depends on the owner's stats
+		return false;
+	}
+	
 	@Override
 	public void calc(Env env)
 	{
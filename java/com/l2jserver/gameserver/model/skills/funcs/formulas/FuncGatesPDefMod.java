@@ -41,6 +41,13 @@ public class FuncGatesPDefMod extends Func
 		super(Stats.POWER_DEFENCE, 0x20, null, null);
 	}
 	
+	@Override
+	public boolean isCacheable()
+	{
+		// depends on the Seven Signs seal owner
+		return false;
+	}
+	
 	@Override
 	public void calc(Env env)
 	{
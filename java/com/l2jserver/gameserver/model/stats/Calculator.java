@@ -40,6 +40,9 @@ public final class Calculator
 	/** Table of Func object */
 	private Func[] _functions;
 	
+	/** True if all the Func objects of this calculator are cacheable */
+	private boolean _cacheable = true;
+	
 	/**
 	 * Constructor of Calculator (Init value : emptyFuncs).
 	 */
@@ -55,6 +58,7 @@ public final class Calculator
 	public Calculator(Calculator c)
 	{
 		_functions = c._functions;
+		_cacheable = c._cacheable;
 	}
 	
 	/**
@@ -138,6 +142,7 @@ public final class Calculator
 		}
 		
 		_functions = tmp;
+		_cacheable = _cacheable && f.isCacheable();
 	}
 	
 	/**
@@ -175,6 +180,12 @@ public final class Calculator
 			_functions = tmp;
 		}
 		
+		boolean cacheable = true;
+		for (Func func : _functions)
+		{
+			cacheable &= func.isCacheable();
+		}
+		_cacheable = cacheable;
 	}
 	
 	/**
@@ -196,6 +207,14 @@ public final class Calculator
 		return modifiedStats;
 	}
 	
+	/**
+	 * @return {@code true} if the result of this calculator can be cached as long as the character does not change
+	 */
+	public boolean isCacheable()
+	{
+		return _cacheable;
+	}
+	
 	/**
 	 * Run each Func of the Calculator.
 	 * @param env
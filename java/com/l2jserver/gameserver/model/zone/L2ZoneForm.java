@@ -34,6 +34,19 @@ public abstract class L2ZoneForm
 	
 	public abstract boolean intersectsRectangle(int x1, int x2, int y1, int y2);
 	
+	/**
+	 * Used by {@link ZoneGrid} to skip the form test for points of cells fully inside the zone.
+	 * @param x1
+	 * @param x2
+	 * @param y1
+	 * @param y2
+	 * @return {@code true} if the whole rectangle is inside the zone on the xy plane, {@code false} if it is not or if the form cannot tell
+	 */
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return false;
+	}
+	
 	public abstract double getDistanceToZone(int x, int y);
 	
 	public abstract int getLowZ(); // Support for the ability to extract the z coordinates of zones.
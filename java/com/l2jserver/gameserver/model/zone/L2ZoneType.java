@@ -392,7 +392,7 @@ public abstract class L2ZoneType extends ListenersContainer
 	{
 		// It will check if coords are within the zone if the given instanceId or
 		// the zone's _instanceId are in the multiverse or they match
-		if ((_instanceId == -1) || (instanceId == -1) || (_instanceId == instanceId))
+		if (isInInstance(instanceId))
 		{
 			return _zone.isInsideZone(x, y, z);
 		}
@@ -400,6 +400,11 @@ public abstract class L2ZoneType extends ListenersContainer
 		return false;
 	}
 	
+	private boolean isInInstance(int instanceId)
+	{
+		return (_instanceId == -1) || (instanceId == -1) || (_instanceId == instanceId);
+	}
+	
 	/**
 	 * Checks if the given object is inside the zone.
 	 * @param object
@@ -434,25 +439,56 @@ public abstract class L2ZoneType extends ListenersContainer
 		// If the object is inside the zone...
 		if (isInsideZone(character))
 		{
-			// Was the character not yet inside this zone?
-			if (!_characterList.containsKey(character.getObjectId()))
+			addCharacter(character);
+		}
+		else
+		{
+			removeCharacter(character);
+		}
+	}
+	
+	/**
+	 * Same as {@link #revalidateInZone(L2Character)}, with the zone form already tested by {@link ZoneGrid}.
+	 * @param character
+	 * @param insideForm {@code true} if the character coordinates are inside the zone form
+	 */
+	public void revalidateInZone(L2Character character, boolean insideForm)
+	{
+		// If the character can't be affected by this zone return
+		if (_checkAffected)
+		{
+			if (!isAffected(character))
 			{
-				// Notify to scripts.
-				EventDispatcher.getInstance().notifyEventAsync(new OnCreatureZoneEnter(character, this), this);
-				
-				// Register player.
-				_characterList.put(character.getObjectId(), character);
-				
-				// Notify Zone implementation.
-				onEnter(character);
+				return;
 			}
 		}
+		
+		if (insideForm && isInInstance(character.getInstanceId()))
+		{
+			addCharacter(character);
+		}
 		else
 		{
 			removeCharacter(character);
 		}
 	}
 	
+	private void addCharacter(L2Character character)
+	{
+		// Was the character not yet inside this zone?
+		if (!_characterList.containsKey(character.getObjectId()))
+		{
+			// Notify to scripts.
+			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureZoneEnter(character, this), this);
+			
+			// Register player.
+			_characterList.put(character.getObjectId(), character);
+			
+			// Notify Zone implementation.
+			onEnter(character);
+		}
+	}
+	
 	/**
 	 * Force fully removes a character from the zone Should use during teleport / logoff
 	 * @param character
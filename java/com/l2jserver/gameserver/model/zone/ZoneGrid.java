@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.zone;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.l2jserver.gameserver.model.actor.L2Character;
+
+/**
+ * Fine grained grid over the zones of a world region.<br>
+ * Each cell keeps the zones intersecting it and flags the zones containing the whole cell on the xy plane, for those only the z range is tested.<br>
+ * Zones not registered in a cell cannot contain any point of it, so lookups never test the forms of the other zones of the region.
+ */
+public final class ZoneGrid
+{
+	private static final Cell EMPTY_CELL = new Cell(new L2ZoneType[0], new boolean[0]);
+	
+	private final L2ZoneType[] _zones;
+	private final int _x;
+	private final int _y;
+	private final int _cellShift;
+	private final int _cellsPerSide;
+	private final Cell[] _cells;
+	
+	/**
+	 * @param x the lowest x coordinate of the region
+	 * @param y the lowest y coordinate of the region
+	 * @param regionShift the region size, as a power of two
+	 * @param cellSize the cell size, rounded down to a power of two
+	 * @param zones the zones of the region
+	 */
+	public ZoneGrid(int x, int y, int regionShift, int cellSize, L2ZoneType[] zones)
+	{
+		_zones = zones;
+		_x = x;
+		_y = y;
+		_cellShift = Math.min(Integer.numberOfTrailingZeros(Integer.highestOneBit(Math.max(cellSize, 16))), regionShift);
+		_cellsPerSide = 1 << (regionShift - _cellShift);
+		_cells = new Cell[_cellsPerSide * _cellsPerSide];
+		
+		final int size = 1 << _cellShift;
+		final List<L2ZoneType> cellZones = new ArrayList<>();
+		final List<Boolean> cellInside = new ArrayList<>();
+		for (int cx = 0; cx < _cellsPerSide; cx++)
+		{
+			for (int cy = 0; cy < _cellsPerSide; cy++)
+			{
+				// Cell enlarged by one unit, every point of the cell is strictly inside it.
+				final int x1 = (x + (cx << _cellShift)) - 1;
+				final int x2 = x1 + size + 1;
+				final int y1 = (y + (cy << _cellShift)) - 1;
+				final int y2 = y1 + size + 1;
+				for (L2ZoneType zone : zones)
+				{
+					if (zone.getZone().intersectsRectangle(x1, x2, y1, y2))
+					{
+						cellZones.add(zone);
+						cellInside.add(zone.getZone().containsRectangle(x1, x2, y1, y2));
+					}
+				}
+				
+				if (cellZones.isEmpty())
+				{
+					_cells[(cx * _cellsPerSide) + cy] = EMPTY_CELL;
+					continue;
+				}
+				
+				final boolean[] inside = new boolean[cellInside.size()];
+				for (int i = 0; i < inside.length; i++)
+				{
+					inside[i] = cellInside.get(i);
+				}
+				_cells[(cx * _cellsPerSide) + cy] = new Cell(cellZones.toArray(new L2ZoneType[cellZones.size()]), inside);
+				cellZones.clear();
+				cellInside.clear();
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of zones this grid was built with
+	 */
+	public int getZoneCount()
+	{
+		return _zones.length;
+	}
+	
+	private Cell getCell(int x, int y)
+	{
+		final int cx = (x - _x) >> _cellShift;
+		final int cy = (y - _y) >> _cellShift;
+		if ((cx < 0) || (cy < 0) || (cx >= _cellsPerSide) || (cy >= _cellsPerSide))
+		{
+			return EMPTY_CELL;
+		}
+		return _cells[(cx * _cellsPerSide) + cy];
+	}
+	
+	/**
+	 * Adds the zones containing the given coordinates to the list.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param result
+	 */
+	public void getZones(int x, int y, int z, List<L2ZoneType> result)
+	{
+		final Cell cell = getCell(x, y);
+		for (int i = 0; i < cell._zones.length; i++)
+		{
+			if (cell.isInsideZone(i, x, y, z))
+			{
+				result.add(cell._zones[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the zones containing the given coordinates on the xy plane to the list.
+	 * @param x
+	 * @param y
+	 * @param result
+	 */
+	public void getZones(int x, int y, List<L2ZoneType> result)
+	{
+		final Cell cell = getCell(x, y);
+		for (int i = 0; i < cell._zones.length; i++)
+		{
+			if (cell.isInsideZone(i, x, y, cell._zones[i].getZone().getHighZ()))
+			{
+				result.add(cell._zones[i]);
+			}
+		}
+	}
+	
+	/**
+	 * @param <T>
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param type
+	 * @return the first zone of the given type containing the coordinates
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends L2ZoneType> T getZone(int x, int y, int z, Class<T> type)
+	{
+		final Cell cell = getCell(x, y);
+		for (int i = 0; i < cell._zones.length; i++)
+		{
+			if (type.isInstance(cell._zones[i]) && cell.isInsideZone(i, x, y, z))
+			{
+				return (T) cell._zones[i];
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Revalidates the character in every zone of the region, in region order.
+	 * @param character
+	 */
+	public void revalidateZones(L2Character character)
+	{
+		final int x = character.getX();
+		final int y = character.getY();
+		final int z = character.getZ();
+		final Cell cell = getCell(x, y);
+		for (L2ZoneType zone : _zones)
+		{
+			if (zone != null)
+			{
+				final int index = cell.indexOf(zone);
+				zone.revalidateInZone(character, (index >= 0) && cell.isInsideZone(index, x, y, z));
+			}
+		}
+	}
+	
+	private static final class Cell
+	{
+		protected final L2ZoneType[] _zones;
+		private final boolean[] _inside;
+		
+		public Cell(L2ZoneType[] zones, boolean[] inside)
+		{
+			_zones = zones;
+			_inside = inside;
+		}
+		
+		public int indexOf(L2ZoneType zone)
+		{
+			for (int i = 0; i < _zones.length; i++)
+			{
+				if (_zones[i] == zone)
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		public boolean isInsideZone(int index, int x, int y, int z)
+		{
+			final L2ZoneForm form = _zones[index].getZone();
+			if (_inside[index])
+			{
+				return (z >= form.getLowZ()) && (z <= form.getHighZ());
+			}
+			return form.isInsideZone(x, y, z);
+		}
+	}
+}
@@ -105,6 +105,13 @@ public class ZoneCylinder extends L2ZoneForm
 		return false;
 	}
 	
+	@Override
+	public boolean containsRectangle(int ax1, int ax2, int ay1, int ay2)
+	{
+		// The circle is convex, it contains the rectangle if it contains all its corners.
+		return ((Math.pow(ax1 - _x, 2) + Math.pow(ay1 - _y, 2)) <= _radS) && ((Math.pow(ax1 - _x, 2) + Math.pow(ay2 - _y, 2)) <= _radS) && ((Math.pow(ax2 - _x, 2) + Math.pow(ay1 - _y, 2)) <= _radS) && ((Math.pow(ax2 - _x, 2) + Math.pow(ay2 - _y, 2)) <= _radS);
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
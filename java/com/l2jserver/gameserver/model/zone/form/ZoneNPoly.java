@@ -61,6 +61,12 @@ public class ZoneNPoly extends L2ZoneForm
 		return (_p.intersects(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1)));
 	}
 	
+	@Override
+	public boolean containsRectangle(int ax1, int ax2, int ay1, int ay2)
+	{
+		return (_p.contains(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1)));
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
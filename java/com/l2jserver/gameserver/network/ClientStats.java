@@ -33,6 +33,9 @@ public class ClientStats
 	public int longFloods = 0;
 	public int totalQueueOverflows = 0;
 	public int totalUnderflowExceptions = 0;
+	public int totalDrains = 0;
+	public int totalDrainedPackets = 0;
+	public int maxDrainSize = 0;
 	
 	private final int[] _packetsInSecond;
 	private long _packetCountStartTick = 0;
@@ -133,6 +136,25 @@ public class ClientStats
 		return true;
 	}
 	
+	/**
+	 * Counts the packets executed by one pass of the packet queue worker.
+	 * @param count - number of packets executed
+	 */
+	protected final void countDrain(int count)
+	{
+		if (count == 0)
+		{
+			return;
+		}
+		
+		totalDrains++;
+		totalDrainedPackets += count;
+		if (count > maxDrainSize)
+		{
+			maxDrainSize = count;
+		}
+	}
+	
 	/**
 	 * @return Counts queue overflows and return true if threshold is reached.
 	 */
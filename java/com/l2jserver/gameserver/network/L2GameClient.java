@@ -24,10 +24,13 @@ import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -115,8 +118,10 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	
 	private boolean _protocol;
 	
-	private final ArrayBlockingQueue<ReceivablePacket<L2GameClient>> _packetQueue;
-	private final ReentrantLock _queueLock = new ReentrantLock();
+	// Packet mailbox, filled by the selector thread and drained by a single packet pool thread at a time.
+	private final Queue<ReceivablePacket<L2GameClient>> _packetQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _packetQueueSize = new AtomicInteger();
+	private final AtomicBoolean _packetQueueScheduled = new AtomicBoolean();
 	
 	private int[][] trace;
 	
@@ -128,8 +133,6 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		_crypt = new GameCrypt();
 		_stats = new ClientStats();
 		
-		_packetQueue = new ArrayBlockingQueue<>(Config.CLIENT_PACKET_QUEUE_SIZE);
-		
 		if (Config.CHAR_STORE_INTERVAL > 0)
 		{
 			_autoSaveInDB = ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(new AutoSaveTask(), 300000L, (Config.CHAR_STORE_INTERVAL * 60000L));
@@ -166,7 +169,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		if (_state != pState)
 		{
 			_state = pState;
-			_packetQueue.clear();
+			clearPacketQueue();
 		}
 	}
 	
@@ -990,7 +993,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		}
 		
 		// flood protection
-		if (getStats().countPacket(_packetQueue.size()))
+		if (getStats().countPacket(_packetQueueSize.get()))
 		{
 			sendPacket(ActionFailed.STATIC_PACKET);
 			return true;
@@ -1042,7 +1045,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	}
 	
 	/**
-	 * Add packet to the queue and start worker thread if needed
+	 * Add packet to the queue and start worker thread if the queue was idle
 	 * @param packet
 	 */
 	public void execute(ReceivablePacket<L2GameClient> packet)
@@ -1054,8 +1057,9 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
-		if (!_packetQueue.offer(packet))
+		if (_packetQueueSize.incrementAndGet() > Config.CLIENT_PACKET_QUEUE_SIZE)
 		{
+			_packetQueueSize.decrementAndGet();
 			if (getStats().countQueueOverflow())
 			{
 				_log.severe("Client " + toString() + " - Disconnected, too many queue overflows.");
@@ -1067,34 +1071,31 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			}
 			return;
 		}
+		_packetQueue.offer(packet);
 		
-		if (_queueLock.isLocked())
+		// Only the packet finding the queue idle schedules the worker.
+		if (!_packetQueueScheduled.compareAndSet(false, true))
 		{
 			return;
 		}
 		
-		try
+		if ((_state == GameClientState.CONNECTED) && (getStats().processedPackets > 3))
 		{
-			if (_state == GameClientState.CONNECTED)
-			{
-				if (getStats().processedPackets > 3)
-				{
-					if (Config.PACKET_HANDLER_DEBUG)
-					{
-						_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
-					}
-					closeNow();
-					return;
-				}
-				ThreadPoolManager.getInstance().executeIOPacket(this);
-			}
-			else
+			if (Config.PACKET_HANDLER_DEBUG)
 			{
-				ThreadPoolManager.getInstance().executePacket(this);
+				_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
 			}
+			closeNow();
+			return;
+		}
+		
+		try
+		{
+			executePacketQueue();
 		}
 		catch (RejectedExecutionException e)
 		{
+			_packetQueueScheduled.set(false);
 			// if the server is shutdown we ignore
 			if (!ThreadPoolManager.getInstance().isShutdown())
 			{
@@ -1103,52 +1104,101 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		}
 	}
 	
+	private void executePacketQueue()
+	{
+		if (_state == GameClientState.CONNECTED)
+		{
+			ThreadPoolManager.getInstance().executeIOPacket(this);
+		}
+		else
+		{
+			ThreadPoolManager.getInstance().executePacket(this);
+		}
+	}
+	
+	private void clearPacketQueue()
+	{
+		while (_packetQueue.poll() != null)
+		{
+			_packetQueueSize.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Drains up to {@link Config#CLIENT_PACKET_QUEUE_MAX_BURST_SIZE} packets from the queue, the worker is rescheduled if more packets are left so other clients are not starved.
+	 */
 	@Override
 	public void run()
 	{
-		if (!_queueLock.tryLock())
+		boolean rescheduled = false;
+		try
 		{
-			return;
+			rescheduled = drainPacketQueue();
 		}
-		
-		try
+		finally
 		{
-			int count = 0;
-			ReceivablePacket<L2GameClient> packet;
-			while (true)
+			// Also reached when a packet throws an Error, otherwise the queue of this client would never be scheduled again.
+			if (!rescheduled)
 			{
-				packet = _packetQueue.poll();
-				if (packet == null)
+				_packetQueueScheduled.set(false);
+				// A packet added after the last poll did not schedule the worker, since it was still running.
+				if (!_packetQueue.isEmpty() && _packetQueueScheduled.compareAndSet(false, true))
 				{
-					return;
-				}
-				
-				if (_isDetached) // clear queue immediately after detach
-				{
-					_packetQueue.clear();
-					return;
+					try
+					{
+						executePacketQueue();
+					}
+					catch (RejectedExecutionException e)
+					{
+						_packetQueueScheduled.set(false);
+					}
 				}
-				
+			}
+		}
+	}
+	
+	/**
+	 * @return {@code true} if the worker was rescheduled to process the remaining packets
+	 */
+	private boolean drainPacketQueue()
+	{
+		int count = 0;
+		ReceivablePacket<L2GameClient> packet;
+		while ((packet = _packetQueue.poll()) != null)
+		{
+			_packetQueueSize.decrementAndGet();
+			if (_isDetached) // clear queue immediately after detach
+			{
+				clearPacketQueue();
+				break;
+			}
+			
+			try
+			{
+				packet.run();
+			}
+			catch (Exception e)
+			{
+				_log.severe("Exception during execution " + packet.getClass().getSimpleName() + ", client: " + toString() + "," + e.getMessage());
+			}
+			
+			count++;
+			if (getStats().countBurst(count))
+			{
+				getStats().countDrain(count);
 				try
 				{
-					packet.run();
-				}
-				catch (Exception e)
-				{
-					_log.severe("Exception during execution " + packet.getClass().getSimpleName() + ", client: " + toString() + "," + e.getMessage());
+					executePacketQueue();
+					return true;
 				}
-				
-				count++;
-				if (getStats().countBurst(count))
+				catch (RejectedExecutionException e)
 				{
-					return;
+					return false;
 				}
 			}
 		}
-		finally
-		{
-			_queueLock.unlock();
-		}
+		getStats().countDrain(count);
+		return false;
 	}
 	
 	public void setClientTracert(int[][] tracert)
@@ -75,7 +75,7 @@ public final class RequestReceivedPost extends L2GameClientPacket
 			return;
 		}
 		
-		activeChar.sendPacket(new ExReplyReceivedPost(msg));
+		activeChar.sendPacket(new ExReplyReceivedPost(msg, msg.getContent()));
 		activeChar.sendPacket(new ExChangePostState(true, _msgId, Message.READED));
 		msg.markAsRead();
 	}
@@ -74,7 +74,7 @@ public final class RequestSentPost extends L2GameClientPacket
 			return;
 		}
 		
-		activeChar.sendPacket(new ExReplySentPost(msg));
+		activeChar.sendPacket(new ExReplySentPost(msg, msg.getContent()));
 	}
 	
 	@Override
@@ -18,9 +18,13 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.cache.HtmCache;
+import com.l2jserver.gameserver.cache.HtmlTemplate;
 import com.l2jserver.gameserver.enums.HtmlActionScope;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.util.Util;
@@ -35,6 +39,11 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	private final int _npcObjId;
 	private String _html = null;
 	private boolean _disabledValidation = false;
+	/** Page being filled in a single pass, used with Config.HTML_TEMPLATES. */
+	private HtmlTemplate _template = null;
+	private Map<String, String> _templateValues = null;
+	/** The packet may be written while its action cache is built, the page is rendered once by the first of them. */
+	private volatile boolean _templateRendered = false;
 	
 	protected AbstractHtmlPacket()
 	{
@@ -75,6 +84,9 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	
 	public final void setHtml(String html)
 	{
+		_template = null;
+		_templateValues = null;
+		
 		if (html.length() > 17200)
 		{
 			_log.log(Level.WARNING, "Html is too long! this will crash the client!", new Throwable());
@@ -91,6 +103,11 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	
 	public final boolean setFile(String prefix, String path)
 	{
+		if (Config.HTML_TEMPLATES)
+		{
+			return setTemplate(HtmCache.getInstance().getTemplate(prefix, path), path);
+		}
+		
 		String content = HtmCache.getInstance().getHtm(prefix, path);
 		if (content == null)
 		{
@@ -103,11 +120,53 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 		return true;
 	}
 	
+	private boolean setTemplate(HtmlTemplate template, String path)
+	{
+		if (template == null)
+		{
+			setHtml("<html><body>My Text is missing:<br>" + path + "</body></html>");
+			_log.warning("missing html page " + path);
+			return false;
+		}
+		
+		setHtml(template.getContent());
+		// The page may have been fixed by setHtml, then it is not the template anymore.
+		if (_html == template.getContent())
+		{
+			_template = template;
+			_templateValues = new HashMap<>();
+			_templateRendered = false;
+		}
+		return true;
+	}
+	
 	public final void replace(String pattern, String value)
 	{
+		if (_template != null)
+		{
+			// Values are kept until the page is needed, a placeholder is only filled by its first replacement like with replaceAll.
+			// Values which could contain placeholders or regular expression escapes are handled by the regular expression.
+			if (!_templateRendered && HtmlTemplate.isPlaceholder(pattern) && (value.indexOf('%') < 0) && (value.indexOf('\\') < 0))
+			{
+				_templateValues.putIfAbsent(pattern, value);
+				return;
+			}
+			renderTemplate();
+			_template = null;
+			_templateValues = null;
+		}
 		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
 	}
 	
+	private synchronized void renderTemplate()
+	{
+		if (!_templateRendered)
+		{
+			_html = _template.render(_templateValues);
+			_templateRendered = true;
+		}
+	}
+	
 	public final void replace(String pattern, boolean val)
 	{
 		replace(pattern, String.valueOf(val));
@@ -139,7 +198,15 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 			return;
 		}
 		
-		Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+		final HtmlTemplate template = _template;
+		if (template != null)
+		{
+			Util.buildHtmlActionCache(player, getScope(), _npcObjId, template, _templateValues, getHtml());
+		}
+		else
+		{
+			Util.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
+		}
 	}
 	
 	public final int getNpcObjId()
@@ -149,6 +216,10 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	
 	public final String getHtml()
 	{
+		if ((_template != null) && !_templateRendered)
+		{
+			renderTemplate();
+		}
 		return _html;
 	}
 	
@@ -90,6 +90,12 @@ public class Attack extends L2GameServerPacket
 		writeC(hit.getFlags());
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -30,6 +30,12 @@ public final class AutoAttackStart extends L2GameServerPacket
 		_targetObjId = targetId;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -30,6 +30,12 @@ public class AutoAttackStop extends L2GameServerPacket
 		_targetObjId = targetObjId;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -34,6 +34,12 @@ public class ChangeMoveType extends L2GameServerPacket
 		_running = character.isRunning();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -41,6 +41,12 @@ public class ChangeWaitType extends L2GameServerPacket
 		_z = character.getZ();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -28,11 +28,17 @@ import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 public class ExReplyReceivedPost extends AbstractItemPacket
 {
 	private final Message _msg;
+	private final String _content;
 	private L2ItemInstance[] _items = null;
 	
-	public ExReplyReceivedPost(Message msg)
+	/**
+	 * @param msg the message
+	 * @param content the text of the message, read by the caller as it may need a database query
+	 */
+	public ExReplyReceivedPost(Message msg, String content)
 	{
 		_msg = msg;
+		_content = content;
 		if (msg.hasAttachments())
 		{
 			final ItemContainer attachments = msg.getAttachments();
@@ -57,7 +63,7 @@ public class ExReplyReceivedPost extends AbstractItemPacket
 		writeD(0x00); // Unknown
 		writeS(_msg.getSenderName());
 		writeS(_msg.getSubject());
-		writeS(_msg.getContent());
+		writeS(_content);
 		
 		if ((_items != null) && (_items.length > 0))
 		{
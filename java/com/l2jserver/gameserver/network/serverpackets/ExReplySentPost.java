@@ -28,11 +28,17 @@ import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
 public class ExReplySentPost extends AbstractItemPacket
 {
 	private final Message _msg;
+	private final String _content;
 	private L2ItemInstance[] _items = null;
 	
-	public ExReplySentPost(Message msg)
+	/**
+	 * @param msg the message
+	 * @param content the text of the message, read by the caller as it may need a database query
+	 */
+	public ExReplySentPost(Message msg, String content)
 	{
 		_msg = msg;
+		_content = content;
 		if (msg.hasAttachments())
 		{
 			final ItemContainer attachments = msg.getAttachments();
@@ -56,7 +62,7 @@ public class ExReplySentPost extends AbstractItemPacket
 		writeD(_msg.isLocked() ? 1 : 0);
 		writeS(_msg.getReceiverName());
 		writeS(_msg.getSubject());
-		writeS(_msg.getContent());
+		writeS(_content);
 		
 		if ((_items != null) && (_items.length > 0))
 		{
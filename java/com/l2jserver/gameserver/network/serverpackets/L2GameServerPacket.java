@@ -18,6 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
+import java.nio.ByteBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -85,6 +86,33 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient>
 		_invisible = b;
 	}
 	
+	/**
+	 * Packets returning {@code true} are written the same way for every client, they are written only once when broadcasted.
+	 * @return {@code true} if the packet content does not depend on the receiving client
+	 * @see PreEncodedPacket
+	 */
+	public boolean isPreEncodable()
+	{
+		return false;
+	}
+	
+	/**
+	 * Writes the packet content into the given buffer, outside of any client.
+	 * @param buf the buffer to write into
+	 */
+	final void writeTo(ByteBuffer buf)
+	{
+		_buf = buf;
+		try
+		{
+			writeImpl();
+		}
+		finally
+		{
+			_buf = null;
+		}
+	}
+	
 	/**
 	 * Writes 3 D (int32) with current location x, y, z
 	 * @param loc
@@ -27,6 +27,12 @@ public final class MagicSkillCanceld extends L2GameServerPacket
 		_objectId = objectId;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -55,6 +55,12 @@ public class MagicSkillLaunched extends L2GameServerPacket
 		this(cha, skillId, skillId, cha);
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
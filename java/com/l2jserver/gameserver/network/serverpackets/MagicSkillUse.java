@@ -67,6 +67,12 @@ public final class MagicSkillUse extends L2GameServerPacket
 		this(cha, cha, skillId, skillLevel, hitTime, reuseDelay);
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -35,6 +35,12 @@ public final class MoveToLocation extends L2GameServerPacket
 		_zDst = cha.getZdestination();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -40,6 +40,12 @@ public class MoveToPawn extends L2GameServerPacket
 		_tz = target.getZ();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network.serverpackets;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import com.l2jserver.Config;
+
+/**
+ * Broadcast packet written only once.<br>
+ * The content of the wrapped packet is written into a shared byte array when the packet is created, each client then only copies these bytes into its write buffer (the encryption is still done per client by the selector).<br>
+ * Only packets whose content does not depend on the receiving client can be pre-encoded, see {@link L2GameServerPacket#isPreEncodable()}.
+ */
+public final class PreEncodedPacket extends L2GameServerPacket
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>()
+	{
+		@Override
+		protected ByteBuffer initialValue()
+		{
+			return ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+	};
+	
+	private static final AtomicLong _encodedPackets = new AtomicLong();
+	private static final AtomicLong _encodedBytes = new AtomicLong();
+	private static final AtomicLong _sentPackets = new AtomicLong();
+	private static final AtomicLong _sentBytes = new AtomicLong();
+	
+	private final L2GameServerPacket _packet;
+	private final byte[] _data;
+	
+	private PreEncodedPacket(L2GameServerPacket packet, byte[] data)
+	{
+		_packet = packet;
+		_data = data;
+		_invisible = packet.isInvisible();
+	}
+	
+	/**
+	 * Writes the given packet once if it can be pre-encoded.
+	 * @param packet the packet to broadcast
+	 * @return the pre-encoded packet, or the given packet if it cannot be pre-encoded
+	 */
+	public static L2GameServerPacket preEncode(L2GameServerPacket packet)
+	{
+		if (!Config.MMO_PRE_ENCODE_BROADCAST || (packet == null) || !packet.isPreEncodable())
+		{
+			return packet;
+		}
+		
+		final ByteBuffer buf = BUFFER.get();
+		buf.clear();
+		try
+		{
+			packet.writeTo(buf);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "Failed pre-encoding: " + packet.getClass().getSimpleName() + " ; " + e.getMessage(), e);
+			return packet;
+		}
+		
+		final byte[] data = new byte[buf.position()];
+		buf.flip();
+		buf.get(data);
+		
+		_encodedPackets.incrementAndGet();
+		_encodedBytes.addAndGet(data.length);
+		return new PreEncodedPacket(packet, data);
+	}
+	
+	/**
+	 * @return the wrapped packet
+	 */
+	public L2GameServerPacket getPacket()
+	{
+		return _packet;
+	}
+	
+	@Override
+	public void runImpl()
+	{
+		_packet.runImpl();
+	}
+	
+	@Override
+	protected void writeImpl()
+	{
+		writeB(_data);
+		
+		_sentPackets.incrementAndGet();
+		_sentBytes.addAndGet(_data.length);
+	}
+	
+	public static String[] getStats()
+	{
+		return new String[]
+		{
+			"Pre-encoded broadcast packets:",
+			" |- EncodedPackets: " + _encodedPackets.get(),
+			" |- EncodedBytes:   " + _encodedBytes.get(),
+			" |- SentPackets:    " + _sentPackets.get(),
+			" |- SentBytes:      " + _sentBytes.get()
+		};
+	}
+}
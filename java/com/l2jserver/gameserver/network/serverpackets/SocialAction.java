@@ -35,6 +35,12 @@ public class SocialAction extends L2GameServerPacket
 		_actionId = actionId;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -103,6 +103,12 @@ public final class StatusUpdate extends L2GameServerPacket
 		return !_attributes.isEmpty();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -49,6 +49,12 @@ public final class StopMove extends L2GameServerPacket
 		_heading = heading;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -29,6 +29,12 @@ public class StopRotation extends L2GameServerPacket
 		_speed = speed;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
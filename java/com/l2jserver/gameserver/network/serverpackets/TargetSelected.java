@@ -42,6 +42,12 @@ public final class TargetSelected extends L2GameServerPacket
 		_z = z;
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -38,6 +38,12 @@ public class TargetUnselected extends L2GameServerPacket
 		_z = character.getZ();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
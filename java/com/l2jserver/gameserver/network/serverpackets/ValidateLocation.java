@@ -32,6 +32,12 @@ public class ValidateLocation extends L2GameServerPacket
 		_loc = obj.getLocation();
 	}
 	
+	@Override
+	public boolean isPreEncodable()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.actor.L2Character;
+
+/**
+ * Front end of {@link PathFinding} used for character movement.<br>
+ * Recent results are kept in a small LRU cache by start and end geodata cell, see {@link Config#PATHFIND_CACHE_SIZE}.<br>
+ * With {@link Config#PATHFIND_ASYNC}, paths of non playable characters are computed by dedicated threads from a bounded queue:
+ * the caller gets {@link #PENDING} and its callback gets the computed path on the AI thread pool.<br>
+ * Identical requests waiting in the queue, like monsters of a group chasing the same target, are computed only once.
+ */
+public final class PathFindingService
+{
+	protected static final Logger _log = Logger.getLogger(PathFindingService.class.getName());
+	
+	/** Returned while an asynchronous path is computed. */
+	public static final List<AbstractNodeLoc> PENDING = Collections.unmodifiableList(new ArrayList<AbstractNodeLoc>(0));
+	/** Cached result of a search which found no path. */
+	private static final List<AbstractNodeLoc> NO_PATH = Collections.unmodifiableList(new ArrayList<AbstractNodeLoc>(0));
+	
+	/** Locations are rounded to geodata cells (16 units) for the cache and the coalescing of requests, so a cached path always starts from the cell of the character. */
+	private static final int LOC_SHIFT = 4;
+	
+	private final Map<PathKey, CachedPath> _cache;
+	private final Map<PathKey, PathRequest> _pending = new ConcurrentHashMap<>();
+	/** Incremented when the cache is cleared, paths computed before are not cached. */
+	private int _cacheGeneration;
+	private final ThreadPoolExecutor _executor;
+	
+	private final LongAdder _requests = new LongAdder();
+	private final LongAdder _cacheHits = new LongAdder();
+	private final LongAdder _coalesced = new LongAdder();
+	private final LongAdder _rejected = new LongAdder();
+	protected final LongAdder _computed = new LongAdder();
+	protected final LongAdder _queueWaitTime = new LongAdder();
+	protected final LongAdder _computeTime = new LongAdder();
+	protected final AtomicLong _maxQueueWaitTime = new AtomicLong();
+	protected final AtomicLong _maxComputeTime = new AtomicLong();
+	
+	protected PathFindingService()
+	{
+		final int cacheSize = Config.PATHFIND_CACHE_SIZE;
+		_cache = (cacheSize > 0) ? new LinkedHashMap<PathKey, CachedPath>(cacheSize, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Entry<PathKey, CachedPath> eldest)
+			{
+				return size() > cacheSize;
+			}
+		} : null;
+		
+		if (Config.PATHFIND_ASYNC)
+		{
+			final AtomicInteger threadNumber = new AtomicInteger(1);
+			_executor = new ThreadPoolExecutor(Config.PATHFIND_THREADS, Config.PATHFIND_THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(Math.max(Config.PATHFIND_QUEUE_SIZE, 1)), r ->
+			{
+				final Thread t = new Thread(r, "PathFinding-" + threadNumber.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		else
+		{
+			_executor = null;
+		}
+	}
+	
+	/**
+	 * Finds the path of a moving character.
+	 * @param activeChar the moving character
+	 * @param x the start X
+	 * @param y the start Y
+	 * @param z the start Z
+	 * @param tx the destination X
+	 * @param ty the destination Y
+	 * @param tz the destination Z
+	 * @param onReady the callback getting the asynchronous path, or {@code null} if there is none, on the AI thread pool, {@code null} to compute the path synchronously
+	 * @return the path, {@code null} if there is none, or {@link #PENDING} if the path is computed asynchronously
+	 */
+	public List<AbstractNodeLoc> findPath(L2Character activeChar, int x, int y, int z, int tx, int ty, int tz, Consumer<List<AbstractNodeLoc>> onReady)
+	{
+		final int instanceId = activeChar.getInstanceId();
+		final boolean playable = activeChar.isPlayable();
+		if (_cache == null)
+		{
+			return PathFinding.getInstance().findPath(x, y, z, tx, ty, tz, instanceId, playable);
+		}
+		
+		_requests.increment();
+		final PathKey key = new PathKey(x, y, z, tx, ty, tz, instanceId, playable);
+		final List<AbstractNodeLoc> cached = getCachedPath(key);
+		if (cached != null)
+		{
+			_cacheHits.increment();
+			return (cached == NO_PATH) ? null : cached;
+		}
+		
+		if ((_executor == null) || (onReady == null))
+		{
+			return compute(key, x, y, z, tx, ty, tz);
+		}
+		
+		final PathRequest request = new PathRequest(key, x, y, z, tx, ty, tz);
+		final PathRequest queued = _pending.putIfAbsent(key, request);
+		if (queued != null)
+		{
+			if (queued.addWaiter(onReady))
+			{
+				_coalesced.increment();
+				return PENDING;
+			}
+			return getCompletedPath(key, x, y, z, tx, ty, tz);
+		}
+		
+		try
+		{
+			_executor.execute(request);
+		}
+		catch (RejectedExecutionException e)
+		{
+			// Queue full, don't let the character wait.
+			_rejected.increment();
+			List<AbstractNodeLoc> path = null;
+			boolean computed = false;
+			try
+			{
+				path = compute(key, x, y, z, tx, ty, tz);
+				computed = true;
+				return path;
+			}
+			finally
+			{
+				_pending.remove(key, request);
+				request.complete(computed, path);
+			}
+		}
+		
+		if (request.addWaiter(onReady))
+		{
+			return PENDING;
+		}
+		return getCompletedPath(key, x, y, z, tx, ty, tz);
+	}
+	
+	/**
+	 * @return the path of a request completed while the caller was joining it, from the cache unless it was evicted meanwhile
+	 */
+	private List<AbstractNodeLoc> getCompletedPath(PathKey key, int x, int y, int z, int tx, int ty, int tz)
+	{
+		final List<AbstractNodeLoc> path = getCachedPath(key);
+		if (path == null)
+		{
+			return compute(key, x, y, z, tx, ty, tz);
+		}
+		_cacheHits.increment();
+		return (path == NO_PATH) ? null : path;
+	}
+	
+	private List<AbstractNodeLoc> getCachedPath(PathKey key)
+	{
+		final CachedPath cached;
+		synchronized (_cache)
+		{
+			cached = _cache.get(key);
+		}
+		if ((cached == null) || (cached._expireTime < System.currentTimeMillis()))
+		{
+			return null;
+		}
+		return cached._path;
+	}
+	
+	protected List<AbstractNodeLoc> compute(PathKey key, int x, int y, int z, int tx, int ty, int tz)
+	{
+		final int generation;
+		synchronized (_cache)
+		{
+			generation = _cacheGeneration;
+		}
+		
+		final long start = System.nanoTime();
+		final List<AbstractNodeLoc> path = PathFinding.getInstance().findPath(x, y, z, tx, ty, tz, key._instanceId, key._playable);
+		final long time = System.nanoTime() - start;
+		_computed.increment();
+		_computeTime.add(time);
+		updateMax(_maxComputeTime, time);
+		
+		final List<AbstractNodeLoc> result = (path == null) ? NO_PATH : Collections.unmodifiableList(path);
+		final CachedPath cached = new CachedPath(result, System.currentTimeMillis() + Config.PATHFIND_CACHE_TIME);
+		synchronized (_cache)
+		{
+			// A door changed its state during the computation, the path may be stale.
+			if (generation == _cacheGeneration)
+			{
+				_cache.put(key, cached);
+			}
+		}
+		return (result == NO_PATH) ? null : result;
+	}
+	
+	protected static void updateMax(AtomicLong max, long value)
+	{
+		long current;
+		while (value > (current = max.get()))
+		{
+			if (max.compareAndSet(current, value))
+			{
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Removes all the cached paths, for example when a door changed its state.
+	 */
+	public void clearCache()
+	{
+		if (_cache != null)
+		{
+			synchronized (_cache)
+			{
+				_cache.clear();
+				_cacheGeneration++;
+			}
+		}
+	}
+	
+	/**
+	 * Stops the pathfinding threads, the waiting requests are dropped.
+	 */
+	public void shutdown()
+	{
+		if (_executor != null)
+		{
+			_executor.shutdownNow();
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final long computed = Math.max(_computed.sum(), 1);
+		final int cacheSize;
+		if (_cache != null)
+		{
+			synchronized (_cache)
+			{
+				cacheSize = _cache.size();
+			}
+		}
+		else
+		{
+			cacheSize = 0;
+		}
+		
+		return new String[]
+		{
+			"PathFinding Service:",
+			" |- Async:           " + Config.PATHFIND_ASYNC,
+			" |- Queued:          " + ((_executor != null) ? _executor.getQueue().size() : 0),
+			" |- Requests:        " + _requests.sum(),
+			" |- CacheHits:       " + _cacheHits.sum() + " (" + cacheSize + " cached)",
+			" |- Coalesced:       " + _coalesced.sum(),
+			" |- Rejected:        " + _rejected.sum(),
+			" |- Computed:        " + _computed.sum(),
+			" |- AvgQueueWait:    " + TimeUnit.NANOSECONDS.toMicros(_queueWaitTime.sum() / computed) + " us",
+			" |- MaxQueueWait:    " + TimeUnit.NANOSECONDS.toMillis(_maxQueueWaitTime.get()) + " ms",
+			" |- AvgComputeTime:  " + TimeUnit.NANOSECONDS.toMicros(_computeTime.sum() / computed) + " us",
+			" |- MaxComputeTime:  " + TimeUnit.NANOSECONDS.toMillis(_maxComputeTime.get()) + " ms"
+		};
+	}
+	
+	/**
+	 * An asynchronous path computation shared by all the characters waiting for the same route.
+	 */
+	private final class PathRequest implements Runnable
+	{
+		private final PathKey _key;
+		private final int _x, _y, _z, _tx, _ty, _tz;
+		private final long _queueTime = System.nanoTime();
+		private List<Consumer<List<AbstractNodeLoc>>> _waiters = new ArrayList<>(1);
+		
+		public PathRequest(PathKey key, int x, int y, int z, int tx, int ty, int tz)
+		{
+			_key = key;
+			_x = x;
+			_y = y;
+			_z = z;
+			_tx = tx;
+			_ty = ty;
+			_tz = tz;
+		}
+		
+		/**
+		 * @param waiter the callback getting the computed path
+		 * @return {@code false} if the request is already completed
+		 */
+		public synchronized boolean addWaiter(Consumer<List<AbstractNodeLoc>> waiter)
+		{
+			if (_waiters == null)
+			{
+				return false;
+			}
+			_waiters.add(waiter);
+			return true;
+		}
+		
+		@Override
+		public void run()
+		{
+			final long wait = System.nanoTime() - _queueTime;
+			_queueWaitTime.add(wait);
+			updateMax(_maxQueueWaitTime, wait);
+			
+			List<AbstractNodeLoc> path = null;
+			boolean computed = false;
+			try
+			{
+				path = compute(_key, _x, _y, _z, _tx, _ty, _tz);
+				computed = true;
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Failed to compute path " + _key + ": " + e.getMessage(), e);
+			}
+			finally
+			{
+				_pending.remove(_key, this);
+				complete(computed, path);
+			}
+		}
+		
+		/**
+		 * Closes the request and hands the path to the waiters on the AI thread pool.
+		 * @param notify {@code false} to drop the waiters
+		 * @param path the computed path, {@code null} if there is none
+		 */
+		public void complete(boolean notify, List<AbstractNodeLoc> path)
+		{
+			final List<Consumer<List<AbstractNodeLoc>>> waiters;
+			synchronized (this)
+			{
+				waiters = _waiters;
+				_waiters = null;
+			}
+			if (notify)
+			{
+				for (Consumer<List<AbstractNodeLoc>> waiter : waiters)
+				{
+					ThreadPoolManager.getInstance().executeAi(() -> waiter.accept(path));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Start and end locations rounded to {@link #LOC_SHIFT} with the parameters changing the computed path.
+	 */
+	protected static final class PathKey
+	{
+		private final int _x, _y, _z, _tx, _ty, _tz;
+		protected final int _instanceId;
+		protected final boolean _playable;
+		private final int _hashCode;
+		
+		public PathKey(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable)
+		{
+			_x = x >> LOC_SHIFT;
+			_y = y >> LOC_SHIFT;
+			_z = z >> LOC_SHIFT;
+			_tx = tx >> LOC_SHIFT;
+			_ty = ty >> LOC_SHIFT;
+			_tz = tz >> LOC_SHIFT;
+			_instanceId = instanceId;
+			_playable = playable;
+			
+			int hash = _x;
+			hash = (31 * hash) + _y;
+			hash = (31 * hash) + _z;
+			hash = (31 * hash) + _tx;
+			hash = (31 * hash) + _ty;
+			hash = (31 * hash) + _tz;
+			hash = (31 * hash) + _instanceId;
+			_hashCode = (31 * hash) + (_playable ? 1 : 0);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return _hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof PathKey))
+			{
+				return false;
+			}
+			final PathKey key = (PathKey) obj;
+			return (_x == key._x) && (_y == key._y) && (_z == key._z) && (_tx == key._tx) && (_ty == key._ty) && (_tz == key._tz) && (_instanceId == key._instanceId) && (_playable == key._playable);
+		}
+		
+		@Override
+		public String toString()
+		{
+			return "(" + (_x << LOC_SHIFT) + ", " + (_y << LOC_SHIFT) + ", " + (_z << LOC_SHIFT) + ") -> (" + (_tx << LOC_SHIFT) + ", " + (_ty << LOC_SHIFT) + ", " + (_tz << LOC_SHIFT) + ") instance " + _instanceId;
+		}
+	}
+	
+	private static final class CachedPath
+	{
+		protected final List<AbstractNodeLoc> _path;
+		protected final long _expireTime;
+		
+		public CachedPath(List<AbstractNodeLoc> path, long expireTime)
+		{
+			_path = path;
+			_expireTime = expireTime;
+		}
+	}
+	
+	public static PathFindingService getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final PathFindingService _instance = new PathFindingService();
+	}
+}
@@ -18,22 +18,51 @@
  */
 package com.l2jserver.gameserver.pathfinding.cellnodes;
 
+import java.util.Arrays;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javolution.util.FastList;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.gameserver.geoengine.Direction;
 
 /**
+ * Best-first search over the geodata cells of a square around the start and the target.<br>
+ * All the node data is held in primitive arrays indexed by cell, the open nodes are kept in a binary heap ordered by cost then by insertion order.<br>
+ * Nodes are stamped with the generation of the search that initialized them, so nothing has to be cleared between two searches.<br>
+ * A buffer is used by a single thread at a time, see {@link #lock()} and {@link #free()}.
  * @author DS Credits to Diamond
  */
 public class CellNodeBuffer
 {
 	private static final int MAX_ITERATIONS = 3500;
 	
-	private final ReentrantLock _lock = new ReentrantLock();
+	private static final byte GO_NORTH = 1;
+	private static final byte GO_EAST = 2;
+	private static final byte GO_SOUTH = 4;
+	private static final byte GO_WEST = 8;
+	private static final byte GO_ALL = GO_NORTH | GO_EAST | GO_SOUTH | GO_WEST;
+	
 	private final int _mapSize;
-	private final CellNode[][] _buffer;
+	/** Generation of the search which initialized each node, nodes of older generations are free. */
+	private final int[] _generation;
+	/** Directions each node can be left to. */
+	private final byte[] _flags;
+	/** Geodata height of each node. */
+	private final short[] _z;
+	/** Cost of each node, negative until the node is added to the open nodes. */
+	private final float[] _cost;
+	/** Parent of each node, -1 for the start node. */
+	private final int[] _parent;
+	/** Insertion order of each node, open nodes of same cost are visited in insertion order. */
+	private final int[] _order;
+	/** Open nodes, binary min-heap. */
+	private final int[] _heap;
+	private int _heapSize;
+	private int _insertions;
+	private int _currentGeneration = 0;
+	private final ReentrantLock _lock = new ReentrantLock();
 	
 	private int _baseX = 0;
 	private int _baseY = 0;
@@ -45,67 +74,96 @@ public class CellNodeBuffer
 	private long _timeStamp = 0;
 	private long _lastElapsedTime = 0;
 	
-	private CellNode _current = null;
+	private int _current = -1;
 	
 	public CellNodeBuffer(int size)
 	{
 		_mapSize = size;
-		_buffer = new CellNode[_mapSize][_mapSize];
+		final int nodes = size * size;
+		_generation = new int[nodes];
+		_flags = new byte[nodes];
+		_z = new short[nodes];
+		_cost = new float[nodes];
+		_parent = new int[nodes];
+		_order = new int[nodes];
+		_heap = new int[nodes];
+	}
+	
+	/**
+	 * @return the size of the square covered by this buffer, in geodata cells
+	 */
+	public final int getMapSize()
+	{
+		return _mapSize;
 	}
 	
+	/**
+	 * Marks this buffer as used.
+	 * @return {@code false} if the buffer is already in use
+	 */
 	public final boolean lock()
 	{
 		return _lock.tryLock();
 	}
 	
-	public final CellNode findPath(int x, int y, int z, int tx, int ty, int tz)
+	/**
+	 * Searches a path in geodata coordinates.
+	 * @param x the start x
+	 * @param y the start y
+	 * @param z the start z
+	 * @param tx the target x
+	 * @param ty the target y
+	 * @param tz the target z
+	 * @return the target node, -1 if no path was found
+	 */
+	public final int findPath(int x, int y, int z, int tx, int ty, int tz)
 	{
 		_timeStamp = System.currentTimeMillis();
+		if (++_currentGeneration == 0)
+		{
+			// All the generations were used, reset the stamps.
+			Arrays.fill(_generation, 0);
+			_currentGeneration = 1;
+		}
+		_heapSize = 0;
+		_insertions = 0;
+		
 		_baseX = x + ((tx - x - _mapSize) / 2); // middle of the line (x,y) - (tx,ty)
 		_baseY = y + ((ty - y - _mapSize) / 2); // will be in the center of the buffer
 		_targetX = tx;
 		_targetY = ty;
 		_targetZ = tz;
 		_current = getNode(x, y, z);
-		_current.setCost(getCost(x, y, z, Config.HIGH_WEIGHT));
+		if (_current < 0)
+		{
+			return -1;
+		}
+		_cost[_current] = getCost(x, y, z, Config.HIGH_WEIGHT);
+		_parent[_current] = -1;
 		
 		for (int count = 0; count < MAX_ITERATIONS; count++)
 		{
-			if ((_current.getLoc().getNodeX() == _targetX) && (_current.getLoc().getNodeY() == _targetY) && (Math.abs(_current.getLoc().getZ() - _targetZ) < 64))
+			if ((getNodeX(_current) == _targetX) && (getNodeY(_current) == _targetY) && (Math.abs(_z[_current] - _targetZ) < 64))
 			{
 				return _current; // found
 			}
 			
 			getNeighbors();
-			if (_current.getNext() == null)
+			if (_heapSize == 0)
 			{
-				return null; // no more ways
+				return -1; // no more ways
 			}
 			
-			_current = _current.getNext();
+			_current = poll();
 		}
-		return null;
+		return -1;
 	}
 	
 	public final void free()
 	{
-		_current = null;
-		
-		CellNode node;
-		for (int i = 0; i < _mapSize; i++)
-		{
-			for (int j = 0; j < _mapSize; j++)
-			{
-				node = _buffer[i][j];
-				if (node != null)
-				{
-					node.free();
-				}
-			}
-		}
-		
-		_lock.unlock();
+		_current = -1;
 		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
+		_lock.unlock();
 	}
 	
 	public final long getElapsedTime()
@@ -113,28 +171,65 @@ public class CellNodeBuffer
 		return _lastElapsedTime;
 	}
 	
+	/**
+	 * @param node the node
+	 * @return the geodata x of the node
+	 */
+	public final int getNodeX(int node)
+	{
+		return _baseX + (node / _mapSize);
+	}
+	
+	/**
+	 * @param node the node
+	 * @return the geodata y of the node
+	 */
+	public final int getNodeY(int node)
+	{
+		return _baseY + (node % _mapSize);
+	}
+	
+	/**
+	 * @param node the node
+	 * @return the parent of the node, -1 for the start node
+	 */
+	public final int getParent(int node)
+	{
+		return _parent[node];
+	}
+	
+	/**
+	 * @param node the node
+	 * @return the location of the node
+	 */
+	public final NodeLoc getLoc(int node)
+	{
+		final byte flags = _flags[node];
+		return new NodeLoc(getNodeX(node), getNodeY(node), _z[node], (flags & GO_NORTH) != 0, (flags & GO_EAST) != 0, (flags & GO_SOUTH) != 0, (flags & GO_WEST) != 0);
+	}
+	
 	public final FastList<CellNode> debugPath()
 	{
 		FastList<CellNode> result = new FastList<>();
 		
-		for (CellNode n = _current; n.getParent() != null; n = (CellNode) n.getParent())
+		for (int n = _current; (n >= 0) && (_parent[n] >= 0); n = _parent[n])
 		{
-			result.add(n);
-			n.setCost(-n.getCost());
+			final CellNode node = new CellNode(getLoc(n));
+			node.setCost(-_cost[n]);
+			result.add(node);
+			_cost[n] = -_cost[n];
 		}
 		
-		for (int i = 0; i < _mapSize; i++)
+		for (int n = 0; n < _generation.length; n++)
 		{
-			for (int j = 0; j < _mapSize; j++)
+			if ((_generation[n] != _currentGeneration) || (_cost[n] <= 0))
 			{
-				CellNode n = _buffer[i][j];
-				if ((n == null) || !n.isInUse() || (n.getCost() <= 0))
-				{
-					continue;
-				}
-				
-				result.add(n);
+				continue;
 			}
+			
+			final CellNode node = new CellNode(getLoc(n));
+			node.setCost(_cost[n]);
+			result.add(node);
 		}
 		
 		return result;
@@ -142,40 +237,41 @@ public class CellNodeBuffer
 	
 	private final void getNeighbors()
 	{
-		if (((NodeLoc) _current.getLoc()).canGoNone())
+		final byte flags = _flags[_current];
+		if ((flags & GO_ALL) == 0)
 		{
 			return;
 		}
 		
-		final int x = _current.getLoc().getNodeX();
-		final int y = _current.getLoc().getNodeY();
-		final int z = _current.getLoc().getZ();
+		final int x = getNodeX(_current);
+		final int y = getNodeY(_current);
+		final int z = _z[_current];
 		
-		CellNode nodeE = null;
-		CellNode nodeS = null;
-		CellNode nodeW = null;
-		CellNode nodeN = null;
+		int nodeE = -1;
+		int nodeS = -1;
+		int nodeW = -1;
+		int nodeN = -1;
 		
 		// East
-		if (((NodeLoc) _current.getLoc()).canGoEast())
+		if ((flags & GO_EAST) != 0)
 		{
 			nodeE = addNode(x + 1, y, z, false);
 		}
 		
 		// South
-		if (((NodeLoc) _current.getLoc()).canGoSouth())
+		if ((flags & GO_SOUTH) != 0)
 		{
 			nodeS = addNode(x, y + 1, z, false);
 		}
 		
 		// West
-		if (((NodeLoc) _current.getLoc()).canGoWest())
+		if ((flags & GO_WEST) != 0)
 		{
 			nodeW = addNode(x - 1, y, z, false);
 		}
 		
 		// North
-		if (((NodeLoc) _current.getLoc()).canGoNorth())
+		if ((flags & GO_NORTH) != 0)
 		{
 			nodeN = addNode(x, y - 1, z, false);
 		}
@@ -183,36 +279,36 @@ public class CellNodeBuffer
 		if (Config.ADVANCED_DIAGONAL_STRATEGY)
 		{
 			// SouthEast
-			if ((nodeE != null) && (nodeS != null))
+			if ((nodeE >= 0) && (nodeS >= 0))
 			{
-				if (((NodeLoc) nodeE.getLoc()).canGoSouth() && ((NodeLoc) nodeS.getLoc()).canGoEast())
+				if (((_flags[nodeE] & GO_SOUTH) != 0) && ((_flags[nodeS] & GO_EAST) != 0))
 				{
 					addNode(x + 1, y + 1, z, true);
 				}
 			}
 			
 			// SouthWest
-			if ((nodeS != null) && (nodeW != null))
+			if ((nodeS >= 0) && (nodeW >= 0))
 			{
-				if (((NodeLoc) nodeW.getLoc()).canGoSouth() && ((NodeLoc) nodeS.getLoc()).canGoWest())
+				if (((_flags[nodeW] & GO_SOUTH) != 0) && ((_flags[nodeS] & GO_WEST) != 0))
 				{
 					addNode(x - 1, y + 1, z, true);
 				}
 			}
 			
 			// NorthEast
-			if ((nodeN != null) && (nodeE != null))
+			if ((nodeN >= 0) && (nodeE >= 0))
 			{
-				if (((NodeLoc) nodeE.getLoc()).canGoNorth() && ((NodeLoc) nodeN.getLoc()).canGoEast())
+				if (((_flags[nodeE] & GO_NORTH) != 0) && ((_flags[nodeN] & GO_EAST) != 0))
 				{
 					addNode(x + 1, y - 1, z, true);
 				}
 			}
 			
 			// NorthWest
-			if ((nodeN != null) && (nodeW != null))
+			if ((nodeN >= 0) && (nodeW >= 0))
 			{
-				if (((NodeLoc) nodeW.getLoc()).canGoNorth() && ((NodeLoc) nodeN.getLoc()).canGoWest())
+				if (((_flags[nodeW] & GO_NORTH) != 0) && ((_flags[nodeN] & GO_WEST) != 0))
 				{
 					addNode(x - 1, y - 1, z, true);
 				}
@@ -220,61 +316,76 @@ public class CellNodeBuffer
 		}
 	}
 	
-	private final CellNode getNode(int x, int y, int z)
+	/**
+	 * Gets a node, initializing it from geodata the first time it is used by the current search.
+	 * @param x the geodata x
+	 * @param y the geodata y
+	 * @param z the z used to find the geodata layer
+	 * @return the node, -1 if the location is outside of this buffer
+	 */
+	private final int getNode(int x, int y, int z)
 	{
 		final int aX = x - _baseX;
 		if ((aX < 0) || (aX >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
 		final int aY = y - _baseY;
 		if ((aY < 0) || (aY >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
-		CellNode result = _buffer[aX][aY];
-		if (result == null)
-		{
-			result = new CellNode(new NodeLoc(x, y, z));
-			_buffer[aX][aY] = result;
-		}
-		else if (!result.isInUse())
+		final int node = (aX * _mapSize) + aY;
+		if (_generation[node] != _currentGeneration)
 		{
-			result.setInUse();
-			// reinit node if needed
-			if (result.getLoc() != null)
+			final GeoData geoData = GeoData.getInstance();
+			byte flags = 0;
+			if (geoData.canEnterNeighbors(x, y, z, Direction.NORTH))
 			{
-				((NodeLoc) result.getLoc()).set(x, y, z);
+				flags |= GO_NORTH;
 			}
-			else
+			if (geoData.canEnterNeighbors(x, y, z, Direction.EAST))
 			{
-				result.setLoc(new NodeLoc(x, y, z));
+				flags |= GO_EAST;
 			}
+			if (geoData.canEnterNeighbors(x, y, z, Direction.SOUTH))
+			{
+				flags |= GO_SOUTH;
+			}
+			if (geoData.canEnterNeighbors(x, y, z, Direction.WEST))
+			{
+				flags |= GO_WEST;
+			}
+			
+			_generation[node] = _currentGeneration;
+			_flags[node] = flags;
+			_z[node] = (short) geoData.getNearestZ(x, y, z);
+			_cost[node] = -1;
+			_parent[node] = -1;
 		}
-		
-		return result;
+		return node;
 	}
 	
-	private final CellNode addNode(int x, int y, int z, boolean diagonal)
+	private final int addNode(int x, int y, int z, boolean diagonal)
 	{
-		CellNode newNode = getNode(x, y, z);
-		if (newNode == null)
+		final int newNode = getNode(x, y, z);
+		if (newNode < 0)
 		{
-			return null;
+			return -1;
 		}
-		if (newNode.getCost() >= 0)
+		if (_cost[newNode] >= 0)
 		{
 			return newNode;
 		}
 		
-		final int geoZ = newNode.getLoc().getZ();
+		final int geoZ = _z[newNode];
 		
-		final int stepZ = Math.abs(geoZ - _current.getLoc().getZ());
+		final int stepZ = Math.abs(geoZ - _z[_current]);
 		float weight = diagonal ? Config.DIAGONAL_WEIGHT : Config.LOW_WEIGHT;
 		
-		if (!((NodeLoc) newNode.getLoc()).canGoAll() || (stepZ > 16))
+		if ((_flags[newNode] != GO_ALL) || (stepZ > 16))
 		{
 			weight = Config.HIGH_WEIGHT;
 		}
@@ -298,45 +409,27 @@ public class CellNodeBuffer
 			}
 		}
 		
-		newNode.setParent(_current);
-		newNode.setCost(getCost(x, y, geoZ, weight));
-		
-		CellNode node = _current;
-		int count = 0;
-		while ((node.getNext() != null) && (count < (MAX_ITERATIONS * 4)))
-		{
-			count++;
-			if (node.getNext().getCost() > newNode.getCost())
-			{
-				// insert node into a chain
-				newNode.setNext(node.getNext());
-				break;
-			}
-			node = node.getNext();
-		}
-		if (count == (MAX_ITERATIONS * 4))
-		{
-			System.err.println("Pathfinding: too long loop detected, cost:" + newNode.getCost());
-		}
-		
-		node.setNext(newNode); // add last
+		_parent[newNode] = _current;
+		_cost[newNode] = getCost(x, y, geoZ, weight);
+		_order[newNode] = _insertions++;
+		offer(newNode);
 		
 		return newNode;
 	}
 	
 	private final boolean isHighWeight(int x, int y, int z)
 	{
-		final CellNode result = getNode(x, y, z);
-		if (result == null)
+		final int node = getNode(x, y, z);
+		if (node < 0)
 		{
 			return true;
 		}
 		
-		if (!((NodeLoc) result.getLoc()).canGoAll())
+		if (_flags[node] != GO_ALL)
 		{
 			return true;
 		}
-		if (Math.abs(result.getLoc().getZ() - z) > 16)
+		if (Math.abs(_z[node] - z) > 16)
 		{
 			return true;
 		}
@@ -344,7 +437,7 @@ public class CellNodeBuffer
 		return false;
 	}
 	
-	private final double getCost(int x, int y, int z, float weight)
+	private final float getCost(int x, int y, int z, float weight)
 	{
 		final int dX = x - _targetX;
 		final int dY = y - _targetY;
@@ -361,6 +454,53 @@ public class CellNodeBuffer
 			result = Float.MAX_VALUE;
 		}
 		
+		return (float) result;
+	}
+	
+	private final boolean isLower(int node1, int node2)
+	{
+		return (_cost[node1] < _cost[node2]) || ((_cost[node1] == _cost[node2]) && (_order[node1] < _order[node2]));
+	}
+	
+	private final void offer(int node)
+	{
+		int i = _heapSize++;
+		while (i > 0)
+		{
+			final int parent = (i - 1) >>> 1;
+			if (!isLower(node, _heap[parent]))
+			{
+				break;
+			}
+			_heap[i] = _heap[parent];
+			i = parent;
+		}
+		_heap[i] = node;
+	}
+	
+	private final int poll()
+	{
+		final int result = _heap[0];
+		final int last = _heap[--_heapSize];
+		int i = 0;
+		int child;
+		while ((child = (i << 1) + 1) < _heapSize)
+		{
+			if (((child + 1) < _heapSize) && isLower(_heap[child + 1], _heap[child]))
+			{
+				child++;
+			}
+			if (!isLower(_heap[child], last))
+			{
+				break;
+			}
+			_heap[i] = _heap[child];
+			i = child;
+		}
+		if (_heapSize > 0)
+		{
+			_heap[i] = last;
+		}
 		return result;
 	}
-}
\ No newline at end of file
+}
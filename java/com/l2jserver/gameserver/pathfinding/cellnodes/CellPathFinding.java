@@ -19,8 +19,9 @@
 package com.l2jserver.gameserver.pathfinding.cellnodes;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,7 +32,6 @@ import com.l2jserver.gameserver.GeoData;
 import com.l2jserver.gameserver.idfactory.IdFactory;
 import com.l2jserver.gameserver.model.itemcontainer.Inventory;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
-import com.l2jserver.gameserver.pathfinding.AbstractNode;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
 import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.util.StringUtil;
@@ -138,10 +138,10 @@ public class CellPathFinding extends PathFinding
 			}
 		}
 		
-		FastList<AbstractNodeLoc> path = null;
+		List<AbstractNodeLoc> path = null;
 		try
 		{
-			CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			int result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
 			
 			if (debug)
 			{
@@ -159,13 +159,13 @@ public class CellPathFinding extends PathFinding
 				}
 			}
 			
-			if (result == null)
+			if (result < 0)
 			{
 				_findFails++;
 				return null;
 			}
 			
-			path = constructPath(result);
+			path = constructPath(buffer, result);
 		}
 		catch (Exception e)
 		{
@@ -175,6 +175,14 @@ public class CellPathFinding extends PathFinding
 		finally
 		{
 			buffer.free();
+			for (BufferInfo i : _allBuffers)
+			{
+				if (i.mapSize == buffer.getMapSize())
+				{
+					i.elapsed += buffer.getElapsedTime();
+					break;
+				}
+			}
 		}
 		
 		if ((path.size() < 3) || (Config.MAX_POSTFILTER_PASSES <= 0))
@@ -191,7 +199,6 @@ public class CellPathFinding extends PathFinding
 		}
 		
 		int currentX, currentY, currentZ;
-		ListIterator<AbstractNodeLoc> middlePoint, endPoint;
 		AbstractNodeLoc locMiddle, locEnd;
 		boolean remove;
 		int pass = 0;
@@ -200,21 +207,20 @@ public class CellPathFinding extends PathFinding
 			pass++;
 			_postFilterPasses++;
 			
+			// Compacts the path in place, a point is dropped when the next one can be reached directly from the last kept point.
 			remove = false;
-			middlePoint = path.listIterator();
-			endPoint = path.listIterator(1);
-			locEnd = null;
 			currentX = x;
 			currentY = y;
 			currentZ = z;
 			
-			while (endPoint.hasNext())
+			final int size = path.size();
+			int kept = 0;
+			for (int i = 0; i < (size - 1); i++)
 			{
-				locEnd = endPoint.next();
-				locMiddle = middlePoint.next();
+				locMiddle = path.get(i);
+				locEnd = path.get(i + 1);
 				if (GeoData.getInstance().canMove(currentX, currentY, currentZ, locEnd.getX(), locEnd.getY(), locEnd.getZ(), instanceId))
 				{
-					middlePoint.remove();
 					remove = true;
 					if (debug)
 					{
@@ -223,22 +229,23 @@ public class CellPathFinding extends PathFinding
 				}
 				else
 				{
+					path.set(kept++, locMiddle);
 					currentX = locMiddle.getX();
 					currentY = locMiddle.getY();
 					currentZ = locMiddle.getZ();
 				}
 			}
+			path.set(kept++, path.get(size - 1));
+			path.subList(kept, size).clear();
 		}
 		// only one postfilter pass for AI
 		while (playable && remove && (path.size() > 2) && (pass < Config.MAX_POSTFILTER_PASSES));
 		
 		if (debug)
 		{
-			middlePoint = path.listIterator();
-			while (middlePoint.hasNext())
+			for (AbstractNodeLoc loc : path)
 			{
-				locMiddle = middlePoint.next();
-				dropDebugItem(65, 1, locMiddle);
+				dropDebugItem(65, 1, loc);
 			}
 		}
 		
@@ -247,19 +254,21 @@ public class CellPathFinding extends PathFinding
 		return path;
 	}
 	
-	private FastList<AbstractNodeLoc> constructPath(AbstractNode node)
+	private List<AbstractNodeLoc> constructPath(CellNodeBuffer buffer, int node)
 	{
-		FastList<AbstractNodeLoc> path = new FastList<>();
+		final List<AbstractNodeLoc> path = new ArrayList<>();
 		int previousDirectionX = Integer.MIN_VALUE;
 		int previousDirectionY = Integer.MIN_VALUE;
 		int directionX, directionY;
 		
-		while (node.getParent() != null)
+		int parent;
+		while ((parent = buffer.getParent(node)) >= 0)
 		{
-			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (node.getParent().getParent() != null))
+			final int grandParent = buffer.getParent(parent);
+			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (grandParent >= 0))
 			{
-				int tmpX = node.getLoc().getNodeX() - node.getParent().getParent().getLoc().getNodeX();
-				int tmpY = node.getLoc().getNodeY() - node.getParent().getParent().getLoc().getNodeY();
+				int tmpX = buffer.getNodeX(node) - buffer.getNodeX(grandParent);
+				int tmpY = buffer.getNodeY(node) - buffer.getNodeY(grandParent);
 				if (Math.abs(tmpX) == Math.abs(tmpY))
 				{
 					directionX = tmpX;
@@ -267,14 +276,14 @@ public class CellPathFinding extends PathFinding
 				}
 				else
 				{
-					directionX = node.getLoc().getNodeX() - node.getParent().getLoc().getNodeX();
-					directionY = node.getLoc().getNodeY() - node.getParent().getLoc().getNodeY();
+					directionX = buffer.getNodeX(node) - buffer.getNodeX(parent);
+					directionY = buffer.getNodeY(node) - buffer.getNodeY(parent);
 				}
 			}
 			else
 			{
-				directionX = node.getLoc().getNodeX() - node.getParent().getLoc().getNodeX();
-				directionY = node.getLoc().getNodeY() - node.getParent().getLoc().getNodeY();
+				directionX = buffer.getNodeX(node) - buffer.getNodeX(parent);
+				directionY = buffer.getNodeY(node) - buffer.getNodeY(parent);
 			}
 			
 			// only add a new route point if moving direction changes
@@ -283,66 +292,67 @@ public class CellPathFinding extends PathFinding
 				previousDirectionX = directionX;
 				previousDirectionY = directionY;
 				
-				path.addFirst(node.getLoc());
-				node.setLoc(null);
+				path.add(buffer.getLoc(node));
 			}
 			
-			node = node.getParent();
+			node = parent;
 		}
 		
+		Collections.reverse(path);
 		return path;
 	}
 	
+	/**
+	 * Gets a free buffer of the shared pool, it is given back by {@link CellNodeBuffer#free()}.<br>
+	 * Up to the configured count of buffers of each size are kept in the pool.<br>
+	 * When all of them are in use a temporary buffer is allocated, so a path is never refused.
+	 * @param size the minimal size of the buffer
+	 * @param playable {@code true} if the path is searched for a playable
+	 * @return the locked buffer, {@code null} if no buffer is large enough
+	 */
 	private final CellNodeBuffer alloc(int size, boolean playable)
 	{
-		CellNodeBuffer current = null;
 		for (BufferInfo i : _allBuffers)
 		{
-			if (i.mapSize >= size)
+			if (i.mapSize < size)
 			{
-				for (CellNodeBuffer buf : i.bufs)
-				{
-					if (buf.lock())
-					{
-						i.uses++;
-						if (playable)
-						{
-							i.playableUses++;
-						}
-						i.elapsed += buf.getElapsedTime();
-						current = buf;
-						break;
-					}
-				}
-				if (current != null)
+				continue;
+			}
+			
+			CellNodeBuffer current = null;
+			for (CellNodeBuffer buf : i.bufs)
+			{
+				if (buf.lock())
 				{
+					current = buf;
 					break;
 				}
-				
-				// not found, allocate temporary buffer
+			}
+			
+			if (current == null)
+			{
+				// not found, allocate a new buffer and keep it in the pool if there is room left
 				current = new CellNodeBuffer(i.mapSize);
 				current.lock();
-				if (i.bufs.size() < i.count)
+				if (!i.offer(current))
 				{
-					i.bufs.add(current);
-					i.uses++;
+					i.overflows++;
 					if (playable)
 					{
-						i.playableUses++;
+						i.playableOverflows++;
 					}
-					break;
-				}
-				
-				i.overflows++;
-				if (playable)
-				{
-					i.playableOverflows++;
-					// System.err.println("Overflow, size requested: " + size + " playable:"+playable);
 				}
 			}
+			
+			i.uses++;
+			if (playable)
+			{
+				i.playableUses++;
+			}
+			return current;
 		}
 		
-		return current;
+		return null;
 	}
 	
 	private final void dropDebugItem(int itemId, int num, AbstractNodeLoc loc)
@@ -357,7 +367,7 @@ public class CellPathFinding extends PathFinding
 	{
 		final int mapSize;
 		final int count;
-		ArrayList<CellNodeBuffer> bufs;
+		final List<CellNodeBuffer> bufs = new CopyOnWriteArrayList<>();
 		int uses = 0;
 		int playableUses = 0;
 		int overflows = 0;
@@ -368,7 +378,21 @@ public class CellPathFinding extends PathFinding
 		{
 			mapSize = size;
 			count = cnt;
-			bufs = new ArrayList<>(count);
+		}
+		
+		/**
+		 * Adds a buffer to the pool.
+		 * @param buf the buffer
+		 * @return {@code false} if the pool is full
+		 */
+		synchronized boolean offer(CellNodeBuffer buf)
+		{
+			if (bufs.size() >= count)
+			{
+				return false;
+			}
+			bufs.add(buf);
+			return true;
 		}
 		
 		@Override
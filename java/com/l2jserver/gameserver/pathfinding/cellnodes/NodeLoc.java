@@ -40,6 +40,27 @@ public class NodeLoc extends AbstractNodeLoc
 		set(x, y, z);
 	}
 	
+	/**
+	 * Creates a node location from already known geodata values.
+	 * @param x the geodata x
+	 * @param y the geodata y
+	 * @param geoHeight the geodata height
+	 * @param goNorth {@code true} if the north neighbor can be entered
+	 * @param goEast {@code true} if the east neighbor can be entered
+	 * @param goSouth {@code true} if the south neighbor can be entered
+	 * @param goWest {@code true} if the west neighbor can be entered
+	 */
+	public NodeLoc(int x, int y, int geoHeight, boolean goNorth, boolean goEast, boolean goSouth, boolean goWest)
+	{
+		_x = x;
+		_y = y;
+		_geoHeight = geoHeight;
+		_goNorth = goNorth;
+		_goEast = goEast;
+		_goSouth = goSouth;
+		_goWest = goWest;
+	}
+	
 	public void set(int x, int y, int z)
 	{
 		_x = x;
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.ai.L2AttackableAI;
+import com.l2jserver.gameserver.model.L2WorldRegion;
+
+/**
+ * Shared think scheduler of the attackable AIs, used with {@link Config#AI_TICK_SCHEDULER}.<br>
+ * Instead of a repeating task per active AI, the AIs are grouped by world region and each group is given one game tick of the second.<br>
+ * Every game tick, the groups of the current tick think in one batch per group on the AI thread pool, so each AI still thinks once per second.<br>
+ * An AI moving to another region is moved to the group of this region on its next think.
+ */
+public final class AiTaskManager implements Runnable
+{
+	protected static final Logger _log = Logger.getLogger(AiTaskManager.class.getName());
+	
+	/** Thinks slower than this are recorded by npc id, in nanoseconds. */
+	private static final long SLOW_THINK_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+	/** Number of npc ids shown in the stats. */
+	private static final int SLOWEST_COUNT = 10;
+	/** Delay before the first think of an AI, like the initial delay of the repeating task, in nanoseconds. */
+	private static final long FIRST_THINK_DELAY = TimeUnit.SECONDS.toNanos(1);
+	
+	private final Map<L2WorldRegion, Group> _groups = new ConcurrentHashMap<>();
+	/** The AIs of characters not in a world region yet. */
+	private final Group _noRegionGroup = new Group(null, 0);
+	@SuppressWarnings("unchecked")
+	private final List<Group>[] _slots = new List[GameTimeController.TICKS_PER_SECOND];
+	private final AtomicInteger _nextSlot = new AtomicInteger(1);
+	private long _tick;
+	
+	private final LongAdder[] _slotTime = new LongAdder[GameTimeController.TICKS_PER_SECOND];
+	private final long[] _lastSlotTime = new long[GameTimeController.TICKS_PER_SECOND];
+	protected final LongAdder _thinks = new LongAdder();
+	private final LongAdder _overruns = new LongAdder();
+	private final AtomicLong _maxTickTime = new AtomicLong();
+	protected final Map<Integer, Long> _slowestThinks = new ConcurrentHashMap<>();
+	
+	protected AiTaskManager()
+	{
+		for (int i = 0; i < _slots.length; i++)
+		{
+			_slots[i] = new ArrayList<>();
+			_slotTime[i] = new LongAdder();
+		}
+		_slots[0].add(_noRegionGroup);
+		
+		if (Config.AI_TICK_SCHEDULER)
+		{
+			ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, GameTimeController.MILLIS_IN_TICK, GameTimeController.MILLIS_IN_TICK);
+		}
+	}
+	
+	/**
+	 * Starts the periodic thinking of an AI.
+	 * @param ai the AI
+	 * @return the task of the AI, to cancel to stop thinking
+	 */
+	public Future<?> add(L2AttackableAI ai)
+	{
+		final AiTask task = new AiTask(ai);
+		getGroup(ai.getActor().getWorldRegion()).add(task);
+		return task;
+	}
+	
+	protected Group getGroup(L2WorldRegion region)
+	{
+		if (region == null)
+		{
+			return _noRegionGroup;
+		}
+		
+		return _groups.computeIfAbsent(region, r ->
+		{
+			final Group group = new Group(r, _nextSlot.getAndIncrement() % _slots.length);
+			synchronized (_slots)
+			{
+				_slots[group._slot].add(group);
+			}
+			return group;
+		});
+	}
+	
+	@Override
+	public void run()
+	{
+		final int slot = (int) (_tick++ % _slots.length);
+		
+		// The batches of this slot started one second ago are done by now.
+		final long time = _slotTime[slot].sumThenReset();
+		_lastSlotTime[slot] = time;
+		_maxTickTime.accumulateAndGet(time, Math::max);
+		
+		final Group[] groups;
+		synchronized (_slots)
+		{
+			groups = _slots[slot].toArray(new Group[_slots[slot].size()]);
+		}
+		
+		for (Group group : groups)
+		{
+			if (group._tasks.isEmpty())
+			{
+				continue;
+			}
+			
+			if (!group._running.compareAndSet(false, true))
+			{
+				// Still thinking since last second, don't let its AIs think twice at once.
+				_overruns.increment();
+				continue;
+			}
+			ThreadPoolManager.getInstance().executeAi(group);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		int active = _noRegionGroup._tasks.size();
+		for (Group group : _groups.values())
+		{
+			active += group._tasks.size();
+		}
+		
+		long secondTime = 0;
+		for (long time : _lastSlotTime)
+		{
+			secondTime += time;
+		}
+		
+		final List<Map.Entry<Integer, Long>> slowest = new ArrayList<>(_slowestThinks.entrySet());
+		slowest.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < Math.min(SLOWEST_COUNT, slowest.size()); i++)
+		{
+			final Map.Entry<Integer, Long> entry = slowest.get(i);
+			sb.append((i > 0) ? ", " : "").append(entry.getKey()).append(" (").append(TimeUnit.NANOSECONDS.toMicros(entry.getValue())).append(" us)");
+		}
+		
+		return new String[]
+		{
+			"AI Tick Scheduler:",
+			" |- Enabled:         " + Config.AI_TICK_SCHEDULER,
+			" |- ActiveAIs:       " + active + " in " + _groups.size() + " regions",
+			" |- Thinks:          " + _thinks.sum(),
+			" |- Overruns:        " + _overruns.sum(),
+			" |- LastSecondTime:  " + TimeUnit.NANOSECONDS.toMillis(secondTime) + " ms",
+			" |- AvgTickTime:     " + TimeUnit.NANOSECONDS.toMicros(secondTime / _slots.length) + " us",
+			" |- MaxTickTime:     " + TimeUnit.NANOSECONDS.toMillis(_maxTickTime.get()) + " ms",
+			" |- SlowestNpcIds:   " + sb
+		};
+	}
+	
+	/**
+	 * The AIs of a world region, thinking in one batch.
+	 */
+	protected final class Group implements Runnable
+	{
+		protected final L2WorldRegion _region;
+		protected final int _slot;
+		protected final Set<AiTask> _tasks = ConcurrentHashMap.newKeySet();
+		protected final AtomicBoolean _running = new AtomicBoolean();
+		
+		public Group(L2WorldRegion region, int slot)
+		{
+			_region = region;
+			_slot = slot;
+		}
+		
+		public void add(AiTask task)
+		{
+			task._group = this;
+			_tasks.add(task);
+			if (task.isCancelled())
+			{
+				// Cancelled while moving between groups.
+				_tasks.remove(task);
+			}
+		}
+		
+		@Override
+		public void run()
+		{
+			final long start = System.nanoTime();
+			try
+			{
+				for (AiTask task : _tasks)
+				{
+					if (task.isCancelled())
+					{
+						_tasks.remove(task);
+						continue;
+					}
+					
+					if ((start - task._firstThink) < 0)
+					{
+						continue;
+					}
+					
+					final L2WorldRegion region = task._ai.getActor().getWorldRegion();
+					if (region != _region)
+					{
+						// Thinks with its new group.
+						_tasks.remove(task);
+						getGroup(region).add(task);
+						continue;
+					}
+					
+					final long thinkStart = System.nanoTime();
+					try
+					{
+						task._ai.run();
+					}
+					catch (Exception e)
+					{
+						_log.log(Level.WARNING, AiTaskManager.class.getSimpleName() + ": " + task._ai + " failed to think: " + e.getMessage(), e);
+					}
+					
+					final long thinkTime = System.nanoTime() - thinkStart;
+					if (thinkTime > SLOW_THINK_TIME)
+					{
+						_slowestThinks.merge(task._ai.getActor().getId(), thinkTime, Math::max);
+					}
+					_thinks.increment();
+				}
+			}
+			finally
+			{
+				_slotTime[_slot].add(System.nanoTime() - start);
+				_running.set(false);
+			}
+		}
+	}
+	
+	/**
+	 * The periodic thinking of an AI, cancelled like the repeating task it replaces.
+	 */
+	private static final class AiTask implements Future<Object>
+	{
+		protected final L2AttackableAI _ai;
+		/** Time of the first think, in {@link System#nanoTime()} units. */
+		protected final long _firstThink = System.nanoTime() + FIRST_THINK_DELAY;
+		protected volatile Group _group;
+		private volatile boolean _cancelled;
+		
+		public AiTask(L2AttackableAI ai)
+		{
+			_ai = ai;
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			if (_cancelled)
+			{
+				return false;
+			}
+			_cancelled = true;
+			
+			final Group group = _group;
+			if (group != null)
+			{
+				group._tasks.remove(this);
+			}
+			return true;
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _cancelled;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _cancelled;
+		}
+		
+		@Override
+		public Object get()
+		{
+			return null;
+		}
+		
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+		{
+			return null;
+		}
+	}
+	
+	public static AiTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final AiTaskManager _instance = new AiTaskManager();
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.model.CharEffectList;
+import com.l2jserver.util.HashedTimingWheel;
+
+/**
+ * Buff clock, used with {@link Config#BUFF_TIMING_WHEEL}.<br>
+ * The buff durations and the over-time effect ticks of all characters wait in a single timing wheel instead of the delay queue of the effects thread pool.<br>
+ * When timers are due, they are handed to the {@link CharEffectList} of the affected character, which runs all its due timers in one effects thread pool task.<br>
+ * Timers never run early, but may run up to one game tick late. Periodic timers keep their fixed rate.
+ */
+public final class BuffTaskManager
+{
+	protected static final Logger _log = Logger.getLogger(BuffTaskManager.class.getName());
+	
+	private static final int WHEEL_SIZE = 4096;
+	
+	private final HashedTimingWheel _wheel = new HashedTimingWheel("BuffTimingWheel", GameTimeController.MILLIS_IN_TICK, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+	
+	protected final AtomicInteger _liveTimers = new AtomicInteger();
+	private final LongAdder _scheduledTimers = new LongAdder();
+	protected final LongAdder _firedTimers = new LongAdder();
+	protected final LongAdder _cancelledTimers = new LongAdder();
+	private final LongAdder _batches = new LongAdder();
+	private final LongAdder _batchedTimers = new LongAdder();
+	private final AtomicLong _maxBatchSize = new AtomicLong();
+	
+	protected BuffTaskManager()
+	{
+	}
+	
+	/**
+	 * Schedules a buff timer.
+	 * @param effectList the effect list of the affected character, which runs the timer when it is due
+	 * @param task the task to run
+	 * @param delay the delay before the first run, in milliseconds
+	 * @param period the period between runs in milliseconds, 0 to run the task only once
+	 * @return the timer, which can be cancelled like any scheduled task
+	 */
+	public ScheduledFuture<?> schedule(CharEffectList effectList, Runnable task, long delay, long period)
+	{
+		final BuffTimer timer = new BuffTimer(effectList, task, TimeUnit.MILLISECONDS.toNanos(delay), TimeUnit.MILLISECONDS.toNanos(period));
+		_liveTimers.incrementAndGet();
+		_scheduledTimers.increment();
+		_wheel.add(timer);
+		return timer;
+	}
+	
+	/**
+	 * Counts a run of the due timers of an effect list.
+	 * @param size the number of timers run
+	 */
+	public void countBatch(int size)
+	{
+		_batches.increment();
+		_batchedTimers.add(size);
+		_maxBatchSize.accumulateAndGet(size, Math::max);
+	}
+	
+	/**
+	 * @return the number of buff timers waiting or running, cancelled and finished timers excluded
+	 */
+	public int getLiveTimers()
+	{
+		return _liveTimers.get();
+	}
+	
+	public String[] getStats()
+	{
+		final long batches = _batches.sum();
+		return new String[]
+		{
+			"Buff Timing Wheel:",
+			" |- Enabled:         " + Config.BUFF_TIMING_WHEEL,
+			" |- LiveTimers:      " + getLiveTimers(),
+			" |- WheelSize:       " + _wheel.size(),
+			" |- Scheduled:       " + _scheduledTimers.sum(),
+			" |- Fired:           " + _firedTimers.sum(),
+			" |- Cancelled:       " + _cancelledTimers.sum(),
+			" |- Batches:         " + batches,
+			" |- AvgBatchSize:    " + (batches > 0 ? _batchedTimers.sum() / batches : 0),
+			" |- MaxBatchSize:    " + _maxBatchSize.get()
+		};
+	}
+	
+	/**
+	 * A buff duration or effect tick timer.
+	 */
+	private final class BuffTimer extends HashedTimingWheel.Timeout implements ScheduledFuture<Object>, Runnable
+	{
+		private static final int WAITING = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
+		private static final int CANCELLED = 3;
+		
+		private final CharEffectList _effectList;
+		private final Runnable _task;
+		private final long _period;
+		private final AtomicInteger _state = new AtomicInteger(WAITING);
+		
+		public BuffTimer(CharEffectList effectList, Runnable task, long delay, long period)
+		{
+			_deadline = System.nanoTime() + delay;
+			_effectList = effectList;
+			_task = task;
+			_period = period;
+		}
+		
+		@Override
+		protected void expire()
+		{
+			_effectList.queueDueTimer(this);
+		}
+		
+		@Override
+		public void run()
+		{
+			if (!_state.compareAndSet(WAITING, RUNNING))
+			{
+				return;
+			}
+			
+			_firedTimers.increment();
+			try
+			{
+				_task.run();
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, BuffTaskManager.class.getSimpleName() + ": Exception while running buff timer " + _task, e);
+			}
+			
+			if (_period > 0)
+			{
+				// The task may have cancelled its own timer.
+				if (_state.compareAndSet(RUNNING, WAITING))
+				{
+					_deadline += _period;
+					_wheel.add(this);
+				}
+			}
+			else if (_state.compareAndSet(RUNNING, DONE))
+			{
+				finish();
+			}
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			int state;
+			while (((state = _state.get()) == WAITING) || (state == RUNNING))
+			{
+				if (_state.compareAndSet(state, CANCELLED))
+				{
+					_cancelledTimers.increment();
+					finish();
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		private synchronized void finish()
+		{
+			_liveTimers.decrementAndGet();
+			notifyAll();
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _state.get() == CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _state.get() >= DONE;
+		}
+		
+		@Override
+		public synchronized Object get() throws InterruptedException, ExecutionException
+		{
+			while (!isDone())
+			{
+				wait();
+			}
+			return getResult();
+		}
+		
+		@Override
+		public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+		{
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			long remaining;
+			while (!isDone())
+			{
+				if ((remaining = deadline - System.nanoTime()) <= 0)
+				{
+					throw new TimeoutException();
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+			return getResult();
+		}
+		
+		private Object getResult()
+		{
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert(_deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed o)
+		{
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+		
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + "[" + _task + ", period " + TimeUnit.NANOSECONDS.toMillis(_period) + " ms]";
+		}
+	}
+	
+	public static BuffTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final BuffTaskManager _instance = new BuffTaskManager();
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Write-behind queue for item inserts and updates, used with {@link Config#ITEM_WRITE_BEHIND}.<br>
+ * Changes are coalesced by object id and written in JDBC batches every {@link Config#ITEM_WRITE_BEHIND_INTERVAL} milliseconds.<br>
+ * Item removals and forced updates (character logout and store) are written immediately and drop the queued change, the queue is flushed on shutdown.<br>
+ * On a crash at most the changes of the last interval are lost.
+ */
+public final class ItemPersistenceTaskManager
+{
+	private final Map<Integer, L2ItemInstance> _pendingItems = new ConcurrentHashMap<>();
+	
+	private final LongAdder _queuedChanges = new LongAdder();
+	private final LongAdder _coalescedChanges = new LongAdder();
+	private final AtomicLong _flushes = new AtomicLong();
+	private final AtomicLong _flushedItems = new AtomicLong();
+	private final AtomicLong _totalFlushTime = new AtomicLong();
+	private final AtomicLong _maxFlushTime = new AtomicLong();
+	private final AtomicLong _maxFlushSize = new AtomicLong();
+	
+	protected ItemPersistenceTaskManager()
+	{
+		if (Config.ITEM_WRITE_BEHIND)
+		{
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this::flush, Config.ITEM_WRITE_BEHIND_INTERVAL, Config.ITEM_WRITE_BEHIND_INTERVAL);
+		}
+	}
+	
+	/**
+	 * Queues the item for the next flush, the values written are the ones of the item at flush time.
+	 * @param item the changed item
+	 */
+	public void add(L2ItemInstance item)
+	{
+		_queuedChanges.increment();
+		if (_pendingItems.put(item.getObjectId(), item) != null)
+		{
+			_coalescedChanges.increment();
+		}
+	}
+	
+	/**
+	 * Drops the queued change of the item, when it is written or removed right away.
+	 * @param item the item
+	 */
+	public void remove(L2ItemInstance item)
+	{
+		_pendingItems.remove(item.getObjectId(), item);
+	}
+	
+	/**
+	 * @return the number of items waiting for the next flush
+	 */
+	public int getPendingCount()
+	{
+		return _pendingItems.size();
+	}
+	
+	/**
+	 * Writes all queued items to the database.
+	 */
+	public synchronized void flush()
+	{
+		if (_pendingItems.isEmpty())
+		{
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		final List<L2ItemInstance> items = new ArrayList<>(_pendingItems.size());
+		final Iterator<L2ItemInstance> it = _pendingItems.values().iterator();
+		while (it.hasNext())
+		{
+			// Removed before the item values are read, a change made meanwhile is either written now or queued again.
+			items.add(it.next());
+			it.remove();
+		}
+		
+		L2ItemInstance.updateDatabase(items);
+		
+		final long time = System.nanoTime() - start;
+		_flushes.incrementAndGet();
+		_flushedItems.addAndGet(items.size());
+		_totalFlushTime.addAndGet(time);
+		if (time > _maxFlushTime.get())
+		{
+			_maxFlushTime.set(time);
+		}
+		if (items.size() > _maxFlushSize.get())
+		{
+			_maxFlushSize.set(items.size());
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final long flushes = _flushes.get();
+		return new String[]
+		{
+			"Item Write-Behind:",
+			" |- Enabled:         " + Config.ITEM_WRITE_BEHIND,
+			" |- PendingItems:    " + getPendingCount(),
+			" |- QueuedChanges:   " + _queuedChanges.sum(),
+			" |- Coalesced:       " + _coalescedChanges.sum(),
+			" |- Flushes:         " + flushes,
+			" |- FlushedItems:    " + _flushedItems.get(),
+			" |- MaxFlushSize:    " + _maxFlushSize.get(),
+			" |- AvgFlushTime:    " + (flushes > 0 ? TimeUnit.NANOSECONDS.toMillis(_totalFlushTime.get() / flushes) : 0) + " ms",
+			" |- MaxFlushTime:    " + TimeUnit.NANOSECONDS.toMillis(_maxFlushTime.get()) + " ms"
+		};
+	}
+	
+	public static ItemPersistenceTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final ItemPersistenceTaskManager _instance = new ItemPersistenceTaskManager();
+	}
+}
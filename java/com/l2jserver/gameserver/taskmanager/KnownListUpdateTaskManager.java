@@ -19,6 +19,9 @@
 package com.l2jserver.gameserver.taskmanager;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +35,7 @@ import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2GuardInstance;
+import com.l2jserver.gameserver.util.Util;
 
 public class KnownListUpdateTaskManager
 {
@@ -45,6 +49,9 @@ public class KnownListUpdateTaskManager
 	
 	protected static final FastSet<L2WorldRegion> _failedRegions = new FastSet<>(1);
 	
+	/** Objects waiting for an incremental knownlist update, used only with Config.INCREMENTAL_KNOWNLIST. */
+	private final Set<L2Object> _pendingObjects = ConcurrentHashMap.newKeySet();
+	
 	protected KnownListUpdateTaskManager()
 	{
 		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new KnownListUpdate(), 1000, Config.KNOWNLIST_UPDATE_INTERVAL);
@@ -61,6 +68,19 @@ public class KnownListUpdateTaskManager
 		{
 			try
 			{
+				if (Config.INCREMENTAL_KNOWNLIST)
+				{
+					updatePendingObjects();
+					
+					// The region sweep is only kept as a fallback for missed updates,
+					// run it on two consecutive ticks so both the forget and the add pass are done.
+					if (_fullUpdateTimer < (FULL_UPDATE_TIMER - 1))
+					{
+						_fullUpdateTimer = (_fullUpdateTimer > 0) ? _fullUpdateTimer - 1 : FULL_UPDATE_TIMER;
+						return;
+					}
+				}
+				
 				boolean failed;
 				for (L2WorldRegion regions[] : L2World.getInstance().getWorldRegions())
 				{
@@ -154,6 +174,104 @@ public class KnownListUpdateTaskManager
 		}
 	}
 	
+	/**
+	 * Schedules an incremental knownlist update for the given object.<br>
+	 * Called when the object enters the world, changes its world region or moved far enough since its last update.
+	 * @param object the object to update
+	 */
+	public void addPendingObject(L2Object object)
+	{
+		if (Config.INCREMENTAL_KNOWNLIST && (object != null))
+		{
+			_pendingObjects.add(object);
+		}
+	}
+	
+	/**
+	 * Removes the given object from the pending incremental updates, when it leaves the world.
+	 * @param object the object to remove
+	 */
+	public void removePendingObject(L2Object object)
+	{
+		if (Config.INCREMENTAL_KNOWNLIST && (object != null))
+		{
+			_pendingObjects.remove(object);
+		}
+	}
+	
+	/**
+	 * @return the number of objects waiting for an incremental knownlist update
+	 */
+	public int getPendingObjectsCount()
+	{
+		return _pendingObjects.size();
+	}
+	
+	protected void updatePendingObjects()
+	{
+		final Iterator<L2Object> it = _pendingObjects.iterator();
+		while (it.hasNext())
+		{
+			final L2Object object = it.next();
+			it.remove();
+			try
+			{
+				updateObject(object);
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, "KnownListUpdateTaskManager: updateObject() failed for " + object + ". " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Updates the knownlists of the given object and of the objects around it in both directions.<br>
+	 * Objects that are now out of range forget each other, objects within range learn about each other.
+	 * @param object the object that crossed a visibility boundary
+	 */
+	public void updateObject(L2Object object)
+	{
+		final L2WorldRegion region = object.getWorldRegion();
+		if ((region == null) || !object.isVisible())
+		{
+			return;
+		}
+		
+		if (!region.isActive() && !object.isPlayable())
+		{
+			return;
+		}
+		
+		object.getKnownList().updateLastPosition();
+		object.getKnownList().forgetObjects(true);
+		
+		for (L2WorldRegion regi : region.getSurroundingRegions())
+		{
+			final Collection<L2Object> inrObj = regi.getVisibleObjects().values();
+			for (L2Object obj : inrObj)
+			{
+				if ((obj == null) || (obj == object) || !obj.isVisible())
+				{
+					continue;
+				}
+				
+				if (obj.getKnownList().knowsObject(object))
+				{
+					if (!Util.checkIfInShortRadius(obj.getKnownList().getDistanceToForgetObject(object), obj, object, true))
+					{
+						obj.getKnownList().removeKnownObject(object);
+					}
+				}
+				else
+				{
+					obj.getKnownList().addKnownObject(object);
+				}
+				object.getKnownList().addKnownObject(obj);
+			}
+		}
+	}
+	
 	public static KnownListUpdateTaskManager getInstance()
 	{
 		return SingletonHolder._instance;
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.actor.status.CharStatus;
+
+/**
+ * Shared HP/MP/CP regeneration scheduler, used with {@link Config#SHARED_REGENERATION}.<br>
+ * Instead of a periodic task per regenerating character, characters are kept in buckets by regeneration period.<br>
+ * Each bucket is divided in one slot per game tick of the period, a character is added to the slot processed last so it first regenerates one period later and keeps its own phase.<br>
+ * Every game tick the current slot of each bucket is processed in one pass, large slots are split in batches run in parallel by the general thread pool.
+ */
+public final class RegenTaskManager implements Runnable
+{
+	protected static final Logger _log = Logger.getLogger(RegenTaskManager.class.getName());
+	
+	/** Maximum number of characters regenerated by a single task. */
+	private static final int BATCH_SIZE = 256;
+	
+	private final Map<Integer, Bucket> _buckets = new ConcurrentHashMap<>();
+	private volatile long _tick;
+	
+	protected final LongAdder _regenerations = new LongAdder();
+	private final LongAdder _statusUpdates = new LongAdder();
+	private final LongAdder _skippedStatusUpdates = new LongAdder();
+	private final AtomicLong _passes = new AtomicLong();
+	private final AtomicLong _maxPassSize = new AtomicLong();
+	private final AtomicLong _maxPassTime = new AtomicLong();
+	
+	protected RegenTaskManager()
+	{
+		if (Config.SHARED_REGENERATION)
+		{
+			ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(this, GameTimeController.MILLIS_IN_TICK, GameTimeController.MILLIS_IN_TICK);
+		}
+	}
+	
+	/**
+	 * Adds a character to the bucket of its regeneration period, in the slot processed last.<br>
+	 * The slot is processed again one period after it was last processed, so the first regeneration is due one period from now, rounded down to the game tick.
+	 * @param status the status of the character
+	 * @param period the regeneration period in milliseconds
+	 * @return the slot the character was added to, from which the character must remove itself to stop regenerating
+	 */
+	public Set<CharStatus> add(CharStatus status, int period)
+	{
+		final Bucket bucket = _buckets.computeIfAbsent(period, Bucket::new);
+		final Set<CharStatus> slot = bucket._slots[(int) ((_tick + bucket._slots.length - 1) % bucket._slots.length)];
+		slot.add(status);
+		return slot;
+	}
+	
+	@Override
+	public void run()
+	{
+		final long start = System.nanoTime();
+		final long tick = _tick;
+		int size = 0;
+		for (Bucket bucket : _buckets.values())
+		{
+			size += process(bucket._slots[(int) (tick % bucket._slots.length)]);
+		}
+		_tick = tick + 1;
+		
+		_passes.incrementAndGet();
+		_maxPassSize.accumulateAndGet(size, Math::max);
+		_maxPassTime.accumulateAndGet(System.nanoTime() - start, Math::max);
+	}
+	
+	private int process(Set<CharStatus> slot)
+	{
+		final int size = slot.size();
+		if (size <= BATCH_SIZE)
+		{
+			for (CharStatus status : slot)
+			{
+				regenerate(status);
+			}
+			return size;
+		}
+		
+		final CharStatus[] statuses = slot.toArray(new CharStatus[slot.size()]);
+		for (int from = 0; from < statuses.length; from += BATCH_SIZE)
+		{
+			final int batchStart = from;
+			final int batchEnd = Math.min(from + BATCH_SIZE, statuses.length);
+			ThreadPoolManager.getInstance().executeGeneral(() ->
+			{
+				for (int i = batchStart; i < batchEnd; i++)
+				{
+					regenerate(statuses[i]);
+				}
+			});
+		}
+		return statuses.length;
+	}
+	
+	protected void regenerate(CharStatus status)
+	{
+		_regenerations.increment();
+		try
+		{
+			status.regenerate();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, getClass().getSimpleName() + ": Failed to regenerate " + status.getActiveChar(), e);
+		}
+	}
+	
+	/**
+	 * Counts a regeneration StatusUpdate.
+	 * @param sent {@code false} if the update was skipped because the visible values did not change
+	 */
+	public void countStatusUpdate(boolean sent)
+	{
+		if (sent)
+		{
+			_statusUpdates.increment();
+		}
+		else
+		{
+			_skippedStatusUpdates.increment();
+		}
+	}
+	
+	/**
+	 * @return the number of regenerating characters
+	 */
+	public int getRegeneratingCount()
+	{
+		int count = 0;
+		for (Bucket bucket : _buckets.values())
+		{
+			for (Set<CharStatus> slot : bucket._slots)
+			{
+				count += slot.size();
+			}
+		}
+		return count;
+	}
+	
+	public String[] getStats()
+	{
+		final StringBuilder buckets = new StringBuilder();
+		for (Bucket bucket : _buckets.values())
+		{
+			int count = 0;
+			for (Set<CharStatus> slot : bucket._slots)
+			{
+				count += slot.size();
+			}
+			buckets.append(buckets.length() > 0 ? ", " : "").append(bucket._period).append(" ms: ").append(count);
+		}
+		
+		return new String[]
+		{
+			"Shared Regeneration:",
+			" |- Enabled:         " + Config.SHARED_REGENERATION,
+			" |- Regenerating:    " + getRegeneratingCount() + " (" + buckets + ")",
+			" |- Passes:          " + _passes.get(),
+			" |- Regenerations:   " + _regenerations.sum(),
+			" |- StatusUpdates:   " + _statusUpdates.sum(),
+			" |- SkippedUpdates:  " + _skippedStatusUpdates.sum(),
+			" |- MaxPassSize:     " + _maxPassSize.get(),
+			" |- MaxPassTime:     " + TimeUnit.NANOSECONDS.toMillis(_maxPassTime.get()) + " ms"
+		};
+	}
+	
+	/**
+	 * The regenerating characters of a regeneration period, with one slot per game tick of the period.
+	 */
+	private static final class Bucket
+	{
+		protected final int _period;
+		protected final Set<CharStatus>[] _slots;
+		
+		@SuppressWarnings("unchecked")
+		public Bucket(int period)
+		{
+			_period = period;
+			_slots = new Set[Math.max(period / GameTimeController.MILLIS_IN_TICK, 1)];
+			for (int i = 0; i < _slots.length; i++)
+			{
+				_slots[i] = ConcurrentHashMap.newKeySet();
+			}
+		}
+	}
+	
+	public static RegenTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final RegenTaskManager _instance = new RegenTaskManager();
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.actor.L2Character;
+
+/**
+ * Coalesces the status broadcasts of characters, used with {@link Config#COALESCE_STATUS_UPDATES}.<br>
+ * A broadcast method asks {@link #defer(L2Character, int)} first, the character is then marked as pending for this update type.<br>
+ * Once per game tick the pending characters are flushed: each pending update type is broadcast once, with the state of the character at that time.
+ */
+public final class StatusUpdateTaskManager implements Runnable
+{
+	protected static final Logger _log = Logger.getLogger(StatusUpdateTaskManager.class.getName());
+	
+	/** HP/MP StatusUpdate, see {@link L2Character#broadcastStatusUpdate()}. */
+	public static final int STATUS_UPDATE = 0;
+	/** AbnormalStatusUpdate and party effect icons, see {@link com.l2jserver.gameserver.model.CharEffectList#sendEffectIcons()}. */
+	public static final int EFFECT_ICONS = 1;
+	/** UserInfo and CharInfo, see {@link com.l2jserver.gameserver.model.actor.instance.L2PcInstance#broadcastUserInfo()}. */
+	public static final int USER_INFO = 2;
+	
+	private static final String[] TYPE_NAMES =
+	{
+		"StatusUpdate",
+		"EffectIcons",
+		"UserInfo"
+	};
+	
+	/** Set on the pending flags once taken by the flush, a new entry is then created. */
+	private static final int FLUSHED = 1 << 31;
+	
+	private final Map<L2Character, AtomicInteger> _pending = new ConcurrentHashMap<>();
+	/** Broadcasts made while flushing are sent right away. */
+	private final ThreadLocal<Boolean> _flushing = new ThreadLocal<>();
+	
+	private final LongAdder[] _requested = new LongAdder[TYPE_NAMES.length];
+	private final LongAdder[] _coalesced = new LongAdder[TYPE_NAMES.length];
+	private final AtomicLong _passes = new AtomicLong();
+	private final AtomicLong _maxPassSize = new AtomicLong();
+	private final AtomicLong _maxPassTime = new AtomicLong();
+	
+	protected StatusUpdateTaskManager()
+	{
+		for (int i = 0; i < TYPE_NAMES.length; i++)
+		{
+			_requested[i] = new LongAdder();
+			_coalesced[i] = new LongAdder();
+		}
+		
+		if (Config.COALESCE_STATUS_UPDATES)
+		{
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, GameTimeController.MILLIS_IN_TICK, GameTimeController.MILLIS_IN_TICK);
+		}
+	}
+	
+	/**
+	 * Defers a status broadcast to the next flush.
+	 * @param character the character to broadcast the status of
+	 * @param type the update type
+	 * @return {@code true} if the broadcast is deferred and must not be done now
+	 */
+	public boolean defer(L2Character character, int type)
+	{
+		if (!Config.COALESCE_STATUS_UPDATES || (_flushing.get() != null))
+		{
+			return false;
+		}
+		
+		final int flag = 1 << type;
+		while (true)
+		{
+			final AtomicInteger pending = _pending.computeIfAbsent(character, k -> new AtomicInteger());
+			final int flags = pending.get();
+			if ((flags & FLUSHED) != 0)
+			{
+				// Taken by the flush meanwhile, it is already removed from the map.
+				continue;
+			}
+			
+			if (pending.compareAndSet(flags, flags | flag))
+			{
+				_requested[type].increment();
+				if ((flags & flag) != 0)
+				{
+					_coalesced[type].increment();
+				}
+				return true;
+			}
+		}
+	}
+	
+	@Override
+	public void run()
+	{
+		final long start = System.nanoTime();
+		int count = 0;
+		_flushing.set(Boolean.TRUE);
+		try
+		{
+			final Iterator<Map.Entry<L2Character, AtomicInteger>> it = _pending.entrySet().iterator();
+			while (it.hasNext())
+			{
+				final Map.Entry<L2Character, AtomicInteger> entry = it.next();
+				it.remove();
+				flush(entry.getKey(), entry.getValue().getAndSet(FLUSHED));
+				count++;
+			}
+		}
+		finally
+		{
+			_flushing.remove();
+		}
+		
+		_passes.incrementAndGet();
+		_maxPassSize.accumulateAndGet(count, Math::max);
+		_maxPassTime.accumulateAndGet(System.nanoTime() - start, Math::max);
+	}
+	
+	private void flush(L2Character character, int flags)
+	{
+		try
+		{
+			if ((flags & (1 << STATUS_UPDATE)) != 0)
+			{
+				character.broadcastStatusUpdate();
+			}
+			if ((flags & (1 << EFFECT_ICONS)) != 0)
+			{
+				character.getEffectList().sendEffectIcons();
+			}
+			if (((flags & (1 << USER_INFO)) != 0) && character.isPlayer())
+			{
+				character.getActingPlayer().broadcastUserInfo();
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Failed to broadcast the status of " + character + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * @return the number of characters with a pending broadcast
+	 */
+	public int getPendingCount()
+	{
+		return _pending.size();
+	}
+	
+	public String[] getStats()
+	{
+		final String[] stats = new String[5 + TYPE_NAMES.length];
+		stats[0] = "Status Update Coalescing:";
+		stats[1] = " |- Enabled:         " + Config.COALESCE_STATUS_UPDATES;
+		stats[2] = " |- Pending:         " + getPendingCount();
+		stats[3] = " |- Passes:          " + _passes.get() + " (max " + _maxPassSize.get() + " characters, " + TimeUnit.NANOSECONDS.toMillis(_maxPassTime.get()) + " ms)";
+		stats[4] = " |- Requested / Coalesced:";
+		for (int i = 0; i < TYPE_NAMES.length; i++)
+		{
+			stats[5 + i] = "    |- " + TYPE_NAMES[i] + ": " + _requested[i].sum() + " / " + _coalesced[i].sum();
+		}
+		return stats;
+	}
+	
+	public static StatusUpdateTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final StatusUpdateTaskManager _instance = new StatusUpdateTaskManager();
+	}
+}
@@ -29,6 +29,7 @@ import com.l2jserver.gameserver.network.clientpackets.Say2;
 import com.l2jserver.gameserver.network.serverpackets.CharInfo;
 import com.l2jserver.gameserver.network.serverpackets.CreatureSay;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
+import com.l2jserver.gameserver.network.serverpackets.PreEncodedPacket;
 import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 
 /**
@@ -74,6 +75,7 @@ public final class Broadcast
 	 */
 	public static void toKnownPlayers(L2Character character, L2GameServerPacket mov)
 	{
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		Collection<L2PcInstance> plrs = character.getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
 		{
@@ -83,7 +85,7 @@ public final class Broadcast
 			}
 			try
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 				if ((mov instanceof CharInfo) && (character instanceof L2PcInstance))
 				{
 					int relation = ((L2PcInstance) character).getRelation(player);
@@ -123,12 +125,13 @@ public final class Broadcast
 			radius = 1500;
 		}
 		
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		Collection<L2PcInstance> plrs = character.getKnownList().getKnownPlayers().values();
 		for (L2PcInstance player : plrs)
 		{
 			if (character.isInsideRadius(player, radius, false, false))
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 			}
 		}
 	}
@@ -143,12 +146,13 @@ public final class Broadcast
 	 */
 	public static void toSelfAndKnownPlayers(L2Character character, L2GameServerPacket mov)
 	{
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		if (character instanceof L2PcInstance)
 		{
-			character.sendPacket(mov);
+			character.sendPacket(packet);
 		}
 		
-		toKnownPlayers(character, mov);
+		toKnownPlayers(character, packet);
 	}
 	
 	// To improve performance we are comparing values of radius^2 instead of calculating sqrt all the time
@@ -159,9 +163,10 @@ public final class Broadcast
 			radius = 600;
 		}
 		
+		final L2GameServerPacket packet = PreEncodedPacket.preEncode(mov);
 		if (character instanceof L2PcInstance)
 		{
-			character.sendPacket(mov);
+			character.sendPacket(packet);
 		}
 		
 		Collection<L2PcInstance> plrs = character.getKnownList().getKnownPlayers().values();
@@ -169,7 +174,7 @@ public final class Broadcast
 		{
 			if ((player != null) && Util.checkIfInRange(radius, character, player, false))
 			{
-				player.sendPacket(mov);
+				player.sendPacket(packet);
 			}
 		}
 	}
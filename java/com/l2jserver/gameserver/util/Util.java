@@ -28,6 +28,8 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import javolution.text.TextBuilder;
@@ -36,6 +38,7 @@ import javolution.util.FastList;
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.GeoData;
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.cache.HtmlTemplate;
 import com.l2jserver.gameserver.enums.HtmlActionScope;
 import com.l2jserver.gameserver.enums.IllegalActionPunishmentType;
 import com.l2jserver.gameserver.model.L2Object;
@@ -491,7 +494,13 @@ public final class Util
 		return dateFormat.format(date.getTime());
 	}
 	
-	private static final void buildHtmlBypassCache(L2PcInstance player, HtmlActionScope scope, String html)
+	/**
+	 * Finds the bypass actions of a html page.<br>
+	 * The part of a bypass after its first parameter start char is replaced by this char, so any value of the parameter is accepted.
+	 * @param html the html code to parse
+	 * @param actions receives the bypasses found
+	 */
+	public static void parseHtmlBypasses(String html, Consumer<String> actions)
 	{
 		String htmlLower = html.toLowerCase(Locale.ENGLISH);
 		int bypassEnd = 0;
@@ -523,16 +532,17 @@ public final class Util
 				bypass = bypass.substring(0, firstParameterStart + 1);
 			}
 			
-			if (Config.HTML_ACTION_CACHE_DEBUG)
-			{
-				LOGGER.info("Cached html bypass(" + scope.toString() + "): '" + bypass + "'");
-			}
-			player.addHtmlAction(scope, bypass);
+			actions.accept(bypass);
 			bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
 		}
 	}
 	
-	private static final void buildHtmlLinkCache(L2PcInstance player, HtmlActionScope scope, String html)
+	/**
+	 * Finds the link actions of a html page, they are prefixed by "link ".
+	 * @param html the html code to parse
+	 * @param actions receives the links found
+	 */
+	public static void parseHtmlLinks(String html, Consumer<String> actions)
 	{
 		String htmlLower = html.toLowerCase(Locale.ENGLISH);
 		int linkEnd = 0;
@@ -548,6 +558,7 @@ public final class Util
 			}
 			
 			String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
+			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
 			if (htmlLink.isEmpty())
 			{
 				LOGGER.warning("Html link path is empty!");
@@ -560,14 +571,18 @@ public final class Util
 				continue;
 			}
 			
-			if (Config.HTML_ACTION_CACHE_DEBUG)
-			{
-				LOGGER.info("Cached html link(" + scope.toString() + "): '" + htmlLink + "'");
-			}
 			// let's keep an action cache with "link " lowercase literal kept
-			player.addHtmlAction(scope, "link " + htmlLink);
-			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
+			actions.accept("link " + htmlLink);
+		}
+	}
+	
+	private static void addHtmlAction(L2PcInstance player, HtmlActionScope scope, String action)
+	{
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Cached html action(" + scope.toString() + "): '" + action + "'");
 		}
+		player.addHtmlAction(scope, action);
 	}
 	
 	/**
@@ -591,8 +606,44 @@ public final class Util
 			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
 		}
 		player.setHtmlActionOriginObjectId(scope, npcObjId);
-		buildHtmlBypassCache(player, scope, html);
-		buildHtmlLinkCache(player, scope, html);
+		parseHtmlBypasses(html, action -> addHtmlAction(player, scope, action));
+		parseHtmlLinks(html, action -> addHtmlAction(player, scope, action));
+	}
+	
+	/**
+	 * Builds the html action cache for the specified scope from a filled template.<br>
+	 * Only the actions containing variables and the variables themselves are parsed,
+	 * the whole page is parsed only when a variable could change the actions around it.
+	 * @param player the player to build the html action cache for
+	 * @param scope the scope to build the html action cache for
+	 * @param npcObjId the npc object id the html actions are cached for
+	 * @param template the template of the page
+	 * @param values the values of the template variables
+	 * @param html the filled page
+	 */
+	public static void buildHtmlActionCache(L2PcInstance player, HtmlActionScope scope, int npcObjId, HtmlTemplate template, Map<String, String> values, String html)
+	{
+		final List<String> actions = template.getActions(values);
+		if (actions == null)
+		{
+			buildHtmlActionCache(player, scope, npcObjId, html);
+			return;
+		}
+		
+		if ((player == null) || (scope == null) || (npcObjId < 0))
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
+		}
+		player.setHtmlActionOriginObjectId(scope, npcObjId);
+		for (String action : actions)
+		{
+			addHtmlAction(player, scope, action);
+		}
 	}
 	
 	/**
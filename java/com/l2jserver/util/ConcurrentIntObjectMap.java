@@ -0,0 +1,740 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent hash map with primitive {@code int} keys, used for the object id maps of the world, the world regions and the knownlists.<br>
+ * The map is split in segments, each one is an open addressing table with linear probing guarded by a {@link StampedLock}.<br>
+ * Lookups are optimistic reads which only take the lock when a write happened meanwhile, no key is boxed and no node is allocated per entry.<br>
+ * The {@code int} overloads are picked by the compiler for {@code int} arguments, the {@link Map} methods are kept for the generic callers.<br>
+ * Iterators are weakly consistent, they read the tables of the segments in place. Null values are not allowed.
+ * @param <V> the type of the values
+ */
+public final class ConcurrentIntObjectMap<V> extends AbstractMap<Integer, V> implements ConcurrentMap<Integer, V>
+{
+	private static final int MIN_CAPACITY = 4;
+	private static final int[] EMPTY_KEYS = new int[0];
+	private static final Object[] EMPTY_VALUES = new Object[0];
+	/** Value of the slots of the removed entries. */
+	private static final Object TOMBSTONE = new Object();
+	
+	private final Segment[] _segments;
+	private final int _segmentBits;
+	private final int _segmentMask;
+	
+	private Collection<V> _values;
+	private Set<Entry<Integer, V>> _entrySet;
+	
+	/**
+	 * Creates a map with a single segment, for the small maps mostly written from one thread like the knownlists.
+	 */
+	public ConcurrentIntObjectMap()
+	{
+		this(1);
+	}
+	
+	/**
+	 * @param concurrencyLevel the number of segments, rounded up to a power of two
+	 */
+	public ConcurrentIntObjectMap(int concurrencyLevel)
+	{
+		_segmentBits = 32 - Integer.numberOfLeadingZeros(Math.max(concurrencyLevel, 1) - 1);
+		_segmentMask = (1 << _segmentBits) - 1;
+		_segments = new Segment[1 << _segmentBits];
+		for (int i = 0; i < _segments.length; i++)
+		{
+			_segments[i] = new Segment(_segmentBits);
+		}
+	}
+	
+	protected static int hash(int key)
+	{
+		final int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	private Segment segmentFor(int hash)
+	{
+		return _segments[hash & _segmentMask];
+	}
+	
+	/**
+	 * @param key
+	 * @return the value mapped to the key, {@code null} if none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key)
+	{
+		final int hash = hash(key);
+		final Segment segment = segmentFor(hash);
+		final long stamp = segment.tryOptimisticRead();
+		if (stamp != 0)
+		{
+			final Object value = segment.find(key, hash);
+			if (segment.validate(stamp))
+			{
+				return (V) value;
+			}
+		}
+		
+		final long readStamp = segment.readLock();
+		try
+		{
+			return (V) segment.find(key, hash);
+		}
+		finally
+		{
+			segment.unlockRead(readStamp);
+		}
+	}
+	
+	/**
+	 * @param key
+	 * @return {@code true} if the key is mapped
+	 */
+	public boolean containsKey(int key)
+	{
+		return get(key) != null;
+	}
+	
+	/**
+	 * @param key
+	 * @param value
+	 * @return the previous value mapped to the key, {@code null} if none
+	 */
+	public V put(int key, V value)
+	{
+		return put(key, value, false);
+	}
+	
+	/**
+	 * @param key
+	 * @param value
+	 * @return the value already mapped to the key, {@code null} if the value was added
+	 */
+	public V putIfAbsent(int key, V value)
+	{
+		return put(key, value, true);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private V put(int key, V value, boolean onlyIfAbsent)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException();
+		}
+		
+		final int hash = hash(key);
+		final Segment segment = segmentFor(hash);
+		final long stamp = segment.writeLock();
+		try
+		{
+			return (V) segment.put(key, hash, value, onlyIfAbsent);
+		}
+		finally
+		{
+			segment.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * @param key
+	 * @return the value which was mapped to the key, {@code null} if none
+	 */
+	public V remove(int key)
+	{
+		return remove(key, null);
+	}
+	
+	/**
+	 * @param key
+	 * @param value the expected value, {@code null} to remove any value
+	 * @return the removed value, {@code null} if nothing was removed
+	 */
+	@SuppressWarnings("unchecked")
+	private V remove(int key, Object value)
+	{
+		final int hash = hash(key);
+		final Segment segment = segmentFor(hash);
+		final long stamp = segment.writeLock();
+		try
+		{
+			return (V) segment.remove(key, hash, value);
+		}
+		finally
+		{
+			segment.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * @param key
+	 * @param oldValue the expected value, {@code null} to replace any value
+	 * @param newValue
+	 * @return the replaced value, {@code null} if nothing was replaced
+	 */
+	@SuppressWarnings("unchecked")
+	private V replace(int key, Object oldValue, V newValue)
+	{
+		if (newValue == null)
+		{
+			throw new NullPointerException();
+		}
+		
+		final int hash = hash(key);
+		final Segment segment = segmentFor(hash);
+		final long stamp = segment.writeLock();
+		try
+		{
+			return (V) segment.replace(key, hash, oldValue, newValue);
+		}
+		finally
+		{
+			segment.unlockWrite(stamp);
+		}
+	}
+	
+	@Override
+	public V get(Object key)
+	{
+		return (key instanceof Integer) ? get(((Integer) key).intValue()) : null;
+	}
+	
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+	
+	@Override
+	public V put(Integer key, V value)
+	{
+		return put(key.intValue(), value, false);
+	}
+	
+	@Override
+	public V putIfAbsent(Integer key, V value)
+	{
+		return put(key.intValue(), value, true);
+	}
+	
+	@Override
+	public V remove(Object key)
+	{
+		return (key instanceof Integer) ? remove(((Integer) key).intValue(), null) : null;
+	}
+	
+	@Override
+	public boolean remove(Object key, Object value)
+	{
+		return (key instanceof Integer) && (value != null) && (remove(((Integer) key).intValue(), value) != null);
+	}
+	
+	@Override
+	public boolean replace(Integer key, V oldValue, V newValue)
+	{
+		return (oldValue != null) && (replace(key.intValue(), oldValue, newValue) != null);
+	}
+	
+	@Override
+	public V replace(Integer key, V value)
+	{
+		return replace(key.intValue(), null, value);
+	}
+	
+	@Override
+	public int size()
+	{
+		int size = 0;
+		for (Segment segment : _segments)
+		{
+			size += segment._size;
+		}
+		return size;
+	}
+	
+	@Override
+	public boolean isEmpty()
+	{
+		for (Segment segment : _segments)
+		{
+			if (segment._size > 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public void clear()
+	{
+		for (Segment segment : _segments)
+		{
+			final long stamp = segment.writeLock();
+			try
+			{
+				segment.clear();
+			}
+			finally
+			{
+				segment.unlockWrite(stamp);
+			}
+		}
+	}
+	
+	@Override
+	public Collection<V> values()
+	{
+		Collection<V> values = _values;
+		if (values == null)
+		{
+			values = new Values();
+			_values = values;
+		}
+		return values;
+	}
+	
+	@Override
+	public Set<Entry<Integer, V>> entrySet()
+	{
+		Set<Entry<Integer, V>> entrySet = _entrySet;
+		if (entrySet == null)
+		{
+			entrySet = new EntrySet();
+			_entrySet = entrySet;
+		}
+		return entrySet;
+	}
+	
+	/**
+	 * Open addressing table with linear probing of one segment.<br>
+	 * Free slots have a {@code null} value, removed entries leave a {@link #TOMBSTONE} so the other entries never move within a table and an iterator can't skip them.<br>
+	 * The tombstones are dropped when the table is rebuilt, which always allocates new arrays.<br>
+	 * The fields are only written under the write lock, optimistic readers validate their stamp before using what they read.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Segment extends StampedLock
+	{
+		private final int _hashShift;
+		protected int[] _keys;
+		protected Object[] _values;
+		protected volatile int _size;
+		private int _tombstones;
+		
+		public Segment(int hashShift)
+		{
+			_hashShift = hashShift;
+		}
+		
+		private int slot(int hash, int mask)
+		{
+			return (hash >>> _hashShift) & mask;
+		}
+		
+		/**
+		 * Can be called without lock, the arrays can then be inconsistent so the probing is bounded and the result must be validated.
+		 * @param key
+		 * @param hash
+		 * @return the value mapped to the key, {@code null} if none
+		 */
+		public Object find(int key, int hash)
+		{
+			final int[] keys = _keys;
+			final Object[] values = _values;
+			if ((values == null) || (keys == null) || (keys.length != values.length))
+			{
+				return null;
+			}
+			
+			final int mask = values.length - 1;
+			for (int i = slot(hash, mask), n = 0; n <= mask; i = (i + 1) & mask, n++)
+			{
+				final Object value = values[i];
+				if (value == null)
+				{
+					return null;
+				}
+				if ((value != TOMBSTONE) && (keys[i] == key))
+				{
+					return value;
+				}
+			}
+			return null;
+		}
+		
+		public Object put(int key, int hash, Object value, boolean onlyIfAbsent)
+		{
+			if ((_values == null) || ((_size + _tombstones + 1) > ((_values.length * 3) >> 2)))
+			{
+				rebuild();
+			}
+			
+			final int[] keys = _keys;
+			final Object[] values = _values;
+			final int mask = values.length - 1;
+			int free = -1;
+			int i = slot(hash, mask);
+			while (values[i] != null)
+			{
+				if (values[i] == TOMBSTONE)
+				{
+					if (free < 0)
+					{
+						free = i;
+					}
+				}
+				else if (keys[i] == key)
+				{
+					final Object old = values[i];
+					if (!onlyIfAbsent)
+					{
+						values[i] = value;
+					}
+					return old;
+				}
+				i = (i + 1) & mask;
+			}
+			if (free >= 0)
+			{
+				// Reuses the first tombstone of the probe sequence.
+				i = free;
+				_tombstones--;
+			}
+			keys[i] = key;
+			values[i] = value;
+			_size++;
+			return null;
+		}
+		
+		public Object remove(int key, int hash, Object expected)
+		{
+			final int i = indexOf(key, hash);
+			if ((i < 0) || ((expected != null) && !expected.equals(_values[i])))
+			{
+				return null;
+			}
+			
+			final Object old = _values[i];
+			delete(i);
+			return old;
+		}
+		
+		public Object replace(int key, int hash, Object expected, Object value)
+		{
+			final int i = indexOf(key, hash);
+			if ((i < 0) || ((expected != null) && !expected.equals(_values[i])))
+			{
+				return null;
+			}
+			
+			final Object old = _values[i];
+			_values[i] = value;
+			return old;
+		}
+		
+		public void clear()
+		{
+			_keys = null;
+			_values = null;
+			_size = 0;
+			_tombstones = 0;
+		}
+		
+		private int indexOf(int key, int hash)
+		{
+			final Object[] values = _values;
+			if (values == null)
+			{
+				return -1;
+			}
+			
+			final int mask = values.length - 1;
+			for (int i = slot(hash, mask); values[i] != null; i = (i + 1) & mask)
+			{
+				if ((values[i] != TOMBSTONE) && (_keys[i] == key))
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		private void delete(int index)
+		{
+			final Object[] values = _values;
+			final int mask = values.length - 1;
+			_size--;
+			
+			if (values[(index + 1) & mask] != null)
+			{
+				// Still part of the probe sequence of the following entries.
+				values[index] = TOMBSTONE;
+				_tombstones++;
+				return;
+			}
+			
+			// End of a probe sequence, the slot and the tombstones right before it can be freed.
+			values[index] = null;
+			for (int i = (index - 1) & mask; values[i] == TOMBSTONE; i = (i - 1) & mask)
+			{
+				values[i] = null;
+				_tombstones--;
+			}
+		}
+		
+		/**
+		 * Copies the entries into new arrays, doubled unless the table was mostly filled by tombstones.
+		 */
+		private void rebuild()
+		{
+			final int[] oldKeys = _keys;
+			final Object[] oldValues = _values;
+			final int capacity;
+			if (oldValues == null)
+			{
+				capacity = MIN_CAPACITY;
+			}
+			else if ((_size * 2) < ((oldValues.length * 3) >> 2))
+			{
+				capacity = oldValues.length;
+			}
+			else
+			{
+				capacity = oldValues.length << 1;
+			}
+			
+			final int[] keys = new int[capacity];
+			final Object[] values = new Object[capacity];
+			final int mask = capacity - 1;
+			if (oldValues != null)
+			{
+				for (int j = 0; j < oldValues.length; j++)
+				{
+					if ((oldValues[j] != null) && (oldValues[j] != TOMBSTONE))
+					{
+						int i = slot(hash(oldKeys[j]), mask);
+						while (values[i] != null)
+						{
+							i = (i + 1) & mask;
+						}
+						keys[i] = oldKeys[j];
+						values[i] = oldValues[j];
+					}
+				}
+			}
+			_keys = keys;
+			_values = values;
+			_tombstones = 0;
+		}
+	}
+	
+	/**
+	 * Goes through the tables of the segments one after another, without copying them.<br>
+	 * Entries never move within a table, so an entry mapped during the whole iteration is returned exactly once, even if the table is rebuilt meanwhile.<br>
+	 * A slot read after a write of its segment is only returned if the map still maps its key to its value.
+	 */
+	private abstract class BaseIterator
+	{
+		private int _segment = 0;
+		private Segment _current;
+		private long _stamp;
+		private int[] _keys = EMPTY_KEYS;
+		private Object[] _values = EMPTY_VALUES;
+		private int _next = 0;
+		private int _nextKey;
+		private Object _nextValue;
+		private int _lastKey;
+		private boolean _hasLast = false;
+		
+		public final boolean hasNext()
+		{
+			while (_nextValue == null)
+			{
+				if (_next < _values.length)
+				{
+					final int index = _next++;
+					final Object value = _values[index];
+					final int key = _keys[index];
+					if ((value != null) && (value != TOMBSTONE) && (_current.validate(_stamp) || (value == get(key))))
+					{
+						_nextKey = key;
+						_nextValue = value;
+					}
+				}
+				else if (_segment < _segments.length)
+				{
+					_current = _segments[_segment++];
+					_next = 0;
+					readTables();
+				}
+				else
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		private void readTables()
+		{
+			final Segment segment = _current;
+			long stamp = segment.tryOptimisticRead();
+			int[] keys = segment._keys;
+			Object[] values = segment._values;
+			if (!segment.validate(stamp))
+			{
+				// The read lock is turned into an optimistic read, so the writes made after the tables were read are noticed.
+				stamp = segment.readLock();
+				keys = segment._keys;
+				values = segment._values;
+				stamp = segment.tryConvertToOptimisticRead(stamp);
+			}
+			_stamp = stamp;
+			_keys = (keys == null) ? EMPTY_KEYS : keys;
+			_values = (values == null) ? EMPTY_VALUES : values;
+		}
+		
+		@SuppressWarnings("unchecked")
+		protected final V nextValue()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			final Object value = _nextValue;
+			_nextValue = null;
+			_lastKey = _nextKey;
+			_hasLast = true;
+			return (V) value;
+		}
+		
+		protected final int lastKey()
+		{
+			return _lastKey;
+		}
+		
+		public final void remove()
+		{
+			if (!_hasLast)
+			{
+				throw new IllegalStateException();
+			}
+			_hasLast = false;
+			ConcurrentIntObjectMap.this.remove(_lastKey);
+		}
+	}
+	
+	private final class ValueIterator extends BaseIterator implements Iterator<V>
+	{
+		@Override
+		public V next()
+		{
+			return nextValue();
+		}
+	}
+	
+	private final class EntryIterator extends BaseIterator implements Iterator<Entry<Integer, V>>
+	{
+		@Override
+		public Entry<Integer, V> next()
+		{
+			final V value = nextValue();
+			return new SimpleImmutableEntry<>(lastKey(), value);
+		}
+	}
+	
+	private final class Values extends AbstractCollection<V>
+	{
+		@Override
+		public Iterator<V> iterator()
+		{
+			return new ValueIterator();
+		}
+		
+		@Override
+		public int size()
+		{
+			return ConcurrentIntObjectMap.this.size();
+		}
+		
+		@Override
+		public boolean isEmpty()
+		{
+			return ConcurrentIntObjectMap.this.isEmpty();
+		}
+		
+		@Override
+		public void clear()
+		{
+			ConcurrentIntObjectMap.this.clear();
+		}
+	}
+	
+	private final class EntrySet extends AbstractSet<Entry<Integer, V>>
+	{
+		@Override
+		public Iterator<Entry<Integer, V>> iterator()
+		{
+			return new EntryIterator();
+		}
+		
+		@Override
+		public int size()
+		{
+			return ConcurrentIntObjectMap.this.size();
+		}
+		
+		@Override
+		public boolean contains(Object o)
+		{
+			if (!(o instanceof Entry))
+			{
+				return false;
+			}
+			final Entry<?, ?> entry = (Entry<?, ?>) o;
+			final V value = get(entry.getKey());
+			return (value != null) && value.equals(entry.getValue());
+		}
+		
+		@Override
+		public boolean remove(Object o)
+		{
+			return (o instanceof Entry) && ConcurrentIntObjectMap.this.remove(((Entry<?, ?>) o).getKey(), ((Entry<?, ?>) o).getValue());
+		}
+		
+		@Override
+		public void clear()
+		{
+			ConcurrentIntObjectMap.this.clear();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel.<br>
+ * Timeouts are hashed by deadline into a ring of buckets, a single timer thread visits one bucket per tick and expires the timeouts that are due.<br>
+ * Adding a timeout is lock free, cancelled timeouts are dropped when their bucket is visited. Timeouts never expire early, but may expire up to one tick late.
+ */
+public final class HashedTimingWheel implements Runnable
+{
+	private static final Logger _log = Logger.getLogger(HashedTimingWheel.class.getName());
+	
+	/**
+	 * A timeout that can be added to a {@link HashedTimingWheel}.
+	 */
+	public abstract static class Timeout
+	{
+		protected volatile long _deadline;
+		long _rounds;
+		
+		/**
+		 * @return the deadline of this timeout, in {@link System#nanoTime()} units
+		 */
+		public long getDeadline()
+		{
+			return _deadline;
+		}
+		
+		/**
+		 * @return {@code true} if this timeout should be dropped without expiring
+		 */
+		public abstract boolean isCancelled();
+		
+		/**
+		 * Called by the timer thread when the deadline is reached, must not block.
+		 */
+		protected abstract void expire();
+		
+		/**
+		 * Called by the timer thread when a cancelled timeout is dropped from the wheel.
+		 */
+		protected void onDrop()
+		{
+		}
+	}
+	
+	private final long _tickNanos;
+	private final int _mask;
+	private final List<Timeout>[] _buckets;
+	private final Queue<Timeout> _pending = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _size = new AtomicInteger();
+	private final long _startTime;
+	private final Thread _thread;
+	private volatile boolean _shutdown;
+	
+	/**
+	 * Creates and starts a new timing wheel.
+	 * @param name the name of the timer thread
+	 * @param tickDuration the duration of a tick
+	 * @param unit the time unit of the tick duration
+	 * @param wheelSize the number of buckets, rounded up to a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize)
+	{
+		_tickNanos = Math.max(unit.toNanos(tickDuration), 1);
+		final int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+		_mask = size - 1;
+		_buckets = new List[size];
+		for (int i = 0; i < size; i++)
+		{
+			_buckets[i] = new ArrayList<>();
+		}
+		_startTime = System.nanoTime();
+		_thread = new Thread(this, name);
+		_thread.setDaemon(true);
+		_thread.setPriority(Thread.NORM_PRIORITY + 1);
+		_thread.start();
+	}
+	
+	/**
+	 * Adds a timeout to the wheel, it expires on the first tick after its deadline.
+	 * @param timeout the timeout to add
+	 */
+	public void add(Timeout timeout)
+	{
+		_size.incrementAndGet();
+		_pending.add(timeout);
+	}
+	
+	/**
+	 * @return the number of timeouts waiting in the wheel, cancelled timeouts included until they are dropped
+	 */
+	public int size()
+	{
+		return _size.get();
+	}
+	
+	/**
+	 * @return the tick duration in milliseconds
+	 */
+	public long getTickDuration()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(_tickNanos);
+	}
+	
+	/**
+	 * Stops the timer thread, the remaining timeouts never expire.
+	 */
+	public void shutdown()
+	{
+		_shutdown = true;
+		LockSupport.unpark(_thread);
+	}
+	
+	@Override
+	public void run()
+	{
+		long tick = 0;
+		while (!_shutdown)
+		{
+			final long deadline = _startTime + ((tick + 1) * _tickNanos);
+			long sleep;
+			while ((sleep = deadline - System.nanoTime()) > 0)
+			{
+				LockSupport.parkNanos(this, sleep);
+				if (_shutdown)
+				{
+					return;
+				}
+			}
+			
+			transferPending(tick);
+			expire(_buckets[(int) (tick & _mask)]);
+			tick++;
+		}
+	}
+	
+	private void transferPending(long tick)
+	{
+		Timeout timeout;
+		while ((timeout = _pending.poll()) != null)
+		{
+			if (timeout.isCancelled())
+			{
+				drop(timeout);
+				continue;
+			}
+			
+			final long ticks = Math.max((timeout._deadline - _startTime) / _tickNanos, tick);
+			timeout._rounds = (ticks - tick) / _buckets.length;
+			_buckets[(int) (ticks & _mask)].add(timeout);
+		}
+	}
+	
+	private void expire(List<Timeout> bucket)
+	{
+		int kept = 0;
+		final int size = bucket.size();
+		for (int i = 0; i < size; i++)
+		{
+			final Timeout timeout = bucket.get(i);
+			if (timeout.isCancelled())
+			{
+				drop(timeout);
+			}
+			else if (timeout._rounds > 0)
+			{
+				timeout._rounds--;
+				bucket.set(kept++, timeout);
+			}
+			else
+			{
+				_size.decrementAndGet();
+				try
+				{
+					timeout.expire();
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.WARNING, getClass().getSimpleName() + ": Exception while expiring " + timeout, e);
+				}
+			}
+		}
+		bucket.subList(kept, size).clear();
+	}
+	
+	private void drop(Timeout timeout)
+	{
+		_size.decrementAndGet();
+		try
+		{
+			timeout.onDrop();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Exception while dropping " + timeout, e);
+		}
+	}
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright (C) 2004-2014 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scheduled executor backed by a work-stealing {@link ForkJoinPool}.<br>
+ * Delayed and periodic tasks wait in a shared {@link HashedTimingWheel} and are handed to the pool when due, so scheduling does not contend on a single delay queue lock.<br>
+ * Tasks are not wrapped: exceptions are caught and passed to the uncaught exception handler of the worker thread.
+ */
+public final class WorkStealingScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService
+{
+	private static final int WAITING = 0;
+	private static final int RUNNING = 1;
+	private static final int DONE = 2;
+	private static final int CANCELLED = 3;
+	
+	private final String _name;
+	private final ForkJoinPool _pool;
+	private final HashedTimingWheel _wheel;
+	
+	private final AtomicInteger _scheduledTasks = new AtomicInteger();
+	private final LongAdder _submittedTasks = new LongAdder();
+	private final LongAdder _completedTasks = new LongAdder();
+	private final LongAdder _totalLatency = new LongAdder();
+	private final AtomicLong _maxLatency = new AtomicLong();
+	
+	/**
+	 * @param name the name of the pool and prefix of its threads
+	 * @param parallelism the number of worker threads
+	 * @param priority the priority of the worker threads
+	 * @param wheel the timing wheel holding the delayed tasks
+	 */
+	public WorkStealingScheduledExecutor(String name, int parallelism, int priority, HashedTimingWheel wheel)
+	{
+		_name = name;
+		_wheel = wheel;
+		_pool = new ForkJoinPool(Math.max(parallelism, 1), pool ->
+		{
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName(name + "-" + thread.getPoolIndex());
+			thread.setPriority(priority);
+			return thread;
+		}, null, true);
+	}
+	
+	@Override
+	public void execute(Runnable command)
+	{
+		if (command == null)
+		{
+			throw new NullPointerException();
+		}
+		_submittedTasks.increment();
+		_pool.execute(new ExecuteTask(command));
+	}
+	
+	@Override
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+	{
+		return schedule(new ScheduledTask(command, System.nanoTime() + unit.toNanos(delay), 0));
+	}
+	
+	/**
+	 * Unlike runnables, an exception thrown by the callable is not passed to the uncaught exception handler but thrown by {@link ScheduledFuture#get()}.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit)
+	{
+		return (ScheduledFuture<V>) schedule(new ScheduledTask(callable, System.nanoTime() + unit.toNanos(delay)));
+	}
+	
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit)
+	{
+		if (period <= 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		return schedule(new ScheduledTask(command, System.nanoTime() + unit.toNanos(initialDelay), unit.toNanos(period)));
+	}
+	
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit)
+	{
+		if (delay <= 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		return schedule(new ScheduledTask(command, System.nanoTime() + unit.toNanos(initialDelay), -unit.toNanos(delay)));
+	}
+	
+	private ScheduledFuture<?> schedule(ScheduledTask task)
+	{
+		if (_pool.isShutdown())
+		{
+			throw new RejectedExecutionException(_name + " is shut down");
+		}
+		
+		_submittedTasks.increment();
+		if (task.getDelay(TimeUnit.NANOSECONDS) <= 0)
+		{
+			_pool.execute(task);
+		}
+		else
+		{
+			_scheduledTasks.incrementAndGet();
+			_wheel.add(task);
+		}
+		return task;
+	}
+	
+	@Override
+	public void shutdown()
+	{
+		_pool.shutdown();
+	}
+	
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		return _pool.shutdownNow();
+	}
+	
+	@Override
+	public boolean isShutdown()
+	{
+		return _pool.isShutdown();
+	}
+	
+	@Override
+	public boolean isTerminated()
+	{
+		return _pool.isTerminated();
+	}
+	
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return _pool.awaitTermination(timeout, unit);
+	}
+	
+	/**
+	 * @return the number of delayed tasks waiting in the timing wheel
+	 */
+	public int getScheduledTaskCount()
+	{
+		return _scheduledTasks.get();
+	}
+	
+	/**
+	 * @return the number of tasks ready to run but waiting for a worker thread
+	 */
+	public long getQueuedTaskCount()
+	{
+		return _pool.getQueuedSubmissionCount() + _pool.getQueuedTaskCount();
+	}
+	
+	public String[] getStats()
+	{
+		final long completed = _completedTasks.sum();
+		return new String[]
+		{
+			" + " + _name + ":",
+			" |- ActiveThreads:   " + _pool.getActiveThreadCount(),
+			" |- Parallelism:     " + _pool.getParallelism(),
+			" |- PoolSize:        " + _pool.getPoolSize(),
+			" |- StealCount:      " + _pool.getStealCount(),
+			" |- SubmittedTasks:  " + _submittedTasks.sum(),
+			" |- CompletedTasks:  " + completed,
+			" |- ScheduledTasks:  " + getScheduledTaskCount(),
+			" |- QueuedTasks:     " + getQueuedTaskCount(),
+			" |- AvgLatency:      " + (completed > 0 ? TimeUnit.NANOSECONDS.toMicros(_totalLatency.sum() / completed) : 0) + " us",
+			" |- MaxLatency:      " + TimeUnit.NANOSECONDS.toMicros(_maxLatency.get()) + " us",
+			" | -------"
+		};
+	}
+	
+	/**
+	 * Runs a task, recording the time it waited since it was ready and passing exceptions to the thread's handler.
+	 * @param task the task to run
+	 * @param readyTime the time the task became ready to run, in {@link System#nanoTime()} units
+	 */
+	protected void runTask(Runnable task, long readyTime)
+	{
+		final long latency = System.nanoTime() - readyTime;
+		_totalLatency.add(latency);
+		long max;
+		while (latency > (max = _maxLatency.get()))
+		{
+			if (_maxLatency.compareAndSet(max, latency))
+			{
+				break;
+			}
+		}
+		
+		try
+		{
+			task.run();
+		}
+		catch (Throwable e)
+		{
+			final Thread t = Thread.currentThread();
+			final UncaughtExceptionHandler h = t.getUncaughtExceptionHandler();
+			if (h != null)
+			{
+				h.uncaughtException(t, e);
+			}
+		}
+		finally
+		{
+			_completedTasks.increment();
+		}
+	}
+	
+	private final class ExecuteTask implements Runnable
+	{
+		private final Runnable _task;
+		private final long _submitTime = System.nanoTime();
+		
+		public ExecuteTask(Runnable task)
+		{
+			_task = task;
+		}
+		
+		@Override
+		public void run()
+		{
+			runTask(_task, _submitTime);
+		}
+	}
+	
+	private static final AtomicIntegerFieldUpdater<ScheduledTask> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(ScheduledTask.class, "_state");
+	
+	private final class ScheduledTask extends HashedTimingWheel.Timeout implements ScheduledFuture<Object>, Runnable
+	{
+		private final Runnable _task;
+		/** Positive for fixed rate, negative for fixed delay, zero for one shot tasks. */
+		private final long _period;
+		/** Result of a callable, published by the write of the state. */
+		private Object _result;
+		/** Exception thrown by a callable, published by the write of the state. */
+		private Throwable _failure;
+		protected volatile int _state = WAITING;
+		
+		public ScheduledTask(Runnable task, long deadline, long period)
+		{
+			if (task == null)
+			{
+				throw new NullPointerException();
+			}
+			_task = task;
+			_deadline = deadline;
+			_period = period;
+		}
+		
+		public ScheduledTask(Callable<?> callable, long deadline)
+		{
+			if (callable == null)
+			{
+				throw new NullPointerException();
+			}
+			_task = () ->
+			{
+				try
+				{
+					_result = callable.call();
+				}
+				catch (Throwable e)
+				{
+					_failure = e;
+				}
+			};
+			_deadline = deadline;
+			_period = 0;
+		}
+		
+		@Override
+		public void run()
+		{
+			if (!STATE_UPDATER.compareAndSet(this, WAITING, RUNNING))
+			{
+				return;
+			}
+			
+			runTask(_task, _deadline);
+			
+			if (_period == 0)
+			{
+				if (STATE_UPDATER.compareAndSet(this, RUNNING, DONE))
+				{
+					synchronized (this)
+					{
+						notifyAll();
+					}
+				}
+			}
+			else if (STATE_UPDATER.compareAndSet(this, RUNNING, WAITING))
+			{
+				_deadline = _period > 0 ? _deadline + _period : System.nanoTime() - _period;
+				if (!_pool.isShutdown())
+				{
+					_scheduledTasks.incrementAndGet();
+					_wheel.add(this);
+				}
+			}
+		}
+		
+		@Override
+		protected void expire()
+		{
+			_scheduledTasks.decrementAndGet();
+			try
+			{
+				_pool.execute(this);
+			}
+			catch (RejectedExecutionException e)
+			{
+				cancel(false);
+			}
+		}
+		
+		@Override
+		protected void onDrop()
+		{
+			_scheduledTasks.decrementAndGet();
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			int state;
+			while (((state = _state) == WAITING) || (state == RUNNING))
+			{
+				if (STATE_UPDATER.compareAndSet(this, state, CANCELLED))
+				{
+					synchronized (this)
+					{
+						notifyAll();
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _state == CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _state >= DONE;
+		}
+		
+		@Override
+		public Object get() throws InterruptedException, ExecutionException
+		{
+			synchronized (this)
+			{
+				while (!isDone())
+				{
+					wait();
+				}
+			}
+			return getResult();
+		}
+		
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+		{
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this)
+			{
+				long remaining;
+				while (!isDone())
+				{
+					if ((remaining = deadline - System.nanoTime()) <= 0)
+					{
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			return getResult();
+		}
+		
+		private Object getResult() throws ExecutionException
+		{
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			if (_failure != null)
+			{
+				throw new ExecutionException(_failure);
+			}
+			return _result;
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert(_deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed o)
+		{
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
+}